@@ -21,6 +21,17 @@ configurations.all {
     }
 }
 
+// JMH benchmarks on the W3C test suites, see W3cBenchmarks
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+configurations["jmhRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     implementation("fr.com.hp.hpl.jena.rdf.arp:arp:2.2.b")
 
@@ -56,6 +67,10 @@ dependencies {
 
     testImplementation("junit:junit:4.13.2")
 
+    val jmh_version = "1.37"
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:${jmh_version}")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:${jmh_version}")
+
     implementation("fr.inria.corese:corese-core:5.0.0-SNAPSHOT") // To be changed for the release version
 }
 
@@ -78,9 +93,47 @@ tasks {
     run {
         group = "application"
         description = "Runs this project as a JVM application"
+
+        // Forward the corese.w3c.* options given to Gradle, e.g. the generation of direct API tests
+        System.getProperties()
+            .filterKeys { it.toString().startsWith("corese.w3c.") }
+            .forEach { (key, value) -> systemProperty(key.toString(), value) }
     }
     test {
         useJUnit()
+
+        // The generated classes run in parallel forks, and the methods of each class on the remaining cores
+        val cores = Runtime.getRuntime().availableProcessors()
+        maxParallelForks = (cores / 2).coerceAtLeast(1)
+        systemProperty("corese.w3c.parallelism", (cores / maxParallelForks).coerceAtLeast(1))
+
+        // Forward the corese.w3c.* options given to Gradle, e.g. the command runner
+        System.getProperties()
+            .filterKeys { it.toString().startsWith("corese.w3c.") }
+            .forEach { (key, value) -> systemProperty(key.toString(), value) }
+    }
+    register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs the JMH benchmarks on the tests of the W3C suites"
+        classpath = sourceSets["jmh"].runtimeClasspath
+        mainClass.set("fr.inria.corese.w3c.benchmark.W3cBenchmarks")
+
+        // JMH options, e.g. -PjmhArgs="-f 1 -wi 3 -i 5"
+        (project.findProperty("jmhArgs") as String?)?.let { args(it.trim().split(Regex("\\s+"))) }
+
+        // Forward the corese.w3c.* options given to Gradle, e.g. the benchmarks to run
+        System.getProperties()
+            .filterKeys { it.toString().startsWith("corese.w3c.") }
+            .forEach { (key, value) -> systemProperty(key.toString(), value) }
+    }
+    register<JavaExec>("rdfcStress") {
+        group = "verification"
+        description = "Measures the RDFC-1.0 canonicalization of growing hard blank node graphs"
+        classpath = sourceSets["jmh"].runtimeClasspath
+        mainClass.set("fr.inria.corese.w3c.benchmark.CanonicalizationStress")
+
+        // Options, e.g. -PrdfcStressArgs="--families cfi --sizes 4,8,16 --timeout-ms 10000"
+        (project.findProperty("rdfcStressArgs") as String?)?.let { args(it.trim().split(Regex("\\s+"))) }
     }
     shadowJar {
         manifest {
@@ -0,0 +1,109 @@
+package fr.inria.corese.w3c.benchmark;
+
+import fr.inria.corese.w3cJunitTestsGenerator.Main;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestDescription;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestIndex;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Tests of the W3C suites used as benchmark inputs, read from the index of each suite written by the generator. The
+ * benchmarks are parameterized by the URIs of the tests, and find the files of their test here.
+ */
+public class BenchmarkCorpus {
+
+    private static final Logger logger = LoggerFactory.getLogger(BenchmarkCorpus.class);
+
+    private static BenchmarkCorpus instance;
+
+    private final List<TestIndex> indexes = new ArrayList<>();
+    // Position of each test in its index, by test URI
+    private final Map<String, TestIndex> indexByTest = new HashMap<>();
+    private final Map<String, Integer> positionByTest = new HashMap<>();
+
+    private BenchmarkCorpus() throws IOException {
+        for (String suiteName : Main.getSuites().keySet()) {
+            Path indexPath = TestIndex.getIndexPath(suiteName);
+            if (!Files.exists(indexPath)) {
+                logger.warn("No index for the suite {}, run the generator to benchmark its tests: {}", suiteName,
+                        indexPath);
+                continue;
+            }
+            TestIndex index = TestIndex.open(indexPath);
+            this.indexes.add(index);
+            for (int test = 0; test < index.size(); test++) {
+                this.indexByTest.put(index.getTestUri(test), index);
+                this.positionByTest.put(index.getTestUri(test), test);
+            }
+        }
+    }
+
+    /**
+     * @return the corpus of the suites indexed in the working directory
+     * @throws IOException If an index cannot be read
+     */
+    public static synchronized BenchmarkCorpus getInstance() throws IOException {
+        if (instance == null) {
+            instance = new BenchmarkCorpus();
+        }
+        return instance;
+    }
+
+    /**
+     * Lists the tests of some types, in the order of their suites.
+     *
+     * @param types  Types of the tests
+     * @param filter Regular expression that the URI of a test must contain
+     * @return the URIs of the tests
+     */
+    public List<String> getTestUris(Collection<TestType> types, Pattern filter) {
+        List<String> testUris = new ArrayList<>();
+        for (TestIndex index : this.indexes) {
+            for (int test = 0; test < index.size(); test++) {
+                String testUri = index.getTestUri(test);
+                if (types.contains(W3cTestFactory.getTestType(index.getTypeUri(test)))
+                        && filter.matcher(testUri).find()) {
+                    testUris.add(testUri);
+                }
+            }
+        }
+        return testUris;
+    }
+
+    /**
+     * @param testUri URI of a test
+     * @return the description of the test, as extracted from its manifest
+     */
+    public TestDescription getDescription(String testUri) {
+        return getIndex(testUri).getDescription(this.positionByTest.get(testUri));
+    }
+
+    /**
+     * @param testUri URI of a test
+     * @return the URI of the manifest declaring the test
+     */
+    public URI getManifestUri(String testUri) {
+        return getIndex(testUri).getManifestUri(this.positionByTest.get(testUri));
+    }
+
+    private TestIndex getIndex(String testUri) {
+        TestIndex index = this.indexByTest.get(testUri);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown test: " + testUri);
+        }
+        return index;
+    }
+}
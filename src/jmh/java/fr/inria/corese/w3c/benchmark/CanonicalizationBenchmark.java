@@ -0,0 +1,59 @@
+package fr.inria.corese.w3c.benchmark;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.print.CanonicalRdf10Format;
+import fr.inria.corese.core.print.rdfc10.HashingUtility.HashAlgorithm;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestDescription;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of the RDFC-1.0 canonicalization of the action graphs of the canonical RDF evaluation and map tests, with the
+ * hash algorithm of the test. The negative tests, which exceed the limits of the algorithm, are not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CanonicalizationBenchmark {
+
+    public static final Set<TestType> TEST_TYPES = EnumSet.of(TestType.RDFC10EvalTest, TestType.RDFC10MapTest);
+
+    @Param({})
+    public String testUri;
+
+    private Graph graph;
+    private HashAlgorithm hashAlgorithm;
+
+    @Setup
+    public void setUp() throws IOException, LoadException {
+        TestDescription description = BenchmarkCorpus.getInstance().getDescription(this.testUri);
+        this.graph = Graph.create();
+        Load.create(this.graph).parse(
+                TestFileManager.getLocalFilePath(URI.create(description.getAction())).toString());
+        this.hashAlgorithm = "SHA384".equals(description.getHashAlgorithm()) ? HashAlgorithm.SHA_384
+                : HashAlgorithm.SHA_256;
+        // Fails the trial early if the graph cannot be canonicalized
+        canonicalize();
+    }
+
+    @Benchmark
+    public String canonicalize() {
+        return CanonicalRdf10Format.create(this.graph, this.hashAlgorithm).toString();
+    }
+}
@@ -0,0 +1,226 @@
+package fr.inria.corese.w3c.benchmark;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.print.rdfc10.CanonicalRdf10;
+import fr.inria.corese.core.print.rdfc10.CanonicalRdf10.CanonicalizationException;
+import fr.inria.corese.w3c.benchmark.StressGraphs.Family;
+import fr.inria.corese.w3cCommandLine.CommandLineArguments;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stress suite of the RDFC-1.0 canonicalization, on graphs of the {@link StressGraphs} families of growing size. Each
+ * graph is canonicalized with {@link CanonicalRdf10}, as CanonicalRdf10Format does, measuring its wall time, CPU time
+ * and allocated bytes, and the scaling curve of each family is written in a CSV file:
+ * family, size, triples, outcome, wall time (ns), CPU time (ns), allocated bytes
+ * <p>
+ * The outcome is "canonicalized", "limit" when corese refuses the graph with a {@link CanonicalizationException}, as
+ * for the poison graphs of the negative tests of the suite, or "timeout" when the canonicalization neither ends nor
+ * hits a limit of corese within the time limit. The work limits of corese are set on each canonicalization: the depth
+ * factor bounds the recursion of the N-degree hashing to the factor times the number of blank nodes, and the
+ * permutation limit bounds the number of permutations of a group of related blank nodes. Their defaults are those of
+ * corese. A family stops growing at its first limit. The suite stops at the first
+ * timeout, as the canonicalization cannot be interrupted and would disturb the next measures, and the command exits
+ * with 1, i.e. corese did not apply its work limits.
+ * <p>
+ * Options: "--families clique,regular,cfi,components", "--sizes 4,8,16,32,64,128", "--timeout-ms 30000",
+ * "--depth-factor 5", "--permutation-limit 50000" and "--output build/reports/rdfc-stress.csv".
+ */
+public class CanonicalizationStress {
+
+    private static final Logger logger = LoggerFactory.getLogger(CanonicalizationStress.class);
+
+    public static final String HEADER = "family,size,triples,outcome,wallNanos,cpuNanos,allocatedBytes";
+
+    private static final String CANONICALIZED_OUTCOME = "canonicalized";
+    private static final String LIMIT_OUTCOME = "limit";
+    private static final String TIMEOUT_OUTCOME = "timeout";
+    private static final String USAGE = "Usage: CanonicalizationStress [--families clique,regular,cfi,components] "
+            + "[--sizes 4,8,16,32,64,128] [--timeout-ms 30000] [--depth-factor 5] [--permutation-limit 50000] "
+            + "[--output build/reports/rdfc-stress.csv]";
+
+    public static void main(String[] args) {
+        CommandLineArguments commandLine = new CommandLineArguments(args, USAGE);
+        List<Family> families = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        long timeoutMillis = 0;
+        // The defaults of the work limits are those of corese
+        CanonicalRdf10 defaults = CanonicalRdf10.create(Graph.create());
+        int depthFactor = defaults.getDepthFactor();
+        int permutationLimit = defaults.getPermutationLimit();
+        Path output = null;
+        try {
+            for (String family : commandLine.removeOption("--families", "clique,regular,cfi,components").split(",")) {
+                families.add(Family.valueOf(family.trim().toUpperCase(Locale.ROOT)));
+            }
+            for (String size : commandLine.removeOption("--sizes", "4,8,16,32,64,128").split(",")) {
+                sizes.add(Integer.parseInt(size.trim()));
+            }
+            timeoutMillis = Long.parseLong(commandLine.removeOption("--timeout-ms", "30000"));
+            depthFactor = Integer.parseInt(commandLine.removeOption("--depth-factor", String.valueOf(depthFactor)));
+            permutationLimit = Integer.parseInt(
+                    commandLine.removeOption("--permutation-limit", String.valueOf(permutationLimit)));
+            output = Path.of(commandLine.removeOption("--output", "build/reports/rdfc-stress.csv"));
+        } catch (IllegalArgumentException e) {
+            commandLine.usage("Invalid option value: " + e.getMessage());
+        }
+        if (!commandLine.getOperands().isEmpty()) {
+            commandLine.usage("Unknown arguments: " + commandLine.getOperands());
+        }
+
+        try {
+            Limits limits = new Limits(timeoutMillis, depthFactor, permutationLimit);
+            System.exit(run(families, sizes, limits, output) ? 0 : 1);
+        } catch (IOException | InterruptedException e) {
+            logger.error("Canonicalization stress suite failed", e);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Canonicalizes the graphs of the families and writes their measures, up to the first timeout.
+     *
+     * @return false if a canonicalization timed out
+     */
+    private static boolean run(List<Family> families, List<Integer> sizes, Limits limits, Path output)
+            throws IOException, InterruptedException {
+        logger.info("Canonicalizing with a depth factor of {} and a permutation limit of {}, within {} ms",
+                limits.depthFactor, limits.permutationLimit, limits.timeoutMillis);
+        Path graphDirectory = Files.createTempDirectory("rdfc-stress");
+        List<String> lines = new ArrayList<>();
+        boolean withinLimits = true;
+        for (Family family : families) {
+            if (!withinLimits) {
+                break;
+            }
+            for (int size : sizes) {
+                if ((family == Family.REGULAR || family == Family.CFI) && (size < 4 || size % 2 != 0)) {
+                    logger.warn("Skipping the {} graph of size {}, which must be even and at least 4", family, size);
+                    continue;
+                }
+                Path graphFile = graphDirectory.resolve(family.name().toLowerCase(Locale.ROOT) + "-" + size + ".nt");
+                long triples = StressGraphs.write(family, size, graphFile);
+                Graph graph = Graph.create();
+                try {
+                    Load.create(graph).parse(graphFile.toString());
+                } catch (LoadException e) {
+                    throw new IOException("Could not parse the stress graph " + graphFile, e);
+                } finally {
+                    Files.delete(graphFile);
+                }
+
+                Measure measure = canonicalize(graph, limits);
+                lines.add(family.name().toLowerCase(Locale.ROOT) + "," + size + "," + triples + "," + measure.outcome
+                        + "," + measure.wallNanos + "," + measure.cpuNanos + "," + measure.allocatedBytes);
+                logger.info("{} graph of size {} ({} triples): {} in {} ms", family, size, triples, measure.outcome,
+                        measure.wallNanos / 1_000_000);
+
+                if (measure.outcome.equals(TIMEOUT_OUTCOME)) {
+                    // The canonicalization cannot be stopped and keeps running, it would disturb the next measures
+                    logger.error("The canonicalization of the {} graph of size {} did not end nor hit a limit in {} ms,"
+                            + " the remaining measures are skipped", family, size, limits.timeoutMillis);
+                    withinLimits = false;
+                }
+                if (!measure.outcome.equals(CANONICALIZED_OUTCOME)) {
+                    break;
+                }
+            }
+        }
+        Files.delete(graphDirectory);
+
+        StringBuilder content = new StringBuilder(HEADER).append("\n");
+        for (String line : lines) {
+            content.append(line).append("\n");
+        }
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Files.write(output, content.toString().getBytes(StandardCharsets.UTF_8));
+        logger.info("Wrote the scaling curves in {}", output);
+        return withinLimits;
+    }
+
+    /**
+     * Canonicalizes a graph on a separate thread within the limits, measured with {@link TestMetrics}.
+     */
+    private static Measure canonicalize(Graph graph, Limits limits) throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rdfc-stress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        Future<Measure> future = executor.submit(() -> {
+            TestMetrics.start();
+            String outcome;
+            try {
+                CanonicalRdf10 canonicalizer = CanonicalRdf10.create(graph);
+                canonicalizer.setDepthFactor(limits.depthFactor);
+                canonicalizer.setPermutationLimit(limits.permutationLimit);
+                canonicalizer.canonicalRdf10();
+                outcome = CANONICALIZED_OUTCOME;
+            } catch (CanonicalizationException e) {
+                outcome = LIMIT_OUTCOME;
+            }
+            List<TestMetrics.Sample> samples = TestMetrics.stop();
+            TestMetrics.Sample total = samples.get(samples.size() - 1);
+            return new Measure(outcome, total.getWallNanos(), total.getCpuNanos(), total.getAllocatedBytes());
+        });
+        executor.shutdown();
+        try {
+            return future.get(limits.timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return new Measure(TIMEOUT_OUTCOME, System.nanoTime() - start, -1, -1);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The canonicalization failed", e.getCause());
+        }
+    }
+
+    /**
+     * Limits of a canonicalization: the wall time checked by the suite, and the work limits applied by corese
+     */
+    private static class Limits {
+        private final long timeoutMillis;
+        private final int depthFactor;
+        private final int permutationLimit;
+
+        Limits(long timeoutMillis, int depthFactor, int permutationLimit) {
+            this.timeoutMillis = timeoutMillis;
+            this.depthFactor = depthFactor;
+            this.permutationLimit = permutationLimit;
+        }
+    }
+
+    /**
+     * Outcome and measures of a canonicalization
+     */
+    private static class Measure {
+        private final String outcome;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+
+        Measure(String outcome, long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.outcome = outcome;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+}
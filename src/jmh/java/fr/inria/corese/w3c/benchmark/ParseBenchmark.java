@@ -0,0 +1,60 @@
+package fr.inria.corese.w3c.benchmark;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse throughput of the action files of the positive syntax and evaluation tests of the RDF suites. The syntax is
+ * chosen by {@link Load} from the extension of the file, the results of a syntax are those of the tests of its suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParseBenchmark {
+
+    public static final Set<TestType> TEST_TYPES = EnumSet.of(
+            TestType.RDF11NQuadsPositiveSyntaxTest,
+            TestType.RDF11NTriplesPositiveSyntaxTest,
+            TestType.RDF11TrigPositiveSyntaxTest,
+            TestType.RDF11TurtlePositiveSyntaxTest,
+            TestType.RDF11TrigEvalTest,
+            TestType.RDF11TurtleEvalTest,
+            TestType.RDF11XMLEvalTest);
+
+    @Param({})
+    public String testUri;
+
+    private String actionFile;
+
+    @Setup
+    public void setUp() throws IOException, LoadException {
+        String action = BenchmarkCorpus.getInstance().getDescription(this.testUri).getAction();
+        this.actionFile = TestFileManager.getLocalFilePath(URI.create(action)).toString();
+        // Fails the trial early if the file cannot be parsed, and brings it in the page cache
+        parse();
+    }
+
+    @Benchmark
+    public Graph parse() throws LoadException {
+        Graph graph = Graph.create();
+        Load.create(graph).parse(this.actionFile);
+        return graph;
+    }
+}
@@ -0,0 +1,65 @@
+package fr.inria.corese.w3c.benchmark;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.core.Mappings;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.query.QueryProcess;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestDescription;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the qt:query of the SPARQL query evaluation tests over their qt:data, or over the sample data of the
+ * generated tests when they have none. The data is loaded once per trial, only the query is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+
+    public static final Set<TestType> TEST_TYPES = EnumSet.of(
+            TestType.SPARQLQueryEvaluationTest,
+            TestType.SPARQL11CSVResultFormatTest);
+
+    @Param({})
+    public String testUri;
+
+    private QueryProcess exec;
+    private String query;
+
+    @Setup
+    public void setUp() throws IOException, LoadException, EngineException {
+        TestDescription description = BenchmarkCorpus.getInstance().getDescription(this.testUri);
+        Graph graph = Graph.create();
+        Load.create(graph).parse(description.getData() != null
+                ? TestFileManager.getLocalFilePath(URI.create(description.getData())).toString()
+                : TestUtils.SAMPLE_DATA_FILE_PATH_STRING);
+        this.exec = QueryProcess.create(graph);
+        this.query = TestUtils.getFileTextContent(
+                TestFileManager.getLocalFilePath(URI.create(description.getQuery())).toString());
+        // Fails the trial early if the query cannot be evaluated
+        query();
+    }
+
+    @Benchmark
+    public Mappings query() throws EngineException {
+        return this.exec.query(this.query);
+    }
+}
@@ -0,0 +1,64 @@
+package fr.inria.corese.w3c.benchmark;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.shacl.Shacl;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestDescription;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of the SHACL validation of the data graphs of the SHACL tests by their shapes graphs, with the validator of
+ * corese-core. The graphs are loaded once per trial, only the validation and its report are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShaclBenchmark {
+
+    public static final Set<TestType> TEST_TYPES = EnumSet.of(TestType.SHACLValidateTest);
+
+    @Param({})
+    public String testUri;
+
+    private Graph dataGraph;
+    private Graph shapesGraph;
+
+    @Setup
+    public void setUp() throws IOException, LoadException, EngineException {
+        TestDescription description = BenchmarkCorpus.getInstance().getDescription(this.testUri);
+        this.dataGraph = load(description.getDataGraph());
+        this.shapesGraph = description.getShapesGraph().equals(description.getDataGraph()) ? this.dataGraph
+                : load(description.getShapesGraph());
+        // Fails the trial early if the graphs cannot be validated
+        validate();
+    }
+
+    @Benchmark
+    public Graph validate() throws EngineException {
+        return new Shacl(this.dataGraph, this.shapesGraph).eval();
+    }
+
+    private static Graph load(String graphUri) throws LoadException {
+        Graph graph = Graph.create();
+        graph.init();
+        Load.create(graph).parse(TestFileManager.getLocalFilePath(URI.create(graphUri)).toString());
+        return graph;
+    }
+}
@@ -0,0 +1,155 @@
+package fr.inria.corese.w3c.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Families of blank node graphs that are hard to canonicalize, as their blank nodes cannot be told apart by their
+ * first degree hashes and need the N-degree hashing of RDFC-1.0. The edges are undirected: each one is written as a
+ * triple in both directions.
+ */
+public class StressGraphs {
+
+    private static final String EDGE = "<http://example.org/stress#edge>";
+    // Length of the cycles of the isomorphic components family
+    private static final int COMPONENT_SIZE = 8;
+
+    public enum Family {
+        /** Complete graph of n blank nodes */
+        CLIQUE,
+        /** 3-regular circulant graph of n blank nodes, each linked to its neighbours and to its opposite */
+        REGULAR,
+        /** Cai-Fürer-Immerman construction over the 3-regular circulant graph of n vertices, with a twisted edge */
+        CFI,
+        /** n isomorphic cycles of blank nodes */
+        COMPONENTS
+    }
+
+    private StressGraphs() {
+    }
+
+    /**
+     * Writes a graph of a family in an N-Triples file.
+     *
+     * @param family   Family of the graph
+     * @param size     Size parameter of the family, at least 4 and even for the regular and CFI families
+     * @param filePath Path to the N-Triples file
+     * @return the number of triples of the graph
+     * @throws IOException If the file cannot be written
+     */
+    public static long write(Family family, int size, Path filePath) throws IOException {
+        List<int[]> edges;
+        switch (family) {
+            case CLIQUE:
+                edges = clique(size);
+                break;
+            case REGULAR:
+                edges = circulant(size);
+                break;
+            case CFI:
+                edges = cfi(circulant(size), size);
+                break;
+            default:
+                edges = components(size);
+                break;
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+            for (int[] edge : edges) {
+                writer.append("_:n").append(Integer.toString(edge[0])).append(' ').append(EDGE)
+                        .append(" _:n").append(Integer.toString(edge[1])).append(" .\n");
+                writer.append("_:n").append(Integer.toString(edge[1])).append(' ').append(EDGE)
+                        .append(" _:n").append(Integer.toString(edge[0])).append(" .\n");
+            }
+        }
+        return 2L * edges.size();
+    }
+
+    private static List<int[]> clique(int size) {
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                edges.add(new int[] { i, j });
+            }
+        }
+        return edges;
+    }
+
+    private static List<int[]> circulant(int size) {
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            edges.add(new int[] { i, (i + 1) % size });
+            if (i < size / 2) {
+                edges.add(new int[] { i, i + size / 2 });
+            }
+        }
+        return edges;
+    }
+
+    private static List<int[]> components(int count) {
+        List<int[]> edges = new ArrayList<>();
+        for (int component = 0; component < count; component++) {
+            int first = component * COMPONENT_SIZE;
+            for (int i = 0; i < COMPONENT_SIZE; i++) {
+                edges.add(new int[] { first + i, first + (i + 1) % COMPONENT_SIZE });
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Replaces each vertex v of a base graph by a CFI gadget: two nodes a(v, e, 0) and a(v, e, 1) per edge e of v, and
+     * a middle node per subset S of even size of the edges of v, linked to a(v, e, 1) if e is in S and to a(v, e, 0)
+     * otherwise. Each edge of the base graph links the nodes a(u, e, i) and a(v, e, i) of its gadgets, the first edge
+     * linking a(u, e, i) and a(v, e, 1 - i).
+     */
+    private static List<int[]> cfi(List<int[]> baseEdges, int vertexCount) {
+        List<List<Integer>> incidentEdges = new ArrayList<>();
+        for (int v = 0; v < vertexCount; v++) {
+            incidentEdges.add(new ArrayList<>());
+        }
+        for (int e = 0; e < baseEdges.size(); e++) {
+            incidentEdges.get(baseEdges.get(e)[0]).add(e);
+            incidentEdges.get(baseEdges.get(e)[1]).add(e);
+        }
+
+        // Node ids of the a(v, e, i) nodes, by vertex, position of the edge in the incident edges of v and bit
+        List<int[][]> endNodes = new ArrayList<>();
+        List<int[]> edges = new ArrayList<>();
+        int nextNode = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            int degree = incidentEdges.get(v).size();
+            int[][] ends = new int[degree][2];
+            for (int k = 0; k < degree; k++) {
+                ends[k][0] = nextNode++;
+                ends[k][1] = nextNode++;
+            }
+            endNodes.add(ends);
+            for (int subset = 0; subset < 1 << degree; subset++) {
+                if (Integer.bitCount(subset) % 2 != 0) {
+                    continue;
+                }
+                int middle = nextNode++;
+                for (int k = 0; k < degree; k++) {
+                    edges.add(new int[] { middle, ends[k][(subset >> k) & 1] });
+                }
+            }
+        }
+
+        for (int e = 0; e < baseEdges.size(); e++) {
+            int u = baseEdges.get(e)[0];
+            int v = baseEdges.get(e)[1];
+            int[] uEnds = endNodes.get(u)[incidentEdges.get(u).indexOf(e)];
+            int[] vEnds = endNodes.get(v)[incidentEdges.get(v).indexOf(e)];
+            boolean twisted = e == 0;
+            edges.add(new int[] { uEnds[0], vEnds[twisted ? 1 : 0] });
+            edges.add(new int[] { uEnds[1], vEnds[twisted ? 0 : 1] });
+        }
+        return edges;
+    }
+}
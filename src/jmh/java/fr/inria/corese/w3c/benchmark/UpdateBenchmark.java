@@ -0,0 +1,85 @@
+package fr.inria.corese.w3c.benchmark;
+
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.query.QueryProcess;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestDescription;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestType;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.SPARQLUpdateEvaluationTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the .ru requests of the SPARQL update evaluation tests. The updates modify their dataset, so each
+ * invocation of {@link #update()} loads it again, as in the "load" phase of the tests, before running the requests.
+ * {@link #load()} measures the loading alone: the throughput of the requests is derived from the difference between
+ * the two. A per-invocation setup would instead time each call separately, an overhead that dominates for the
+ * small datasets of the suites.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UpdateBenchmark {
+
+    public static final Set<TestType> TEST_TYPES = EnumSet.of(TestType.SPARQLUpdateEvaluationTest);
+
+    @Param({})
+    public String testUri;
+
+    private final List<String> actionDataFiles = new ArrayList<>();
+    private Map<String, String> actionGraphs;
+    private final List<String> requests = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException, LoadException, EngineException {
+        TestDescription description = BenchmarkCorpus.getInstance().getDescription(this.testUri);
+        this.actionDataFiles.addAll(new TreeSet<>(description.getActionDataFiles()));
+        this.actionGraphs = description.getActionGraphs();
+        // The requests run in the order of their file names, as the set of the manifest has no order
+        for (String requestFile : new TreeSet<>(description.getRequestFiles())) {
+            this.requests.add(TestUtils.getFileTextContent(
+                    TestFileManager.getLocalFilePath(URI.create(requestFile)).toString()));
+        }
+        // Fails the trial early if the requests cannot be evaluated
+        update();
+    }
+
+    /**
+     * Loads the dataset of the test, as the "load" phase of the test does
+     */
+    @Benchmark
+    public QueryProcess load() throws LoadException {
+        return QueryProcess.create(SPARQLUpdateEvaluationTest.loadDataset(this.actionDataFiles, this.actionGraphs));
+    }
+
+    /**
+     * Loads the dataset of the test, then runs its requests on it
+     */
+    @Benchmark
+    public QueryProcess update() throws LoadException, EngineException {
+        QueryProcess exec = load();
+        for (String request : this.requests) {
+            exec.query(request);
+        }
+        return exec;
+    }
+}
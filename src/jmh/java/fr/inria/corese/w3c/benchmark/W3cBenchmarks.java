@@ -0,0 +1,107 @@
+package fr.inria.corese.w3c.benchmark;
+
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestType;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the JMH benchmarks on the tests of the W3C suites. Each benchmark is run on all the tests of its types found in
+ * the suite indexes, the URIs of the tests being the values of its "testUri" parameter, and its results are written in
+ * a JSON file named after it. The arguments are JMH command line options, e.g. "-f 1 -wi 3 -i 5", and the tests are
+ * selected by the system properties:
+ * <ul>
+ * <li>"corese.w3c.benchmarks": comma-separated names of the benchmarks to run, among parse, query, update,
+ * canonicalize and shacl. All of them by default,</li>
+ * <li>"corese.w3c.benchmarks.filter": regular expression that the URI of a test must contain to be benchmarked,</li>
+ * <li>"corese.w3c.benchmarks.results": directory of the result files, "build/reports/jmh" by default.</li>
+ * </ul>
+ */
+public class W3cBenchmarks {
+
+    private static final Logger logger = LoggerFactory.getLogger(W3cBenchmarks.class);
+
+    public static final String BENCHMARKS_PROPERTY = "corese.w3c.benchmarks";
+    public static final String FILTER_PROPERTY = "corese.w3c.benchmarks.filter";
+    public static final String RESULTS_PROPERTY = "corese.w3c.benchmarks.results";
+
+    private static final Map<String, Class<?>> BENCHMARK_CLASSES = new LinkedHashMap<>();
+    private static final Map<String, Set<TestType>> BENCHMARK_TEST_TYPES = new LinkedHashMap<>();
+
+    static {
+        register("parse", ParseBenchmark.class, ParseBenchmark.TEST_TYPES);
+        register("query", QueryBenchmark.class, QueryBenchmark.TEST_TYPES);
+        register("update", UpdateBenchmark.class, UpdateBenchmark.TEST_TYPES);
+        register("canonicalize", CanonicalizationBenchmark.class, CanonicalizationBenchmark.TEST_TYPES);
+        register("shacl", ShaclBenchmark.class, ShaclBenchmark.TEST_TYPES);
+    }
+
+    private W3cBenchmarks() {
+    }
+
+    private static void register(String name, Class<?> benchmarkClass, Set<TestType> testTypes) {
+        BENCHMARK_CLASSES.put(name, benchmarkClass);
+        BENCHMARK_TEST_TYPES.put(name, testTypes);
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        Pattern filter = Pattern.compile(System.getProperty(FILTER_PROPERTY, ""));
+        Path resultsDirectory = Path.of(System.getProperty(RESULTS_PROPERTY, "build/reports/jmh"));
+        Files.createDirectories(resultsDirectory);
+
+        BenchmarkCorpus corpus = BenchmarkCorpus.getInstance();
+        for (String name : getSelectedBenchmarks()) {
+            List<String> testUris = corpus.getTestUris(BENCHMARK_TEST_TYPES.get(name), filter);
+            if (testUris.isEmpty()) {
+                logger.warn("No test to run the {} benchmark on", name);
+                continue;
+            }
+            logger.info("Running the {} benchmark on {} tests", name, testUris.size());
+
+            // Each benchmark is run apart, as the values of the testUri parameter are specific to it
+            Options options = new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .include("^" + Pattern.quote(BENCHMARK_CLASSES.get(name).getName()) + "\\.")
+                    .param("testUri", testUris.toArray(new String[0]))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultsDirectory.resolve(name + ".json").toString())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    /**
+     * @return the benchmarks named by the "corese.w3c.benchmarks" system property
+     */
+    private static List<String> getSelectedBenchmarks() {
+        String benchmarks = System.getProperty(BENCHMARKS_PROPERTY, "").trim();
+        if (benchmarks.isEmpty()) {
+            return List.copyOf(BENCHMARK_CLASSES.keySet());
+        }
+        List<String> names = Arrays.asList(benchmarks.split("\\s*,\\s*"));
+        for (String name : names) {
+            if (!BENCHMARK_CLASSES.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown benchmark: " + name + ", expected one of "
+                        + BENCHMARK_CLASSES.keySet());
+            }
+        }
+        return names;
+    }
+}
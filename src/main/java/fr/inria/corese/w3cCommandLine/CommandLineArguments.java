@@ -0,0 +1,66 @@
+package fr.inria.corese.w3cCommandLine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Arguments of the command line tools of the project, e.g. the performance gate or the workload generator. The
+ * options, e.g. "--sizes 4,8,16", are removed from the arguments as they are read, so that the remaining arguments are
+ * the operands of the tool. An invalid command line prints the usage of the tool and exits with 2.
+ */
+public class CommandLineArguments {
+
+    private static final int USAGE_EXIT_CODE = 2;
+
+    private final List<String> arguments;
+    private final String usage;
+
+    /**
+     * @param args  Arguments of the main method of the tool
+     * @param usage Usage of the tool, e.g. "Usage: Tool &lt;file&gt; [--option value]"
+     */
+    public CommandLineArguments(String[] args, String usage) {
+        this.arguments = new ArrayList<>(Arrays.asList(args));
+        this.usage = usage;
+    }
+
+    /**
+     * Removes an option and its value from the arguments. Exits with the usage if the option has no value.
+     *
+     * @param option       Name of the option, e.g. "--sizes"
+     * @param defaultValue Value of the option when it is absent
+     * @return the value of the option, or the default value if it is absent
+     */
+    public String removeOption(String option, String defaultValue) {
+        int index = this.arguments.indexOf(option);
+        if (index < 0) {
+            return defaultValue;
+        }
+        if (index + 1 >= this.arguments.size()) {
+            usage("Missing value of " + option);
+        }
+        String value = this.arguments.get(index + 1);
+        this.arguments.subList(index, index + 2).clear();
+        return value;
+    }
+
+    /**
+     * @return the arguments that are not among the options removed so far
+     */
+    public List<String> getOperands() {
+        return Collections.unmodifiableList(this.arguments);
+    }
+
+    /**
+     * Prints a message and the usage of the tool on the standard error, and exits with 2
+     *
+     * @param message Description of the error of the command line
+     */
+    public void usage(String message) {
+        System.err.println(message);
+        System.err.println(this.usage);
+        System.exit(USAGE_EXIT_CODE);
+    }
+}
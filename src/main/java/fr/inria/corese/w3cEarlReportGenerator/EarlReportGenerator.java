@@ -9,10 +9,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * This class generates an EARL report for the Corese software.
@@ -51,7 +55,8 @@ public class EarlReportGenerator {
     private final String releaseDate = "2024-04-11";
 
     private final Path reportDir = Path.of("corese-unit-test/src/test/java/fr/inria/corese/w3c/canonicalRdf");
-    private final Path inputReportPath = reportDir.resolve("testReport.csv");
+    // The suite is written in testReport.csv, or in a testReport-*.csv file per shard when it is split in several classes
+    private final String inputReportGlob = "testReport*.csv";
     private final Path outputReportPath = reportDir.resolve("earlReport.ttl");
 
     /**
@@ -83,22 +88,22 @@ public class EarlReportGenerator {
         format.addPrefix = false;
 
         // Add the test results to the EARL report
-        try {
-            // read line by line the test report file
-            // for each line, add the test result to the EARL report
-
-            for (String line : Files.readAllLines(inputReportPath)) {
-                String[] values = line.split(",");
-                String testUri = values[0];
-                String testTime = values[1];
-                String testResult = values[2];
-
-                execSPARQL(insertQueryDescribeTestResult(testUri, testTime, testResult));
+        // read line by line the test report files of the suite
+        // for each line, add the test result to the EARL report
+        for (Path inputReportPath : getInputReportPaths()) {
+            try {
+                for (String line : Files.readAllLines(inputReportPath)) {
+                    String[] values = line.split(",");
+                    String testUri = values[0];
+                    String testTime = values[1];
+                    String testResult = values[2];
+
+                    execSPARQL(insertQueryDescribeTestResult(testUri, testTime, testResult));
+                }
+            } catch (IOException e) {
+                logger.error("Error while reading test report file: " + inputReportPath.toString(), e);
+                e.printStackTrace();
             }
-
-        } catch (IOException e) {
-            logger.error("Error while reading test report file: " + inputReportPath.toString(), e);
-            e.printStackTrace();
         }
 
         // Write the EARL report to the output directory
@@ -111,6 +116,25 @@ public class EarlReportGenerator {
 
     }
 
+    /**
+     * Returns the test report files of the suite, sorted by name so that the report does not depend on the order of
+     * the directory listing.
+     *
+     * @return the paths to the test report files
+     */
+    private List<Path> getInputReportPaths() {
+        List<Path> inputReportPaths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(reportDir, inputReportGlob)) {
+            for (Path file : files) {
+                inputReportPaths.add(file);
+            }
+        } catch (IOException e) {
+            logger.error("Error while listing test report files in: " + reportDir.toString(), e);
+        }
+        Collections.sort(inputReportPaths);
+        return inputReportPaths;
+    }
+
     /**
      * Returns a NSManager with the prefixes used in the EARL report.
      * 
@@ -0,0 +1,289 @@
+package fr.inria.corese.w3cEarlReportGenerator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fr.inria.corese.w3cCommandLine.CommandLineArguments;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Performance regression gate over the testMetrics*.csv files written by the test suites.
+ * <p>
+ * A run is a copy of the test directory (src/test/java/fr/inria/corese/w3c) after a test execution, with a
+ * sub-directory per suite. The tests are run N times to compute, for each phase of each passed test, the median of its
+ * N wall times and their median absolute deviation (MAD), which are robust to the occasional slow run.
+ * <ul>
+ * <li>"record baseline.json run1 ... runN" writes the medians and MADs of the runs in a baseline file,</li>
+ * <li>"compare baseline.json run1 ... runN" compares the medians of the runs to the baseline, writes a JSON verdict
+ * on the standard output, or in the file given with "--output", and exits with 1 if something regressed.</li>
+ * </ul>
+ * A test or a phase of a test regressed when its median grew by more than the threshold ("--threshold", default 0.25
+ * for 25%), by more than "--mad-factor" (default 3) scaled MADs of the baseline or of the runs, and by more than
+ * "--min-delta-ms" (default 5) milliseconds. A suite, or a phase of all the tests of a suite, regressed when the sum of
+ * the medians of its tests grew by more than the threshold and by more than the minimal delta.
+ * <p>
+ * The gate exits with 2 if a file cannot be read, e.g. a metrics line with an invalid wall time.
+ */
+public class PerformanceGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceGate.class);
+
+    public static final String METRICS_FILE_GLOB = "testMetrics*.csv";
+    private static final String PASSED_OUTCOME = "passed";
+    private static final String TOTAL_PHASE = "total";
+    // Makes the MAD a consistent estimator of the standard deviation of normally distributed timings
+    private static final double MAD_SCALE = 1.4826;
+    private static final int FORMAT_VERSION = 1;
+    private static final String USAGE = "Usage: PerformanceGate record|compare <baseline.json> <run directory>... "
+            + "[--threshold 0.25] [--mad-factor 3] [--min-delta-ms 5] [--output verdict.json]";
+
+    private double threshold = 0.25;
+    private double madFactor = 3;
+    private long minDeltaNanos = 5_000_000;
+
+    /**
+     * @param args "record" or "compare", the baseline file, the run directories, and the options
+     */
+    public static void main(String[] args) {
+        CommandLineArguments commandLine = new CommandLineArguments(args, USAGE);
+        PerformanceGate gate = new PerformanceGate();
+        Path output = null;
+        try {
+            gate.threshold = Double.parseDouble(commandLine.removeOption("--threshold", "0.25"));
+            gate.madFactor = Double.parseDouble(commandLine.removeOption("--mad-factor", "3"));
+            gate.minDeltaNanos = (long) (Double.parseDouble(commandLine.removeOption("--min-delta-ms", "5")) * 1_000_000);
+            String outputOption = commandLine.removeOption("--output", null);
+            output = outputOption != null ? Path.of(outputOption) : null;
+        } catch (NumberFormatException e) {
+            commandLine.usage("Invalid option value: " + e.getMessage());
+        }
+        List<String> arguments = commandLine.getOperands();
+        if (arguments.size() < 3) {
+            commandLine.usage("Missing arguments");
+        }
+
+        String command = arguments.get(0);
+        Path baselinePath = Path.of(arguments.get(1));
+        List<Path> runs = new ArrayList<>();
+        for (String run : arguments.subList(2, arguments.size())) {
+            runs.add(Path.of(run));
+        }
+
+        try {
+            if (command.equals("record")) {
+                gate.record(baselinePath, runs);
+            } else if (command.equals("compare")) {
+                ObjectNode verdict = gate.compare(baselinePath, runs);
+                String json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(verdict);
+                if (output != null) {
+                    Files.writeString(output, json);
+                } else {
+                    System.out.println(json);
+                }
+                System.exit(verdict.get("passed").asBoolean() ? 0 : 1);
+            } else {
+                commandLine.usage("Unknown command: " + command);
+            }
+        } catch (IOException e) {
+            logger.error("Performance gate failed: {}", e.getMessage(), e);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Writes the medians and MADs of the runs in a baseline file.
+     *
+     * @param baselinePath Path to the baseline file
+     * @param runs         Directories of the runs
+     * @throws IOException If a file cannot be read or written
+     */
+    public void record(Path baselinePath, List<Path> runs) throws IOException {
+        Map<String, List<Long>> samples = readRuns(runs);
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode root = mapper.createObjectNode();
+        root.put("version", FORMAT_VERSION);
+        root.put("runs", runs.size());
+        ObjectNode entries = root.putObject("entries");
+        for (Map.Entry<String, List<Long>> sample : samples.entrySet()) {
+            ObjectNode entry = entries.putObject(sample.getKey());
+            long median = median(sample.getValue());
+            entry.put("medianNanos", median);
+            entry.put("madNanos", mad(sample.getValue(), median));
+        }
+        mapper.writeValue(baselinePath.toFile(), root);
+        logger.info("Recorded {} timings of {} runs in {}", samples.size(), runs.size(), baselinePath);
+    }
+
+    /**
+     * Compares the runs to a baseline.
+     *
+     * @param baselinePath Path to the baseline file
+     * @param runs         Directories of the runs
+     * @return the verdict: "passed", the regressions of the tests, suites and phases, and the tests missing from the
+     * runs
+     * @throws IOException If a file cannot be read
+     */
+    public ObjectNode compare(Path baselinePath, List<Path> runs) throws IOException {
+        JsonNode baseline = new ObjectMapper().readTree(baselinePath.toFile());
+        if (baseline.path("version").asInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported baseline version in " + baselinePath);
+        }
+        Map<String, Long> baselineMedians = new TreeMap<>();
+        Map<String, Long> baselineMads = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> entries = baseline.path("entries").fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            baselineMedians.put(entry.getKey(), entry.getValue().path("medianNanos").asLong());
+            baselineMads.put(entry.getKey(), entry.getValue().path("madNanos").asLong());
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode verdict = mapper.createObjectNode();
+        verdict.put("threshold", threshold);
+        verdict.put("madFactor", madFactor);
+        verdict.put("minDeltaNanos", minDeltaNanos);
+        verdict.put("runs", runs.size());
+        ArrayNode regressions = verdict.putArray("regressions");
+        ArrayNode missing = verdict.putArray("missing");
+
+        // Per test and phase of a test
+        Map<String, Long> medians = new TreeMap<>();
+        Map<String, Long> baselineAggregates = new TreeMap<>();
+        Map<String, Long> aggregates = new TreeMap<>();
+        for (Map.Entry<String, List<Long>> sample : readRuns(runs).entrySet()) {
+            medians.put(sample.getKey(), median(sample.getValue()));
+            Long baselineMedian = baselineMedians.get(sample.getKey());
+            if (baselineMedian == null) {
+                continue;
+            }
+            long median = medians.get(sample.getKey());
+            long noise = (long) (madFactor * MAD_SCALE
+                    * Math.max(baselineMads.get(sample.getKey()), mad(sample.getValue(), median)));
+            if (isRegression(baselineMedian, median) && median - baselineMedian > noise) {
+                addRegression(regressions, isTotal(sample.getKey()) ? "test" : "testPhase", sample.getKey(),
+                        baselineMedian, median);
+            }
+            // The suites and their phases are only compared on the tests present in both
+            aggregate(baselineAggregates, sample.getKey(), baselineMedian);
+            aggregate(aggregates, sample.getKey(), median);
+        }
+        for (String key : baselineMedians.keySet()) {
+            if (isTotal(key) && !medians.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+
+        // Per suite and phase of a suite
+        for (Map.Entry<String, Long> aggregate : aggregates.entrySet()) {
+            long baselineSum = baselineAggregates.get(aggregate.getKey());
+            if (isRegression(baselineSum, aggregate.getValue())) {
+                addRegression(regressions, isTotal(aggregate.getKey()) ? "suite" : "suitePhase", aggregate.getKey(),
+                        baselineSum, aggregate.getValue());
+            }
+        }
+
+        verdict.put("passed", regressions.size() == 0);
+        return verdict;
+    }
+
+    private boolean isRegression(long baselineNanos, long nanos) {
+        return nanos > baselineNanos * (1 + threshold) && nanos - baselineNanos > minDeltaNanos;
+    }
+
+    private static void addRegression(ArrayNode regressions, String level, String key, long baselineNanos,
+            long nanos) {
+        ObjectNode regression = regressions.addObject();
+        regression.put("level", level);
+        regression.put("key", key);
+        regression.put("baselineMedianNanos", baselineNanos);
+        regression.put("medianNanos", nanos);
+        regression.put("ratio", baselineNanos > 0 ? (double) nanos / baselineNanos : Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Adds the median of a phase of a test to its suite, "suite total", and to the phase of its suite, "suite phase"
+     */
+    private static void aggregate(Map<String, Long> aggregates, String key, long nanos) {
+        String[] parts = key.split(" ", 3);
+        aggregates.merge(parts[0] + " " + parts[2], nanos, Long::sum);
+    }
+
+    private static boolean isTotal(String key) {
+        return key.endsWith(" " + TOTAL_PHASE);
+    }
+
+    /**
+     * Reads the wall times of the passed tests of the runs.
+     *
+     * @return the wall times of each phase of each test, keyed by "suite testUri phase"
+     */
+    private static Map<String, List<Long>> readRuns(List<Path> runs) throws IOException {
+        Map<String, List<Long>> samples = new TreeMap<>();
+        for (Path run : runs) {
+            PathMatcher metricsFileMatcher = run.getFileSystem().getPathMatcher("glob:" + METRICS_FILE_GLOB);
+            List<Path> metricsFiles;
+            try (Stream<Path> files = Files.walk(run)) {
+                metricsFiles = files.filter(file -> metricsFileMatcher.matches(file.getFileName())).sorted()
+                        .collect(Collectors.toList());
+            }
+            if (metricsFiles.isEmpty()) {
+                logger.warn("No {} file in {}", METRICS_FILE_GLOB, run);
+            }
+            for (Path metricsFile : metricsFiles) {
+                String suite = run.relativize(metricsFile.getParent()).toString();
+                List<String> lines = Files.readAllLines(metricsFile);
+                // The first line is the header
+                for (int lineNumber = 2; lineNumber <= lines.size(); lineNumber++) {
+                    // test, outcome, phase, wall time, CPU time, allocated bytes
+                    String line = lines.get(lineNumber - 1);
+                    String[] values = line.split(",");
+                    if (values.length < 4 || !values[1].equals(PASSED_OUTCOME)) {
+                        continue;
+                    }
+                    long wallTime;
+                    try {
+                        wallTime = Long.parseLong(values[3]);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Invalid wall time at line " + lineNumber + " of " + metricsFile + ": "
+                                + line);
+                    }
+                    samples.computeIfAbsent(suite + " " + values[0] + " " + values[2], key -> new ArrayList<>())
+                            .add(wallTime);
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sortedValues = new ArrayList<>(values);
+        Collections.sort(sortedValues);
+        int middle = sortedValues.size() / 2;
+        return sortedValues.size() % 2 == 1 ? sortedValues.get(middle)
+                : (sortedValues.get(middle - 1) + sortedValues.get(middle)) / 2;
+    }
+
+    private static long mad(List<Long> values, long median) {
+        List<Long> deviations = new ArrayList<>(values.size());
+        for (long value : values) {
+            deviations.add(Math.abs(value - median));
+        }
+        return median(deviations);
+    }
+}
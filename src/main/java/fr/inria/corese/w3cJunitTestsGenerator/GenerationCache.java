@@ -0,0 +1,273 @@
+package fr.inria.corese.w3cJunitTestsGenerator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.AbstractRDFEvalTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.SHACLValidateTest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cache of the generation of the test suites, used to skip the suites whose inputs did not change since their last
+ * generation.
+ * <p>
+ * The fingerprint of a suite is a hash of:
+ * <ul>
+ * <li>the classes of the generator and the generation options,</li>
+ * <li>the manifest URI of the suite,</li>
+ * <li>the local copies of the manifest closure, i.e. the manifests, their inclusions and the files of their tests, as
+ * requested to {@link TestFileManager} during the last generation.</li>
+ * </ul>
+ * A suite is up to date if its fingerprint is the one recorded at its last generation and its test classes were not
+ * modified since.
+ * <p>
+ * Format: { "suite": { "fingerprint": "...", "testFilesSha256": "...", "resources": [ "remote URI", ... ] }, ... }
+ */
+public class GenerationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationCache.class);
+
+    private final Path cachePath;
+    private final Map<String, Entry> entries = Collections.synchronizedMap(new TreeMap<>());
+    private String generatorFingerprint = null;
+
+    private GenerationCache(Path cachePath) {
+        this.cachePath = cachePath;
+    }
+
+    /**
+     * Reads a generation cache file. A missing or unreadable file gives an empty cache.
+     *
+     * @param cachePath Path to the cache file
+     * @return the cache backed by the file
+     */
+    public static GenerationCache load(Path cachePath) {
+        GenerationCache cache = new GenerationCache(cachePath);
+        if (!Files.exists(cachePath)) {
+            return cache;
+        }
+        try {
+            JsonNode root = new ObjectMapper().readTree(cachePath.toFile());
+            Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode entry = field.getValue();
+                List<URI> resources = new ArrayList<>();
+                for (JsonNode resource : entry.path("resources")) {
+                    resources.add(new URI(resource.asText()));
+                }
+                cache.entries.put(field.getKey(), new Entry(entry.path("fingerprint").asText(),
+                        entry.path("testFilesSha256").asText(), resources));
+            }
+        } catch (IOException | URISyntaxException e) {
+            logger.warn("Could not read the generation cache " + cachePath + ", all the suites will be generated", e);
+        }
+        return cache;
+    }
+
+    /**
+     * Checks if a suite is up to date. In update mode, the resources of the suite are revalidated first, so that a
+     * suite whose files changed remotely is generated again.
+     *
+     * @param suiteName      Name of the suite
+     * @param manifestUri    URI of the root manifest of the suite
+     * @param suiteDirectory Directory of the test classes generated for the suite
+     * @return true if the suite does not need to be generated
+     */
+    public boolean isUpToDate(String suiteName, URI manifestUri, Path suiteDirectory) {
+        Entry entry = this.entries.get(suiteName);
+        if (entry == null || !Files.isDirectory(suiteDirectory)) {
+            return false;
+        }
+        try {
+            if (!entry.testFilesSha256.equals(hashTestFiles(suiteDirectory))) {
+                logger.info("The test classes of {} were modified since their generation", suiteDirectory);
+                return false;
+            }
+            // Restores the files missing locally, and revalidates them in update mode
+            TestFileManager.loadFiles(entry.resources);
+            return entry.fingerprint.equals(computeFingerprint(manifestUri, entry.resources));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.warn("Could not check the fingerprint of the suite " + suiteName + ", it will be generated", e);
+            return false;
+        }
+    }
+
+    /**
+     * Records the generation of a suite.
+     *
+     * @param suiteName      Name of the suite
+     * @param manifestUri    URI of the root manifest of the suite
+     * @param suiteDirectory Directory of the test classes generated for the suite
+     * @param resources      Remote URIs of the files read to generate the suite
+     */
+    public void record(String suiteName, URI manifestUri, Path suiteDirectory, Collection<URI> resources) {
+        List<URI> sortedResources = new ArrayList<>(resources);
+        sortedResources.sort(null);
+        try {
+            this.entries.put(suiteName, new Entry(computeFingerprint(manifestUri, sortedResources),
+                    hashTestFiles(suiteDirectory), sortedResources));
+        } catch (IOException e) {
+            logger.warn("Could not compute the fingerprint of the suite " + suiteName, e);
+            this.entries.remove(suiteName);
+        }
+    }
+
+    /**
+     * Writes the cache to its file. The entries are sorted so that the file is stable.
+     */
+    public synchronized void save() {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode root = mapper.createObjectNode();
+        synchronized (this.entries) {
+            for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+                ObjectNode node = root.putObject(entry.getKey());
+                node.put("fingerprint", entry.getValue().fingerprint);
+                node.put("testFilesSha256", entry.getValue().testFilesSha256);
+                ArrayNode resources = node.putArray("resources");
+                for (URI resource : entry.getValue().resources) {
+                    resources.add(resource.toString());
+                }
+            }
+        }
+        try {
+            Files.createDirectories(this.cachePath.toAbsolutePath().getParent());
+            mapper.writeValue(this.cachePath.toFile(), root);
+        } catch (IOException e) {
+            logger.error("Could not write the generation cache " + this.cachePath, e);
+        }
+    }
+
+    private String computeFingerprint(URI manifestUri, List<URI> resources) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, getGeneratorFingerprint());
+        update(digest, describeGenerationOptions());
+        update(digest, manifestUri.toString());
+        for (URI resource : resources) {
+            update(digest, resource.toString());
+            Path localFile = TestFileManager.getLocalFilePath(resource);
+            update(digest, Files.exists(localFile) ? hashFile(localFile) : "missing");
+        }
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * @return the options changing the generated code
+     */
+    private static String describeGenerationOptions() {
+        return "directApi=" + AbstractRDFEvalTest.isInDirectApiMode() + ",shaclInProcess="
+                + SHACLValidateTest.isInProcessMode() + "," + TestShard.describeOptions();
+    }
+
+    /**
+     * @return a hash of the classes of the generator, so that a change of the generator regenerates every suite
+     */
+    private synchronized String getGeneratorFingerprint() throws IOException {
+        if (this.generatorFingerprint == null) {
+            Path codeSource;
+            try {
+                codeSource = Path.of(W3cTestsGenerator.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            } catch (URISyntaxException | SecurityException | NullPointerException e) {
+                throw new IOException("Could not locate the classes of the generator", e);
+            }
+            if (Files.isDirectory(codeSource)) {
+                MessageDigest digest = newDigest();
+                List<Path> classFiles;
+                try (Stream<Path> files = Files.walk(codeSource)) {
+                    classFiles = files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+                for (Path classFile : classFiles) {
+                    update(digest, codeSource.relativize(classFile).toString());
+                    update(digest, hashFile(classFile));
+                }
+                this.generatorFingerprint = toHexString(digest.digest());
+            } else {
+                this.generatorFingerprint = hashFile(codeSource);
+            }
+        }
+        return this.generatorFingerprint;
+    }
+
+    /**
+     * @return a hash of the names and contents of the test classes of a suite
+     */
+    private static String hashTestFiles(Path suiteDirectory) throws IOException {
+        MessageDigest digest = newDigest();
+        List<Path> testFiles;
+        try (Stream<Path> files = Files.list(suiteDirectory)) {
+            testFiles = files.filter(file -> file.getFileName().toString().endsWith(".java")).sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path testFile : testFiles) {
+            update(digest, testFile.getFileName().toString());
+            update(digest, hashFile(testFile));
+        }
+        return toHexString(digest.digest());
+    }
+
+    private static String hashFile(Path filePath) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(filePath), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return toHexString(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHexString(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static class Entry {
+        private final String fingerprint;
+        private final String testFilesSha256;
+        private final List<URI> resources;
+
+        Entry(String fingerprint, String testFilesSha256, List<URI> resources) {
+            this.fingerprint = fingerprint;
+            this.testFilesSha256 = testFilesSha256;
+            this.resources = resources;
+        }
+    }
+}
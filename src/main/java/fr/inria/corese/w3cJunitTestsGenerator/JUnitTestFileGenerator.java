@@ -6,12 +6,11 @@ import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -25,11 +24,28 @@ public class JUnitTestFileGenerator {
 
     private final URI manifestUri;
     private final String testName;
+    private final String className;
+    private final String reportFileName;
     private final List<IW3cTest> tests;
     private final Path exportPath;
 
     public JUnitTestFileGenerator(String testName, URI manifestUri, Path exportPath, List<IW3cTest> tests) {
+        this(testName, testName + "Test", "testReport.csv", manifestUri, exportPath, tests);
+    }
+
+    /**
+     * @param testName       Name of the test suite, and of its directory
+     * @param className      Name of the generated class
+     * @param reportFileName Name of the CSV file, in the directory of the suite, where the class writes its outcomes
+     * @param manifestUri    URI of the root manifest of the suite
+     * @param exportPath     Directory of the generated test suites
+     * @param tests          Tests of the class
+     */
+    public JUnitTestFileGenerator(String testName, String className, String reportFileName, URI manifestUri,
+            Path exportPath, List<IW3cTest> tests) {
         this.testName = testName;
+        this.className = className;
+        this.reportFileName = reportFileName;
         this.manifestUri = manifestUri;
         this.exportPath = exportPath.resolve(testName);
         this.tests = tests;
@@ -37,23 +53,31 @@ public class JUnitTestFileGenerator {
 
     /**
      * Generates a JUnit test file for the W3C test suite.
+     *
+     * @return the path to the test file
      */
-    public void generate() {
+    public Path generate() {
 
         // Initialize directories
         Path testDirectory = this.createDirectory(this.exportPath);
 
         // Generate file test
-        String fileName = testName + "Test.java";
+        String fileName = className + ".java";
         Path testFile = this.generateTestFile(testDirectory, fileName);
 
-        // Write test file
+        // Write test file, only if its content changed so that Gradle does not recompile it
         try {
-            Files.write(testFile, this.generateTestFileContent(testFile.toString(), fileName).getBytes());
+            byte[] content = this.generateTestFileContent(testFile.toString(), fileName).getBytes(StandardCharsets.UTF_8);
+            if (Arrays.equals(Files.readAllBytes(testFile), content)) {
+                logger.info("Test file is unchanged: " + testFile);
+                return testFile;
+            }
+            Files.write(testFile, content);
             logger.info("Wrote test file: " + testFile);
         } catch (IOException e) {
             logger.error("Failed to write test file: " + testFile, e);
         }
+        return testFile;
 
     }
 
@@ -121,25 +145,16 @@ public class JUnitTestFileGenerator {
         imports.stream().sorted().forEach(imp -> content.append("import ").append(imp).append(";\n"));
         content.append("\n");
 
-        // Class comment
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-        ZonedDateTime nowWithZone = ZonedDateTime.now();
-
+        // Class comment, without generation date so that the content only depends on the inputs of the generation
         content.append("/**\n");
         content.append(" * Auto-generated JUnit test file for the W3C test suite: ");
         content.append(manifestUri);
         content.append("\n");
         content.append(" * This file was automatically generated by JUnitTestFileGenerator.java.\n");
-        content.append(" * Generation date: ");
-        content.append(LocalDate.now());
-        content.append(", Time: ");
-        content.append(nowWithZone.format(timeFormatter));
-        content.append(" ");
-        content.append(nowWithZone.getZone());
-        content.append("\n");
         content.append(" */\n");
 
         // Class declaration
+        content.append("@RunWith(ParallelTestRunner.class)\n");
         content.append("public class ");
         content.append(fileName.substring(0, fileName.indexOf(".")));
         content.append(" {");
@@ -183,91 +198,96 @@ public class JUnitTestFileGenerator {
     private String generateWatcher() {
         StringBuilder watcher = new StringBuilder();
 
-        // Create a file testReport.csv in the directory of the test file
-        Path relativePathToResultCsv = Paths.get(System.getProperty("user.dir")).relativize(exportPath)
-                .resolve("testReport.csv");
-        // Remove the first directory from the path
-        relativePathToResultCsv = relativePathToResultCsv.subpath(1, relativePathToResultCsv.getNameCount());
+        // Create the report file of the class, e.g. testReport.csv, in the directory of the test file
+        Path relativePathToResultCsv = getRelativeReportPath(exportPath, reportFileName);
         watcher.append("    private static final String TEST_REPORT_FILE = "
                 + "Paths.get(System.getProperty(\"user.dir\")).resolve(\"" + relativePathToResultCsv.toString()
                 + "\").toString();\n");
-        watcher.append("    private static final String MANIFEST_URI = \""
-                + manifestUri.toString().substring(0, manifestUri.toString().lastIndexOf(".")) + "\";\n");
-        watcher.append("    private static final String EARL = \"http://www.w3.org/ns/earl#\";\n");
+        watcher.append("    private static final String MANIFEST_URI = \"" + getReportManifestUri(manifestUri) + "\";\n");
+        watcher.append("    private static final TestReportCollector TEST_REPORT = TestReportCollector.forReport(TEST_REPORT_FILE, MANIFEST_URI);\n");
+        // The timings of the tests are written next to their outcomes, e.g. in testMetrics.csv
+        Path relativePathToMetricsCsv = getRelativeReportPath(exportPath, TestShard.getMetricsFileName(reportFileName));
+        watcher.append("    private static final TestMetricsCollector TEST_METRICS = TestMetricsCollector.forMetrics("
+                + "Paths.get(System.getProperty(\"user.dir\")).resolve(\"" + relativePathToMetricsCsv.toString()
+                + "\").toString(), MANIFEST_URI);\n");
         watcher.append("\n");
 
-        // Function to write the test report to the file testReport.csv
+        // The outcomes are collected in memory, so that the tests can run in parallel, and written to the report
+        // file of the class once all its tests have run
         // Format: manifestUri#testName, datetime, http://www.w3.org/ns/earl#status
-        watcher.append("    /**\n");
-        watcher.append("     * Writes the test report to the file testReport.csv.\n");
-        watcher.append("     *\n");
-        watcher.append("     * @param testName The name of the test.\n");
-        watcher.append("     * @param success  The status of the test.\n");
-        watcher.append("     */\n");
-        watcher.append("    private void writeTestReport(String testName, String success) {\n");
-        watcher.append("        try {\n");
-        watcher.append("            Path testReportPath = Paths.get(TEST_REPORT_FILE);\n");
-        watcher.append("            Files.createDirectories(testReportPath.getParent());\n");
-        watcher.append(
-                "            DateTimeFormatter dtf = DateTimeFormatter.ofPattern(\"yyyy-MM-dd'T'HH:mm:ssXXX\");\n");
-        watcher.append(
-                "            Files.write(testReportPath, (MANIFEST_URI + \"#\" + testName + \",\" + dtf.format(ZonedDateTime.now()) + \",\" + EARL + success + \"\\n\").getBytes(), StandardOpenOption.APPEND, StandardOpenOption.CREATE);\n");
-        watcher.append("        } catch (IOException e) {\n");
-        watcher.append("            e.printStackTrace();\n");
-        watcher.append("        }\n");
-        watcher.append("    }\n");
-        watcher.append("\n");
-
         watcher.append("    @Rule\n");
         watcher.append("    public TestWatcher watcher = new TestWatcher() {\n");
         watcher.append("\n");
         watcher.append("        @Override\n");
+        watcher.append("        protected void starting(Description description) {\n");
+        watcher.append("            TestMetrics.start();\n");
+        watcher.append("        }\n");
+        watcher.append("\n");
+        watcher.append("        @Override\n");
         watcher.append("        protected void failed(Throwable e, Description description) {\n");
-        watcher.append("            writeTestReport(description.getMethodName(), \"failed\");\n");
+        watcher.append("            TEST_REPORT.record(description.getMethodName(), \"failed\");\n");
+        watcher.append("            TEST_METRICS.record(description.getMethodName(), \"failed\");\n");
         watcher.append("        }\n");
         watcher.append("\n");
         watcher.append("        @Override\n");
         watcher.append("        protected void succeeded(Description description) {\n");
-        watcher.append("            writeTestReport(description.getMethodName(), \"passed\");\n");
+        watcher.append("            TEST_REPORT.record(description.getMethodName(), \"passed\");\n");
+        watcher.append("            TEST_METRICS.record(description.getMethodName(), \"passed\");\n");
         watcher.append("        }\n");
         watcher.append("\n");
         watcher.append("        @Override\n");
         watcher.append("        protected void skipped(AssumptionViolatedException e, Description description) {\n");
-        watcher.append("            writeTestReport(description.getMethodName(), \"untested\");\n");
+        watcher.append("            TEST_REPORT.record(description.getMethodName(), \"untested\");\n");
+        watcher.append("            TEST_METRICS.record(description.getMethodName(), \"untested\");\n");
         watcher.append("        }\n");
         watcher.append("    };\n");
         watcher.append("\n");
-        watcher.append("        // Create and clear the test report file\n");
-        watcher.append("        @BeforeClass\n");
-        watcher.append("        public static void createTestReportFile() {\n");
-        watcher.append("            try {\n");
-        watcher.append("                Path testReportPath = Paths.get(TEST_REPORT_FILE);\n");
-        watcher.append("                Files.createDirectories(testReportPath.getParent());\n");
-        watcher.append("                Files.write(testReportPath, \"\".getBytes());\n");
-        watcher.append("            } catch (IOException e) {\n");
-        watcher.append("                e.printStackTrace();\n");
-        watcher.append("            }\n");
-        watcher.append("        }\n");
+        watcher.append("    // Write the test report and metrics files once all the tests of the class have run\n");
+        watcher.append("    @AfterClass\n");
+        watcher.append("    public static void writeTestReportFile() {\n");
+        watcher.append("        TEST_REPORT.flush();\n");
+        watcher.append("        TEST_METRICS.flush();\n");
+        watcher.append("    }\n");
         watcher.append("\n");
 
         return watcher.toString();
     }
 
+    /**
+     * @param suiteDirectory Directory of the test classes of a suite
+     * @param reportFileName Name of a report file of the suite
+     * @return the path of the report file, relative to the working directory of the tests
+     */
+    public static Path getRelativeReportPath(Path suiteDirectory, String reportFileName) {
+        Path relativePathToResultCsv = Paths.get(System.getProperty("user.dir")).relativize(suiteDirectory)
+                .resolve(reportFileName);
+        // Remove the first directory from the path
+        return relativePathToResultCsv.subpath(1, relativePathToResultCsv.getNameCount());
+    }
+
+    /**
+     * @param manifestUri URI of the root manifest of a suite
+     * @return the manifest URI without extension, prefixing the test names in the report files
+     */
+    public static String getReportManifestUri(URI manifestUri) {
+        return manifestUri.toString().substring(0, manifestUri.toString().lastIndexOf("."));
+    }
+
     private Set<String> defineImports() {
         Set<String> imports = new HashSet<>();
+        imports.add("fr.inria.corese.w3c.ParallelTestRunner");
         imports.add("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils");
-        imports.add("java.nio.file.Path");
+        imports.add("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics");
+        imports.add("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetricsCollector");
+        imports.add("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestReportCollector");
         imports.add("java.nio.file.Paths");
-        imports.add("java.nio.file.Files");
-        imports.add("java.nio.file.StandardOpenOption");
         imports.add("org.junit.Rule");
         imports.add("org.junit.rules.TestWatcher");
         imports.add("org.junit.runner.Description");
+        imports.add("org.junit.runner.RunWith");
         imports.add("org.junit.AssumptionViolatedException");
-        imports.add("org.junit.BeforeClass");
+        imports.add("org.junit.AfterClass");
         imports.add("org.junit.Test");
-        imports.add("java.time.format.DateTimeFormatter");
-        imports.add("java.time.ZonedDateTime");
         return imports;
     }
 
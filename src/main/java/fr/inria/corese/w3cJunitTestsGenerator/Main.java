@@ -1,11 +1,18 @@
 package fr.inria.corese.w3cJunitTestsGenerator;
 
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.AbstractRDFEvalTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.SHACLValidateTest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * The Main class serves as the entry point for the application.
@@ -21,15 +28,49 @@ public class Main {
 
         // Specify paths for tests, resources, and the manifest within the project
         // structure
-        private static final Path TESTS_PATH_DIR = BASE_PATH
+        public static final Path TESTS_PATH_DIR = BASE_PATH
                         .resolve("src/test/java/fr/inria/corese/w3c");
 
+        // System property enabling the generation of RDF evaluation tests that call the Corese API directly
+        private static final String DIRECT_API_PROPERTY = "corese.w3c.directApi";
+
+        // System property enabling the SHACL validation with the SHACL engine of corese-core, in the test JVM
+        public static final String SHACL_IN_PROCESS_PROPERTY = "corese.w3c.shacl.inProcess";
+
+        // System property enabling the revalidation of the local copies of the test files against their remote version
+        private static final String UPDATE_PROPERTY = "corese.w3c.update";
+
+        // Fingerprints of the suites at their last generation, used to skip the suites that did not change
+        private static final Path GENERATION_CACHE_PATH = BASE_PATH
+                        .resolve(TestFileManager.RESOURCE_PATH_STRING + "generation.cache.json");
+
+        // Command line argument forcing the generation of all the suites
+        private static final String FORCE_ARGUMENT = "--force";
+
+        // Test suites, by name of their directory, with the URI of their root manifest
+        private static final Map<String, String> SUITES = new LinkedHashMap<>();
+        static {
+                SUITES.put("canonicalRdf", "https://w3c.github.io/rdf-canon/tests/manifest.ttl"); // Canonical RDF
+                SUITES.put("rdf11nquads", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-n-quads/manifest.ttl"); // RDF 1.1 nquads
+                SUITES.put("rdf11ntriples", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-n-triples/manifest.ttl"); // rdf 1.1 ntriples
+                SUITES.put("rdf11xml", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-xml/manifest.ttl"); // RDF 1.1 XML
+                SUITES.put("rdf11trig", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-trig/manifest.ttl"); // RDF 1.1 Trig
+                SUITES.put("rdf11turtle", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-turtle/manifest.ttl"); // RDF 1.1 turtle
+                SUITES.put("sparql10", "https://w3c.github.io/rdf-tests/sparql/sparql10/manifest.ttl"); // SPARQL 1.0
+                SUITES.put("shacl", "https://raw.githubusercontent.com/w3c/data-shapes/refs/heads/gh-pages/data-shapes-test-suite/tests/manifest.ttl"); // SHACL
+                SUITES.put("sparql11", "https://w3c.github.io/rdf-tests/sparql/sparql11/manifest.ttl"); // SPARQL 1.1
+        }
+
+        private static GenerationCache generationCache;
+        private static boolean force = false;
+
         /**
          * Main method to execute the application.
          * It creates and runs a W3cTestsGenerator with specified directories and
          * manifest file.
          *
-         * @param args Command line arguments (not used)
+         * @param args Command line arguments: "--force" generates all the suites, even those that did not change since
+         *             their last generation
          */
         public static void main(String[] args) {
                 // Download the latest corese-command jar
@@ -38,15 +79,24 @@ public class Main {
                 } catch (IOException e) {
                         logger.error("Could not download corese-command", e);
                 }*/
-                generateW3cTests("canonicalRdf", "https://w3c.github.io/rdf-canon/tests/manifest.ttl"); // Canonical RDF
-                generateW3cTests("rdf11nquads", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-n-quads/manifest.ttl");  // RDF 1.1 nquads
-                generateW3cTests("rdf11ntriples", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-n-triples/manifest.ttl"); // rdf 1.1 ntriples
-                generateW3cTests("rdf11xml", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-xml/manifest.ttl"); // RDF 1.1 XML
-                generateW3cTests("rdf11trig", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-trig/manifest.ttl"); // RDF 1.1 Trig
-                generateW3cTests("rdf11turtle", "https://w3c.github.io/rdf-tests/rdf/rdf11/rdf-turtle/manifest.ttl"); // RDF 1.1 turtle
-                generateW3cTests("sparql10", "https://w3c.github.io/rdf-tests/sparql/sparql10/manifest.ttl"); // SPARQL 1.0
-                generateW3cTests("shacl", "https://raw.githubusercontent.com/w3c/data-shapes/refs/heads/gh-pages/data-shapes-test-suite/tests/manifest.ttl"); // SHACL
-                generateW3cTests("sparql11", "https://w3c.github.io/rdf-tests/sparql/sparql11/manifest.ttl");
+                AbstractRDFEvalTest.setDirectApiMode(Boolean.getBoolean(DIRECT_API_PROPERTY));
+                SHACLValidateTest.setInProcessMode(Boolean.getBoolean(SHACL_IN_PROCESS_PROPERTY));
+                TestFileManager.setUpdateMode(Boolean.getBoolean(UPDATE_PROPERTY));
+                force = Arrays.asList(args).contains(FORCE_ARGUMENT);
+                generationCache = GenerationCache.load(GENERATION_CACHE_PATH);
+
+                for (Map.Entry<String, String> suite : SUITES.entrySet()) {
+                        generateW3cTests(suite.getKey(), suite.getValue());
+                }
+
+                generationCache.save();
+        }
+
+        /**
+         * @return the test suites, by name of their directory, with the URI of their root manifest, in generation order
+         */
+        public static Map<String, String> getSuites() {
+                return Collections.unmodifiableMap(SUITES);
         }
 
         /**
@@ -57,6 +107,6 @@ public class Main {
          */
         private static void generateW3cTests(String testName, String manifestUri) {
                 W3cTestsGenerator generator = new W3cTestsGenerator(testName, URI.create(manifestUri), TESTS_PATH_DIR);
-                generator.generate();
+                generator.generate(generationCache, force);
         }
 }
@@ -0,0 +1,156 @@
+package fr.inria.corese.w3cJunitTestsGenerator;
+
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Part of a test suite generated as its own JUnit class, so that the classes of a large suite compile and run in
+ * parallel. Each shard writes its outcomes in its own report file, and the report files of a suite are merged in its
+ * EARL report.
+ * <p>
+ * The tests of a suite are split:
+ * <ul>
+ * <li>by manifest, if the system property "corese.w3c.shard.byManifest" is true: a class per manifest, e.g. per
+ * feature of the SPARQL 1.1 suite,</li>
+ * <li>by number of tests, if the system property "corese.w3c.shard.maxTests" is positive: a class per group of at
+ * most this number of tests, inside each manifest when splitting by manifest.</li>
+ * </ul>
+ * By default, a suite is generated as a single class.
+ */
+public class TestShard {
+
+    public static final String BY_MANIFEST_PROPERTY = "corese.w3c.shard.byManifest";
+    public static final String MAX_TESTS_PROPERTY = "corese.w3c.shard.maxTests";
+
+    public static final String TEST_CLASS_SUFFIX = "Test";
+    public static final String REPORT_FILE_PREFIX = "testReport";
+    public static final String REPORT_FILE_EXTENSION = ".csv";
+    public static final String METRICS_FILE_PREFIX = "testMetrics";
+
+    private static boolean byManifestFlag = Boolean.getBoolean(BY_MANIFEST_PROPERTY);
+    private static int maxTests = Integer.getInteger(MAX_TESTS_PROPERTY, 0);
+
+    private final String className;
+    private final String reportFileName;
+    private final List<IW3cTest> tests;
+
+    private TestShard(String className, String reportFileName, List<IW3cTest> tests) {
+        this.className = className;
+        this.reportFileName = reportFileName;
+        this.tests = tests;
+    }
+
+    public static void setByManifest(boolean byManifest) {
+        byManifestFlag = byManifest;
+    }
+
+    public static boolean isByManifest() {
+        return byManifestFlag;
+    }
+
+    /**
+     * @param maxTestsPerClass Maximum number of tests of a generated class, 0 for no limit
+     */
+    public static void setMaxTests(int maxTestsPerClass) {
+        maxTests = maxTestsPerClass;
+    }
+
+    public static int getMaxTests() {
+        return maxTests;
+    }
+
+    /**
+     * @return the sharding options, changing the generated classes
+     */
+    public static String describeOptions() {
+        return "byManifest=" + byManifestFlag + ",maxTests=" + maxTests;
+    }
+
+    /**
+     * Splits the tests of a suite according to the sharding options. A suite that is not split keeps the class name
+     * "suiteNameTest" and the report file "testReport.csv".
+     *
+     * @param suiteName       Name of the suite
+     * @param rootManifestUri URI of the root manifest of the suite
+     * @param tests           Tests of the suite, in the order of the generated file
+     * @param testManifests   URI of the manifest declaring each test, in the same order
+     * @return the shards of the suite, in a deterministic order
+     */
+    public static List<TestShard> split(String suiteName, URI rootManifestUri, List<IW3cTest> tests,
+            List<URI> testManifests) {
+        // Tests grouped by the name part of their shard, in order of first appearance
+        Map<String, List<IW3cTest>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < tests.size(); i++) {
+            String groupName = byManifestFlag ? getManifestName(rootManifestUri, testManifests.get(i)) : "";
+            groups.computeIfAbsent(groupName, name -> new ArrayList<>()).add(tests.get(i));
+        }
+
+        List<TestShard> shards = new ArrayList<>();
+        for (Map.Entry<String, List<IW3cTest>> group : groups.entrySet()) {
+            List<IW3cTest> groupTests = group.getValue();
+            int chunkSize = maxTests > 0 ? maxTests : Math.max(groupTests.size(), 1);
+            int chunkCount = (groupTests.size() + chunkSize - 1) / chunkSize;
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                String part = group.getKey() + (chunkCount > 1 ? "Part" + (chunk + 1) : "");
+                List<IW3cTest> chunkTests = groupTests.subList(chunk * chunkSize,
+                        Math.min((chunk + 1) * chunkSize, groupTests.size()));
+                shards.add(new TestShard(suiteName + part + TEST_CLASS_SUFFIX,
+                        REPORT_FILE_PREFIX + (part.isEmpty() ? "" : "-" + part) + REPORT_FILE_EXTENSION,
+                        new ArrayList<>(chunkTests)));
+            }
+        }
+        if (shards.isEmpty()) {
+            shards.add(new TestShard(suiteName + TEST_CLASS_SUFFIX, REPORT_FILE_PREFIX + REPORT_FILE_EXTENSION,
+                    new ArrayList<>()));
+        }
+        return shards;
+    }
+
+    /**
+     * @return a Java identifier part naming the directory of a manifest relatively to the root manifest, e.g.
+     * "PropertyPath" for ".../sparql11/property-path/manifest.ttl", "Main" for the root manifest itself
+     */
+    private static String getManifestName(URI rootManifestUri, URI manifestUri) {
+        URI rootDirectory = rootManifestUri.resolve(".");
+        String relativePath = rootDirectory.relativize(manifestUri.resolve(".")).getPath();
+        StringBuilder name = new StringBuilder();
+        for (String word : relativePath.split("[^A-Za-z0-9]+")) {
+            if (!word.isEmpty()) {
+                name.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+            }
+        }
+        return name.length() > 0 ? name.toString() : "Main";
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getReportFileName() {
+        return reportFileName;
+    }
+
+    /**
+     * @return the name of the file where the shard writes the metrics of its tests, e.g. "testMetrics-Part.csv"
+     */
+    public String getMetricsFileName() {
+        return getMetricsFileName(reportFileName);
+    }
+
+    /**
+     * @param reportFileName Name of a report file, e.g. "testReport-Part.csv"
+     * @return the name of the metrics file written with the report file, e.g. "testMetrics-Part.csv"
+     */
+    public static String getMetricsFileName(String reportFileName) {
+        return METRICS_FILE_PREFIX + reportFileName.substring(REPORT_FILE_PREFIX.length());
+    }
+
+    public List<IW3cTest> getTests() {
+        return tests;
+    }
+}
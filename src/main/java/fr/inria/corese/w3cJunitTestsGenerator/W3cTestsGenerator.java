@@ -4,17 +4,34 @@ import fr.inria.corese.core.Graph;
 import fr.inria.corese.core.kgram.core.Mapping;
 import fr.inria.corese.core.kgram.core.Mappings;
 import fr.inria.corese.core.query.QueryProcess;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestDescription;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestDescriptionIndex;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestIndex;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestIndexWriter;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestCreationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * Generates JUnit test cases from W3C test manifest files.
@@ -22,6 +39,7 @@ import java.util.List;
 public class W3cTestsGenerator {
 
     private static Logger logger = LoggerFactory.getLogger(W3cTestsGenerator.class);
+    private static final int MAX_CONCURRENT_TEST_CREATIONS = Integer.getInteger("corese.w3c.generator.concurrency", 32);
     private final URI rootManifestUri;
     private final Path testsPath;
     private final String testName;
@@ -48,11 +66,106 @@ public class W3cTestsGenerator {
         Graph graph = loadManifest();
 
         // Generate list of test cases
-        List<IW3cTest> testCases = getListOfTestCases(graph);
+        List<URI> testManifests = new ArrayList<>();
+        TestIndexWriter indexWriter = new TestIndexWriter();
+        List<IW3cTest> testCases = getListOfTestCases(graph, testManifests, indexWriter);
+        TestFileManager.saveLockfile();
 
-        // Generate JUnit test file
-        JUnitTestFileGenerator generator = new JUnitTestFileGenerator(testName, rootManifestUri, testsPath, testCases);
-        generator.generate();
+        // Write the index of the suite, read by the runners instead of the manifests
+        Path indexPath = TestIndex.getIndexPath(testName);
+        try {
+            indexWriter.write(indexPath);
+            logger.info("Wrote test index: {}", indexPath);
+        } catch (IOException e) {
+            logger.error("Could not write the test index " + indexPath, e);
+        }
+
+        // Generate a JUnit test file per shard of the suite
+        List<TestShard> shards = TestShard.split(testName, rootManifestUri, testCases, testManifests);
+        for (TestShard shard : shards) {
+            JUnitTestFileGenerator generator = new JUnitTestFileGenerator(testName, shard.getClassName(),
+                    shard.getReportFileName(), rootManifestUri, testsPath, shard.getTests());
+            generator.generate();
+        }
+        deleteStaleShards(shards);
+    }
+
+    /**
+     * Loads the test cases of the suite, without generating their JUnit test file, e.g. to run them directly with
+     * {@link IW3cTest#execute()}. The test cases are read from the index of the suite written by its last generation,
+     * or from its manifests if there is no index.
+     *
+     * @return The test cases of the suite, in the order of the generated file.
+     */
+    public List<IW3cTest> loadTestCases() {
+        Path indexPath = TestIndex.getIndexPath(testName);
+        if (Files.exists(indexPath)) {
+            try {
+                List<IW3cTest> testCases = TestIndex.open(indexPath).createTests();
+                logger.info("Loaded {} test cases from {}.", testCases.size(), indexPath);
+                return testCases;
+            } catch (IOException | TestCreationException e) {
+                logger.warn("Could not load the test index " + indexPath + ", loading the manifest instead", e);
+            }
+        }
+
+        Graph graph = loadManifest();
+        List<IW3cTest> testCases = getListOfTestCases(graph, new ArrayList<>(), null);
+        TestFileManager.saveLockfile();
+        return testCases;
+    }
+
+    /**
+     * Deletes the test classes and report files of the suite that do not belong to the current shards, e.g. after a
+     * change of the sharding options, so that they are neither run nor merged in the EARL report.
+     *
+     * @param shards The current shards of the suite.
+     */
+    private void deleteStaleShards(List<TestShard> shards) {
+        Set<String> currentFiles = new HashSet<>();
+        for (TestShard shard : shards) {
+            currentFiles.add(shard.getClassName() + ".java");
+            currentFiles.add(shard.getReportFileName());
+            currentFiles.add(shard.getMetricsFileName());
+        }
+
+        Path suiteDirectory = testsPath.resolve(testName);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(suiteDirectory)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                boolean shardFile = fileName.endsWith(TestShard.TEST_CLASS_SUFFIX + ".java")
+                        || ((fileName.startsWith(TestShard.REPORT_FILE_PREFIX)
+                        || fileName.startsWith(TestShard.METRICS_FILE_PREFIX))
+                        && fileName.endsWith(TestShard.REPORT_FILE_EXTENSION));
+                if (shardFile && !currentFiles.contains(fileName)) {
+                    Files.delete(file);
+                    logger.info("Deleted stale shard file: {}", file);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not delete the stale shard files of " + suiteDirectory, e);
+        }
+    }
+
+    /**
+     * Generates the JUnit test cases unless the suite is up to date in the generation cache, and records the
+     * generation in the cache.
+     *
+     * @param generationCache Cache of the previous generations
+     * @param force           If true, the suite is generated even if it is up to date
+     */
+    public void generate(GenerationCache generationCache, boolean force) {
+        Path suiteDirectory = testsPath.resolve(testName);
+        if (!force && Files.exists(TestIndex.getIndexPath(testName))
+                && generationCache.isUpToDate(testName, rootManifestUri, suiteDirectory)) {
+            logger.info("Test suite {} is up to date, skipping its generation.", testName);
+            TestFileManager.saveLockfile();
+            return;
+        }
+
+        TestFileManager.clearRequestedFiles();
+        generate();
+        generationCache.record(testName, rootManifestUri, suiteDirectory, TestFileManager.getRequestedFiles());
     }
 
     ////////////////////////
@@ -75,10 +188,12 @@ public class W3cTestsGenerator {
     /**
      * Gets the list of test cases from the specified graph.
      *
-     * @param graph The graph containing the test cases.
+     * @param graph         The graph containing the test cases.
+     * @param testManifests Filled with the URI of the manifest of each test case, in the order of the test cases.
+     * @param indexWriter   If not null, filled with the test cases, in the same order.
      * @return The list of test cases.
      */
-    private List<IW3cTest> getListOfTestCases(Graph graph) {
+    private List<IW3cTest> getListOfTestCases(Graph graph, List<URI> testManifests, TestIndexWriter indexWriter) {
         QueryProcess exec = QueryProcess.create(graph);
         String query = buildTestCasesQuery();
         Mappings mappings;
@@ -95,21 +210,78 @@ public class W3cTestsGenerator {
             return new ArrayList<>();
         }
 
-        List<IW3cTest> testCases = new ArrayList<>();
-        for (Mapping mapping : mappings) {
-            String manifest = mapping.getValue("?manifest").getLabel();
-            String test = mapping.getValue("?test").getLabel();
-            String type = mapping.getValue("?type").getLabel();
-            try {
-                testCases.add(W3cTestFactory.createW3cTest(test, type, exec, URI.create(manifest)));
-            } catch (TestCreationException e) {
-                logger.error("Error creating test: " + test, e);
-                System.exit(1);
+        // The details of all the tests are extracted from the manifest graph at once
+        TestDescriptionIndex descriptions;
+        try {
+            descriptions = TestDescriptionIndex.build(exec);
+        } catch (EngineException e) {
+            logger.error("Error extracting the test descriptions.", e);
+            return new ArrayList<>();
+        }
+
+        // The tests are created concurrently, as each creation downloads the test files.
+        // The futures are kept in the order of the mappings so that the generated file is deterministic.
+        List<Future<IW3cTest>> futures = new ArrayList<>();
+        ExecutorService executor = createTestCreationExecutor();
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_TEST_CREATIONS);
+        try {
+            for (Mapping mapping : mappings) {
+                String manifest = mapping.getValue("?manifest").getLabel();
+                String test = mapping.getValue("?test").getLabel();
+                String type = mapping.getValue("?type").getLabel();
+                testManifests.add(URI.create(manifest));
+                TestDescription description = descriptions.get(test);
+                if (indexWriter != null && description != null) {
+                    indexWriter.add(test, type, URI.create(manifest), description);
+                }
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return W3cTestFactory.createW3cTest(test, type, description, URI.create(manifest));
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<IW3cTest> testCases = new ArrayList<>();
+            for (Future<IW3cTest> future : futures) {
+                testCases.add(future.get());
             }
+            logger.info("Loaded {} test cases.", testCases.size());
+            return testCases;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TestCreationException) {
+                logger.error("Error creating test", e.getCause());
+            } else {
+                logger.error("Unexpected error while creating tests", e.getCause());
+            }
+            System.exit(1);
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while creating tests", e);
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        } finally {
+            executor.shutdownNow();
         }
+        return new ArrayList<>();
+    }
 
-        logger.info("Loaded {} test cases.", testCases.size());
-        return testCases;
+    /**
+     * Creates the executor used to create the tests: a virtual thread per task when the JVM supports them, a pool of
+     * platform threads otherwise. In both cases, the number of concurrent creations is bounded by
+     * MAX_CONCURRENT_TEST_CREATIONS.
+     *
+     * @return The executor used to create the tests.
+     */
+    private static ExecutorService createTestCreationExecutor() {
+        try {
+            Method virtualThreadExecutorFactory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreadExecutorFactory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.debug("Virtual threads are not available, using platform threads to create the tests");
+            return Executors.newFixedThreadPool(MAX_CONCURRENT_TEST_CREATIONS);
+        }
     }
 
     /**
@@ -20,4 +20,19 @@ public interface IW3cTest {
      * @return the junit test in string format
      */
     public String generate();
+
+    /**
+     * Returns the name of the generated test method, also used to report the outcome of the test.
+     *
+     * @return the name of the test method
+     */
+    public String getMethodName();
+
+    /**
+     * Runs the W3C test directly, as done by the body of the generated test.
+     *
+     * @throws AssertionError if the test fails
+     * @throws Exception      if the test cannot be run
+     */
+    public void execute() throws Exception;
 }
@@ -0,0 +1,39 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests;
+
+import java.util.Objects;
+
+/**
+ * Assertions of the tests executed directly with {@link IW3cTest#execute()}. They throw an AssertionError, as the JUnit
+ * assertions of the generated tests, without making JUnit a dependency of the generator.
+ */
+public class TestAssertions {
+
+    private TestAssertions() {
+    }
+
+    public static void assertTrue(String message, boolean condition) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    public static void assertEquals(String message, Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(message + ": expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+
+    /**
+     * Checks the exit code of a successful corese-command invocation
+     */
+    public static void assertSuccess(String command, int exitCode) {
+        assertEquals("Exit code of corese-command " + command, 0, exitCode);
+    }
+
+    /**
+     * Checks the exit code of a corese-command invocation expected to fail
+     */
+    public static void assertFailure(String command, int exitCode) {
+        assertTrue("corese-command " + command + " should have failed", exitCode != 0);
+    }
+}
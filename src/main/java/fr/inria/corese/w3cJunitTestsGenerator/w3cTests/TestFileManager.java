@@ -1,22 +1,45 @@
 package fr.inria.corese.w3cJunitTestsGenerator.w3cTests;
 
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.download.ContentStore;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.download.DownloadManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.download.FileMetadata;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.download.FileMetadataStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 public class TestFileManager {
 
     private static final Logger logger = LoggerFactory.getLogger(TestFileManager.class);
     public static final String RESOURCE_PATH_STRING = "src/test/resources/";
+    // Loadings started during this run, shared by the tests requesting the same local file
+    private static final ConcurrentHashMap<Path, CompletableFuture<Void>> loadings = new ConcurrentHashMap<>();
+    // Files requested since the last call to clearRequestedFiles, i.e. the resources of the suite being generated
+    private static final Set<URI> requestedFiles = ConcurrentHashMap.newKeySet();
+    public static final String LOCKFILE_PATH_STRING = RESOURCE_PATH_STRING + "resources.lock.json";
+    public static final String CONTENT_STORE_PATH_STRING = RESOURCE_PATH_STRING + "cas/";
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final FileMetadataStore lockfile = FileMetadataStore.load(Paths.get(LOCKFILE_PATH_STRING));
+    private static final ContentStore contentStore = new ContentStore(Paths.get(CONTENT_STORE_PATH_STRING));
     private static boolean updateModeFlag = false; // Indicates if the FileManager will try to update outdated files by dowloading them and comparing them to the existing ones
 
     private TestFileManager() {
@@ -39,47 +62,171 @@ public class TestFileManager {
      * @throws IOException If an I/O error occurs
      */
     public static void loadFile(URI fileUri) throws IOException, NoSuchAlgorithmException {
-        String localFileFolder = getLocalFilePath(fileUri).toString();
-        Path localFilePath = Paths.get(localFileFolder);
+        loadFiles(fileUri);
+    }
+
+    /**
+     * Load several files concurrently, see {@link #loadFile(URI)}. Returns when all the files are loaded.
+     *
+     * @param fileUris File URIs
+     * @throws IOException If an I/O error occurs for one of the files
+     */
+    public static void loadFiles(URI... fileUris) throws IOException, NoSuchAlgorithmException {
+        loadFiles(Arrays.asList(fileUris));
+    }
 
-        if(! Files.exists(localFilePath)) {
-            downloadFile(fileUri, localFilePath);
-        } else if( isInUpdateMode() && isRemoteFileDifferent(fileUri, localFilePath)) {
-                downloadFile(fileUri, localFilePath);
+    /**
+     * Load several files concurrently, see {@link #loadFile(URI)}. Returns when all the files are loaded.
+     *
+     * @param fileUris File URIs
+     * @throws IOException If an I/O error occurs for one of the files
+     */
+    public static void loadFiles(Collection<URI> fileUris) throws IOException, NoSuchAlgorithmException {
+        List<CompletableFuture<Void>> fileLoadings = new ArrayList<>();
+        for (URI fileUri : fileUris) {
+            fileLoadings.add(loadFileAsync(fileUri));
         }
+        DownloadManager.join(CompletableFuture.allOf(fileLoadings.toArray(new CompletableFuture<?>[0])));
     }
 
     /**
+     * Asynchronous version of {@link #loadFile(URI)}. A file requested several times, e.g. by tests sharing it, is
+     * downloaded only once.
      *
-     * @param remoteFileUri Remote URI that can be used to determine the local path of the file
-     * @return The path to the local copy of the file
+     * @param fileUri File URI
+     * @return a future completed when the local file is up to date, failed with an IOException otherwise. A failed
+     * loading is forgotten, so that the file is loaded again on its next request.
      */
-    public static Path getLocalFilePath(URI remoteFileUri) {
-        String localFileFolder = RESOURCE_PATH_STRING + getPrefixedFilename(remoteFileUri);
-        return Paths.get(localFileFolder);
+    public static CompletableFuture<Void> loadFileAsync(URI fileUri) {
+        requestedFiles.add(fileUri);
+        Path localFilePath = getLocalFilePath(fileUri);
+        if (Files.exists(localFilePath) && !isInUpdateMode()) {
+            if (lockfile.get(fileUri) != null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return trackLoading(localFilePath, () -> lockLocalFile(fileUri, localFilePath));
+        }
+        return trackLoading(localFilePath, () -> startLoading(fileUri, localFilePath));
     }
 
     /**
-     * Compare two files to check if they are different according to their hash
-     * 
-     * @param fileUri       Remote file URI
-     * @param localFilePath local file path
-     * @return true if the files are different, false otherwise
-     * @throws IOException If an I/O error occurs
+     * @return the loading of the local file started during this run, or the loading given by the supplier, which is
+     * removed from the loadings if it fails
      */
-    private static boolean isRemoteFileDifferent(URI fileUri, Path localFilePath)
-            throws IOException, NoSuchAlgorithmException {
-        String localFileHash = hashFile(localFilePath);
+    private static CompletableFuture<Void> trackLoading(Path localFilePath,
+            Supplier<CompletableFuture<Void>> loadingSupplier) {
+        Path key = localFilePath.toAbsolutePath();
+        CompletableFuture<Void> loading = loadings.computeIfAbsent(key, path -> loadingSupplier.get());
+        loading.whenComplete((result, error) -> {
+            if (error != null) {
+                loadings.remove(key, loading);
+            }
+        });
+        return loading;
+    }
 
-        Path tempFile = Files.createTempFile("remote_file", ".tmp");
+    /**
+     * Pins the local copy of a file that is not in the lockfile yet, e.g. a file downloaded before the lockfile
+     * existed, without downloading it: its content is added to the content store and its hash to the lockfile, with no
+     * validators. The lockfile is seeded this way by a generation that is not in update mode.
+     */
+    private static CompletableFuture<Void> lockLocalFile(URI fileUri, Path localFilePath) {
         try {
-            downloadFile(fileUri, tempFile);
-            String remoteFileHash = hashFile(tempFile);
+            byte[] content = Files.readAllBytes(localFilePath);
+            String localFileHash = hashBytes(content);
+            contentStore.store(content, localFileHash);
+            lockfile.put(fileUri, new FileMetadata(null, null, localFileHash));
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Makes the version of a file pinned in the lockfile available at its local path. The file is taken from the
+     * content store when it is there, unless in update mode. Otherwise, it is downloaded, or revalidated with a
+     * conditional request when the validators of its last download are known. Outside update mode, a download must
+     * have the hash pinned in the lockfile, and only the files that are not pinned yet are added to the lockfile.
+     */
+    private static CompletableFuture<Void> startLoading(URI fileUri, Path localFilePath) {
+        FileMetadata lockedMetadata = lockfile.get(fileUri);
+        boolean inContentStore = lockedMetadata != null && contentStore.contains(lockedMetadata.getSha256());
 
-            return !localFileHash.equals(remoteFileHash);
-        } finally {
-            Files.delete(tempFile);
+        if (inContentStore && !isInUpdateMode()) {
+            try {
+                contentStore.materialize(lockedMetadata.getSha256(), localFilePath);
+                return CompletableFuture.completedFuture(null);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        boolean revalidation = lockedMetadata != null && (inContentStore || Files.exists(localFilePath));
+        Map<String, String> requestHeaders = new HashMap<>();
+        if (revalidation && lockedMetadata.getEtag() != null) {
+            requestHeaders.put("If-None-Match", lockedMetadata.getEtag());
+        }
+        if (revalidation && lockedMetadata.getLastModified() != null) {
+            requestHeaders.put("If-Modified-Since", lockedMetadata.getLastModified());
         }
+
+        return DownloadManager.getInstance().fetchAsync(fileUri, requestHeaders).thenAcceptAsync(response -> {
+            try {
+                if (response.getStatusCode() == HTTP_NOT_MODIFIED && revalidation) {
+                    if (inContentStore && !Files.exists(localFilePath)) {
+                        contentStore.materialize(lockedMetadata.getSha256(), localFilePath);
+                    }
+                    return;
+                }
+                if (!response.isSuccessful()) {
+                    throw new IOException("Could not download " + fileUri + ": HTTP " + response.getStatusCode());
+                }
+                String remoteFileHash = hashBytes(response.getBody());
+                if (lockedMetadata != null && !isInUpdateMode()
+                        && !remoteFileHash.equals(lockedMetadata.getSha256())) {
+                    throw new IOException("The downloaded content of " + fileUri + " does not match its hash in "
+                            + LOCKFILE_PATH_STRING + ", generate with -Dcorese.w3c.update=true to pin its new version");
+                }
+                contentStore.store(response.getBody(), remoteFileHash);
+                contentStore.materialize(remoteFileHash, localFilePath);
+                if (lockedMetadata == null || isInUpdateMode()) {
+                    lockfile.put(fileUri, new FileMetadata(response.getHeader("ETag"),
+                            response.getHeader("Last-Modified"), remoteFileHash));
+                }
+            } catch (IOException | NoSuchAlgorithmException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * @return the URIs of the files requested with {@link #loadFile(URI)} and its variants since the last call to
+     * {@link #clearRequestedFiles()}
+     */
+    public static Set<URI> getRequestedFiles() {
+        return new HashSet<>(requestedFiles);
+    }
+
+    public static void clearRequestedFiles() {
+        requestedFiles.clear();
+    }
+
+    /**
+     * Writes the lockfile ({@value #LOCKFILE_PATH_STRING}) with the hash and the validators of the files downloaded
+     * so far.
+     */
+    public static void saveLockfile() {
+        lockfile.save();
+    }
+
+    /**
+     *
+     * @param remoteFileUri Remote URI that can be used to determine the local path of the file
+     * @return The path to the local copy of the file
+     */
+    public static Path getLocalFilePath(URI remoteFileUri) {
+        String localFileFolder = RESOURCE_PATH_STRING + getPrefixedFilename(remoteFileUri);
+        return Paths.get(localFileFolder);
     }
 
     /**
@@ -90,31 +237,28 @@ public class TestFileManager {
      * @throws IOException If an I/O error occurs
      */
     public static void downloadFile(URI fileUri, Path localFilePath) throws IOException {
-        Files.createDirectories(localFilePath.getParent());
-        try (InputStream in = fileUri.toURL().openStream()) {
-            Files.copy(in, localFilePath, StandardCopyOption.REPLACE_EXISTING);
-        }
+        writeFile(DownloadManager.getInstance().fetch(fileUri).getBody(), localFilePath);
+    }
+
+    private static void writeFile(byte[] content, Path localFilePath) throws IOException {
+        Files.createDirectories(localFilePath.toAbsolutePath().getParent());
+        // The file may be a link to the content store, it is replaced rather than overwritten
+        Files.deleteIfExists(localFilePath);
+        Files.write(localFilePath, content);
     }
 
     /**
-     * Generate a hash for a file
-     * 
-     * @param filePath Path to the file
-     * @return Hash of the file in hexadecimal format
+     * Generate a hash for the content of a file held in memory
+     *
+     * @param content Content of the file
+     * @return Hash of the content in hexadecimal format
      * @throws NoSuchAlgorithmException If the SHA-256 algorithm is not available
-     * @throws IOException If an I/O error occurs
      */
-    private static String hashFile(Path filePath) throws NoSuchAlgorithmException, IOException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        try (InputStream fis = Files.newInputStream(filePath)) {
-            byte[] byteArray = new byte[1024];
-            int bytesCount;
-            while ((bytesCount = fis.read(byteArray)) != -1) {
-                digest.update(byteArray, 0, bytesCount);
-            }
-        }
+    private static String hashBytes(byte[] content) throws NoSuchAlgorithmException {
+        return toHexString(MessageDigest.getInstance("SHA-256").digest(content));
+    }
 
-        byte[] bytes = digest.digest();
+    private static String toHexString(byte[] bytes) {
         StringBuilder sb = new StringBuilder();
         for (byte b : bytes) {
             sb.append(String.format("%02x", b));
@@ -10,6 +10,13 @@ import fr.inria.corese.core.kgram.core.Mappings;
 import fr.inria.corese.core.load.Load;
 import fr.inria.corese.core.print.CanonicalRdf10Format;
 import fr.inria.corese.core.query.QueryProcess;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.FileComparator;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.FileComparison;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.GraphComparator;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.GraphDiff;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.SparqlResultFiles;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.SparqlResultSetComparator;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.SparqlXmlResultsReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -24,11 +31,10 @@ import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -91,38 +97,24 @@ public class TestUtils {
     }
 
     /**
-     * Compare the content of two text files line by lines. Created to be used to compare two canonicalized files
+     * Compare the content of two text files line by lines. Created to be used to compare two canonicalized files.
+     * The line terminators are not compared, see {@link FileComparator}.
      * @param filePath1
      * @param filePath2
      * @return true if the files are identical
      * @throws IOException
      */
     public static boolean compareFilesLineByLine(Path filePath1, Path filePath2) throws IOException {
-        try (
-                BufferedReader reader1 = new BufferedReader(new FileReader(filePath1.toString()));
-                BufferedReader reader2 = new BufferedReader(new FileReader(filePath2.toString()))
-        ) {
-            String line1;
-            String line2;
-
-            // Read and compare lines one by one
-            while ((line1 = reader1.readLine()) != null & (line2 = reader2.readLine()) != null) {
-                if (!line1.equals(line2)) {
-                    return false;
-                }
-            }
-
-            // Check if one file has extra lines
-            if (reader1.readLine() != null || reader2.readLine() != null) {
-                return false;
-            }
+        FileComparison comparison = FileComparator.compare(filePath1, filePath2);
+        if (!comparison.isIdentical()) {
+            logger.info("{} and {}: {}", filePath1, filePath2, comparison);
         }
-
-        return true; // Files are identical
+        return comparison.isIdentical();
     }
 
     /**
-     * Compare two files containing SPARQL results in XML format. Created to compare the ".srx" files used in W3C SPARQL tests
+     * Compare two files containing SPARQL results in XML format. Created to compare the ".srx" files used in W3C SPARQL tests.
+     * The results are compared as multisets of solutions, up to the renaming of blank nodes, see {@link SparqlResultSetComparator}.
      * @param resultFile1
      * @param resultFile2
      * @return true if identical
@@ -132,7 +124,12 @@ public class TestUtils {
      * @throws XPathExpressionException
      */
     public static boolean compareXMLSparqlResultFiles(Path resultFile1, Path resultFile2) throws ParserConfigurationException, IOException, SAXException, XPathExpressionException {
-            // Load and parse the two SRX files
+            if (SparqlXmlResultsReader.isSparqlResultsFile(resultFile1) && SparqlXmlResultsReader.isSparqlResultsFile(resultFile2)) {
+                return SparqlResultSetComparator.areEquivalent(SparqlXmlResultsReader.read(resultFile1),
+                        SparqlXmlResultsReader.read(resultFile2));
+            }
+
+            // Other XML files, e.g. RDF/XML results of CONSTRUCT queries, are compared on the text of their result elements
             File file1 = resultFile1.toFile();
             File file2 = resultFile2.toFile();
 
@@ -151,6 +148,19 @@ public class TestUtils {
             return compareXMLResults(results1, results2);
     }
 
+    /**
+     * Compare two files containing the results of a SPARQL query, in the SPARQL XML or JSON results formats or, for
+     * CONSTRUCT queries, in an RDF format. See {@link SparqlResultFiles}.
+     * @param expectedResultFile
+     * @param actualResultFile
+     * @param orderVariables Variables of the ORDER BY clause of the query, none if the query does not order its solutions
+     * @return true if the results are equivalent
+     * @throws IOException
+     */
+    public static boolean compareSparqlResultFiles(Path expectedResultFile, Path actualResultFile, String... orderVariables) throws IOException {
+        return SparqlResultFiles.compare(expectedResultFile, actualResultFile, List.of(orderVariables));
+    }
+
     public static boolean jsonFilesAreEqual(Path filePath1, Path filePath2) throws IOException {
         ObjectMapper mapper = new ObjectMapper();
 
@@ -470,11 +480,25 @@ public class TestUtils {
         return kb1Printer.toString().compareTo(kb2Printer.toString());
     }
 
+    /**
+     * Compares the content of two graph stores without serializing them, see {@link GraphComparator}.
+     *
+     * @param expected Expected graph store
+     * @param actual   Graph store to compare to the expected one
+     * @return the quads missing from the actual store and its extra quads, empty if the stores are isomorphic
+     */
+    public static GraphDiff compareGraphStores(GraphStore expected, GraphStore actual) {
+        GraphDiff diff = GraphComparator.compare(expected, actual);
+        if (!diff.isEmpty()) {
+            logger.info("Graph stores differ: {}", diff);
+        }
+        return diff;
+    }
+
     public static String getFileTextContent(String filePathString) throws IOException {
         Path filePath = Paths.get(filePathString);
 
         byte[] fileBytes = Files.readAllBytes(filePath);
-        String content = new String(fileBytes);
-        return content;
+        return new String(fileBytes, StandardCharsets.UTF_8);
     }
 }
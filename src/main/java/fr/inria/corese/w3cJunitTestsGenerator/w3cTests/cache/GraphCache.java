@@ -0,0 +1,222 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.cache;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of the graphs parsed from the test files, so that a file read by many tests, e.g. a data file
+ * shared by the tests of a manifest, is parsed once per run.
+ * <p>
+ * The graphs are keyed by the SHA-256 hash of the content of their file and by its path, since Load resolves the
+ * relative IRIs of a file against its path and guesses its format from its extension. A file modified during the run
+ * is parsed again. The cache is bounded by the total number of edges of its graphs, set by the system property
+ * "corese.w3c.graphCache.maxEdges", and evicts the least recently used graphs first.
+ * <p>
+ * The cached graphs are shared by all the tests and must never be modified: tests that only read a graph use
+ * {@link #getShared(Path)}, tests that modify it use {@link #getCopy(Path)}. The indexes of
+ * Corese are built lazily and are not thread-safe while they are built, so a graph is fully indexed before it is
+ * published to the other threads, which then read it without locking.
+ */
+public class GraphCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphCache.class);
+
+    public static final String MAX_EDGES_PROPERTY = "corese.w3c.graphCache.maxEdges";
+    private static final long DEFAULT_MAX_EDGES = 2_000_000;
+
+    private static GraphCache instance = null;
+
+    private final long maxEdges;
+    // Access-ordered, the eldest entry is the least recently used graph
+    private final LinkedHashMap<String, Graph> graphs = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedEdges = 0;
+    // Parsings in progress, shared by the tests requesting the same graph
+    private final ConcurrentHashMap<String, CompletableFuture<Graph>> parsings = new ConcurrentHashMap<>();
+    // Hashes of the files already read, invalidated when a file is modified
+    private final ConcurrentHashMap<Path, HashedFile> hashedFiles = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxEdges Maximum total number of edges of the cached graphs
+     */
+    public GraphCache(long maxEdges) {
+        this.maxEdges = maxEdges;
+    }
+
+    /**
+     * @return the cache shared by all the tests of the process
+     */
+    public static synchronized GraphCache getInstance() {
+        if (instance == null) {
+            instance = new GraphCache(Long.getLong(MAX_EDGES_PROPERTY, DEFAULT_MAX_EDGES));
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the graph of a file, parsing it if it is not in the cache. The graph is shared and must not be modified.
+     *
+     * @param filePath Path to an RDF file, in a format given by its extension
+     * @return the graph of the file
+     * @throws LoadException If the file cannot be parsed
+     * @throws IOException   If the file cannot be read
+     */
+    public Graph getShared(Path filePath) throws LoadException, IOException {
+        String key = getContentKey(filePath);
+        synchronized (this) {
+            Graph graph = graphs.get(key);
+            if (graph != null) {
+                return graph;
+            }
+        }
+
+        CompletableFuture<Graph> parsing = new CompletableFuture<>();
+        CompletableFuture<Graph> existingParsing = parsings.putIfAbsent(key, parsing);
+        if (existingParsing != null) {
+            return join(existingParsing);
+        }
+        try {
+            Graph graph = parse(filePath);
+            put(key, graph);
+            parsing.complete(graph);
+            return graph;
+        } catch (LoadException | RuntimeException e) {
+            parsing.completeExceptionally(e);
+            throw e;
+        } finally {
+            parsings.remove(key);
+        }
+    }
+
+    /**
+     * Returns a copy of the graph of a file, that the caller can modify.
+     *
+     * @param filePath Path to an RDF file, in a format given by its extension
+     * @return a new graph with the content of the file
+     * @throws LoadException If the file cannot be parsed
+     * @throws IOException   If the file cannot be read
+     */
+    public Graph getCopy(Path filePath) throws LoadException, IOException {
+        return getShared(filePath).copy();
+    }
+
+    /**
+     * Empties the cache.
+     */
+    public synchronized void clear() {
+        graphs.clear();
+        cachedEdges = 0;
+    }
+
+    /**
+     * Parses a file and builds all the indexes of its graph, so that it can be read concurrently.
+     */
+    private static Graph parse(Path filePath) throws LoadException {
+        logger.debug("Parsing {}", filePath);
+        Graph graph = Graph.create();
+        graph.init();
+        Load.create(graph).parse(filePath.toString());
+        // Builds the indexes that Corese leaves to the first query
+        graph.init();
+        return graph;
+    }
+
+    private synchronized void put(String key, Graph graph) {
+        long graphEdges = graph.size();
+        if (graphEdges > maxEdges) {
+            // Caching it would evict every other graph
+            return;
+        }
+        Graph previousGraph = graphs.put(key, graph);
+        if (previousGraph != null) {
+            // Parsed again by a thread that missed the cache while the first parsing was published
+            cachedEdges -= previousGraph.size();
+        }
+        cachedEdges += graphEdges;
+        Iterator<Map.Entry<String, Graph>> eldestEntries = graphs.entrySet().iterator();
+        while (cachedEdges > maxEdges && eldestEntries.hasNext()) {
+            Map.Entry<String, Graph> eldestEntry = eldestEntries.next();
+            cachedEdges -= eldestEntry.getValue().size();
+            eldestEntries.remove();
+        }
+    }
+
+    /**
+     * @return the hash of the content of a file followed by its absolute path
+     */
+    private String getContentKey(Path filePath) throws IOException {
+        Path absolutePath = filePath.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(absolutePath, BasicFileAttributes.class);
+        HashedFile hashedFile = hashedFiles.get(absolutePath);
+        if (hashedFile == null || !hashedFile.matches(attributes)) {
+            hashedFile = new HashedFile(attributes, hashFile(absolutePath));
+            hashedFiles.put(absolutePath, hashedFile);
+        }
+        return hashedFile.hash + " " + absolutePath;
+    }
+
+    private static String hashFile(Path filePath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(filePath), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static Graph join(CompletableFuture<Graph> parsing) throws LoadException, IOException {
+        try {
+            return parsing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof LoadException) {
+                throw (LoadException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Hash of a file, valid as long as its size and modification time do not change
+     */
+    private static class HashedFile {
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        HashedFile(BasicFileAttributes attributes, String hash) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.hash = hash;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Line level comparison of two text files, e.g. two canonicalized N-Quads files, without decoding them.
+ * <p>
+ * Files of the same size are first compared byte per byte on memory mapped chunks with {@link ByteBuffer#mismatch},
+ * which is vectorized by the JVM. When the bytes differ, the files are compared again in a streaming pass on heap
+ * buffers, no larger than the files, that, as {@link java.io.BufferedReader#readLine()}, does not distinguish the
+ * "\n", "\r\n" and "\r" line terminators nor a missing terminator at the end of the last line. The pass stops at the
+ * first difference. Only the differing lines are decoded, as UTF-8, to describe the difference.
+ */
+public class FileComparator {
+
+    // Size of the mapped chunks of the byte comparison
+    private static final long MAPPED_CHUNK_SIZE = 1L << 28;
+    // Maximum size of the buffers of the streaming comparison
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Maximum number of bytes of a line decoded in a diagnostic
+    private static final int MAX_DIAGNOSTIC_LINE_LENGTH = 1024;
+
+    private static final int END_OF_FILE = -1;
+
+    private FileComparator() {
+    }
+
+    /**
+     * Compares the lines of two text files.
+     *
+     * @param filePath1 Path to the first file
+     * @param filePath2 Path to the second file
+     * @return the outcome of the comparison, locating the first difference if any
+     * @throws IOException If one of the files cannot be read
+     */
+    public static FileComparison compare(Path filePath1, Path filePath2) throws IOException {
+        try (FileChannel channel1 = FileChannel.open(filePath1, StandardOpenOption.READ);
+             FileChannel channel2 = FileChannel.open(filePath2, StandardOpenOption.READ)) {
+            if (channel1.size() == channel2.size() && bytesAreEqual(channel1, channel2)) {
+                return FileComparison.identical();
+            }
+            return compareLines(channel1, channel2);
+        }
+    }
+
+    /**
+     * @return true if two files of the same size have the same bytes
+     */
+    private static boolean bytesAreEqual(FileChannel channel1, FileChannel channel2) throws IOException {
+        long size = channel1.size();
+        for (long position = 0; position < size; position += MAPPED_CHUNK_SIZE) {
+            long chunkSize = Math.min(MAPPED_CHUNK_SIZE, size - position);
+            MappedByteBuffer chunk1 = channel1.map(FileChannel.MapMode.READ_ONLY, position, chunkSize);
+            MappedByteBuffer chunk2 = channel2.map(FileChannel.MapMode.READ_ONLY, position, chunkSize);
+            if (chunk1.mismatch(chunk2) != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Streaming comparison of the lines of two files, insensitive to the line terminators
+     */
+    private static FileComparison compareLines(FileChannel channel1, FileChannel channel2) throws IOException {
+        Cursor cursor1 = new Cursor(channel1, 0);
+        Cursor cursor2 = new Cursor(channel2, 0);
+        // Last byte consumed in both files, the files are identical up to it
+        int last = END_OF_FILE;
+
+        while (true) {
+            boolean hasData1 = cursor1.fill();
+            boolean hasData2 = cursor2.fill();
+            if (hasData1 && hasData2) {
+                int length = Math.min(cursor1.buffer.remaining(), cursor2.buffer.remaining());
+                int mismatch = mismatch(cursor1.buffer, cursor2.buffer, length);
+                int matched = mismatch == -1 ? length : mismatch;
+                if (matched > 0) {
+                    last = cursor1.buffer.get(cursor1.buffer.position() + matched - 1) & 0xFF;
+                    cursor1.skip(matched);
+                    cursor2.skip(matched);
+                }
+                if (mismatch == -1) {
+                    continue;
+                }
+            }
+
+            int byte1 = cursor1.peek();
+            int byte2 = cursor2.peek();
+            if (byte1 == END_OF_FILE && byte2 == END_OF_FILE) {
+                return FileComparison.identical();
+            }
+            if (last == '\r' && (byte1 == '\n' || byte2 == '\n')) {
+                // End of a "\r\n" terminator in one file, matching a "\r" terminator in the other
+                (byte1 == '\n' ? cursor1 : cursor2).skip(1);
+                last = '\n';
+            } else if (isTerminator(byte1) && isTerminator(byte2)) {
+                cursor1.skipTerminator();
+                cursor2.skipTerminator();
+                last = '\n';
+            } else if (!isLineStart(last) && byte1 == END_OF_FILE && isTerminator(byte2)) {
+                // Terminator of the last line absent from the first file
+                cursor2.skipTerminator();
+                last = '\n';
+            } else if (!isLineStart(last) && byte2 == END_OF_FILE && isTerminator(byte1)) {
+                cursor1.skipTerminator();
+                last = '\n';
+            } else {
+                return describeDifference(channel1, cursor1.offset, channel2, cursor2.offset);
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first differing byte of the next length bytes of the buffers, -1 if they are equal
+     */
+    private static int mismatch(ByteBuffer buffer1, ByteBuffer buffer2, int length) {
+        ByteBuffer window1 = buffer1.duplicate();
+        window1.limit(window1.position() + length);
+        ByteBuffer window2 = buffer2.duplicate();
+        window2.limit(window2.position() + length);
+        return window1.mismatch(window2);
+    }
+
+    private static boolean isTerminator(int b) {
+        return b == '\n' || b == '\r';
+    }
+
+    private static boolean isLineStart(int last) {
+        return last == END_OF_FILE || isTerminator(last);
+    }
+
+    /**
+     * Locates the line of the first difference and decodes the differing lines
+     */
+    private static FileComparison describeDifference(FileChannel channel1, long offset1, FileChannel channel2,
+            long offset2) throws IOException {
+        long[] lineStart1 = findLineStart(channel1, offset1);
+        long[] lineStart2 = findLineStart(channel2, offset2);
+        return FileComparison.difference(offset1, offset2, lineStart1[0],
+                readLine(channel1, lineStart1[1]), readLine(channel2, lineStart2[1]));
+    }
+
+    /**
+     * @return the number, starting at 1, and the offset of the start of the line containing an offset
+     */
+    private static long[] findLineStart(FileChannel channel, long offset) throws IOException {
+        Cursor cursor = new Cursor(channel, 0);
+        long line = 1;
+        long lineStart = 0;
+        while (cursor.offset < offset && cursor.fill()) {
+            int b = cursor.buffer.get() & 0xFF;
+            cursor.offset++;
+            if (b == '\n' || (b == '\r' && cursor.peek() != '\n')) {
+                line++;
+                lineStart = cursor.offset;
+            }
+        }
+        return new long[] { line, lineStart };
+    }
+
+    /**
+     * @return the line starting at an offset, without its terminator, null if the offset is the end of the file
+     */
+    private static String readLine(FileChannel channel, long lineStart) throws IOException {
+        if (lineStart >= channel.size()) {
+            return null;
+        }
+        ByteBuffer line = ByteBuffer.allocate(MAX_DIAGNOSTIC_LINE_LENGTH);
+        channel.read(line, lineStart);
+        line.flip();
+        int length = 0;
+        while (length < line.limit() && !isTerminator(line.get(length))) {
+            length++;
+        }
+        return new String(line.array(), 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reading position in a file, backed by a heap buffer refilled from the channel. The buffer is sized to the rest of
+     * the file, so that comparing small files does not allocate a full buffer per cursor.
+     */
+    private static class Cursor {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long offset;
+
+        private Cursor(FileChannel channel, long offset) throws IOException {
+            this.channel = channel;
+            // At least one byte, so that reading an empty file reaches its end
+            this.buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(BUFFER_SIZE, channel.size() - offset)));
+            this.buffer.flip();
+            this.offset = offset;
+            this.channel.position(offset);
+        }
+
+        /**
+         * @return true if there are bytes to read, reading the next bytes of the file if the buffer is empty
+         */
+        private boolean fill() throws IOException {
+            if (this.buffer.hasRemaining()) {
+                return true;
+            }
+            this.buffer.clear();
+            int read;
+            do {
+                read = this.channel.read(this.buffer);
+            } while (read == 0);
+            this.buffer.flip();
+            return read > 0;
+        }
+
+        /**
+         * @return the next byte, without consuming it, or END_OF_FILE
+         */
+        private int peek() throws IOException {
+            return fill() ? this.buffer.get(this.buffer.position()) & 0xFF : END_OF_FILE;
+        }
+
+        private void skip(int length) {
+            this.buffer.position(this.buffer.position() + length);
+            this.offset += length;
+        }
+
+        /**
+         * Consumes a "\n", "\r\n" or "\r" terminator
+         */
+        private void skipTerminator() throws IOException {
+            int first = peek();
+            skip(1);
+            if (first == '\r' && peek() == '\n') {
+                skip(1);
+            }
+        }
+    }
+}
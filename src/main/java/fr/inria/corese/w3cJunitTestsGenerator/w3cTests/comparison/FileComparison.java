@@ -0,0 +1,83 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+/**
+ * Outcome of the comparison of two text files by {@link FileComparator}. When the files differ, it locates the first
+ * difference in both files and holds the differing lines, decoded as UTF-8.
+ */
+public class FileComparison {
+
+    private static final FileComparison IDENTICAL = new FileComparison(true, -1, -1, -1, null, null);
+
+    private final boolean identical;
+    private final long offset1;
+    private final long offset2;
+    private final long line;
+    private final String line1;
+    private final String line2;
+
+    private FileComparison(boolean identical, long offset1, long offset2, long line, String line1, String line2) {
+        this.identical = identical;
+        this.offset1 = offset1;
+        this.offset2 = offset2;
+        this.line = line;
+        this.line1 = line1;
+        this.line2 = line2;
+    }
+
+    static FileComparison identical() {
+        return IDENTICAL;
+    }
+
+    static FileComparison difference(long offset1, long offset2, long line, String line1, String line2) {
+        return new FileComparison(false, offset1, offset2, line, line1, line2);
+    }
+
+    public boolean isIdentical() {
+        return identical;
+    }
+
+    /**
+     * @return the byte offset of the first difference in the first file, -1 if the files are identical
+     */
+    public long getOffset1() {
+        return offset1;
+    }
+
+    /**
+     * @return the byte offset of the first difference in the second file, -1 if the files are identical
+     */
+    public long getOffset2() {
+        return offset2;
+    }
+
+    /**
+     * @return the number, starting at 1, of the first differing line, -1 if the files are identical
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * @return the first differing line of the first file, null if the files are identical or if it has fewer lines
+     */
+    public String getLine1() {
+        return line1;
+    }
+
+    /**
+     * @return the first differing line of the second file, null if the files are identical or if it has fewer lines
+     */
+    public String getLine2() {
+        return line2;
+    }
+
+    @Override
+    public String toString() {
+        if (identical) {
+            return "Files are identical";
+        }
+        return "Files differ at line " + line + " (byte " + offset1 + " / " + offset2 + "):\n"
+                + "< " + (line1 != null ? line1 : "<end of file>") + "\n"
+                + "> " + (line2 != null ? line2 : "<end of file>");
+    }
+}
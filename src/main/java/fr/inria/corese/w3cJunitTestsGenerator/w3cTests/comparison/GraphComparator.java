@@ -0,0 +1,143 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.api.core.Edge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks that two RDF datasets, e.g. the expected and actual states of a store after a SPARQL update, are isomorphic
+ * and describes their difference.
+ * <p>
+ * The number of quads of each graph is compared first: datasets of different sizes are reported as such, without
+ * building the quads. Otherwise, the ground quads of the datasets are compared with hash sets. Only the quads with blank nodes go through the blank
+ * node matching of {@link SparqlResultSetComparator}, and only if the number of such quads is the same in each graph
+ * of the datasets. Datasets without blank nodes, as most of the update tests, never need it.
+ */
+public class GraphComparator {
+
+    private static final List<String> QUAD_VARIABLES = List.of(RdfGraphResults.SUBJECT, RdfGraphResults.PREDICATE,
+            RdfGraphResults.OBJECT, RdfGraphResults.GRAPH);
+
+    private GraphComparator() {
+    }
+
+    /**
+     * @param expected Expected dataset
+     * @param actual   Dataset to compare to the expected one
+     * @return the difference between the datasets, empty if they are isomorphic
+     */
+    public static GraphDiff compare(Graph expected, Graph actual) {
+        List<String> sizeDifferences = compareSizes(expected, actual);
+        if (!sizeDifferences.isEmpty()) {
+            return new GraphDiff(sizeDifferences);
+        }
+
+        Set<Map<String, RdfTerm>> expectedGround = new HashSet<>();
+        List<Map<String, RdfTerm>> expectedWithBlankNodes = new ArrayList<>();
+        Map<RdfTerm, Integer> expectedBlankNodeQuadsPerGraph = new HashMap<>();
+        splitQuads(expected, expectedGround, expectedWithBlankNodes, expectedBlankNodeQuadsPerGraph);
+
+        Set<Map<String, RdfTerm>> actualGround = new HashSet<>();
+        List<Map<String, RdfTerm>> actualWithBlankNodes = new ArrayList<>();
+        Map<RdfTerm, Integer> actualBlankNodeQuadsPerGraph = new HashMap<>();
+        splitQuads(actual, actualGround, actualWithBlankNodes, actualBlankNodeQuadsPerGraph);
+
+        List<String> missingQuads = new ArrayList<>();
+        List<String> extraQuads = new ArrayList<>();
+        for (Map<String, RdfTerm> quad : expectedGround) {
+            if (!actualGround.contains(quad)) {
+                missingQuads.add(toNQuads(quad));
+            }
+        }
+        for (Map<String, RdfTerm> quad : actualGround) {
+            if (!expectedGround.contains(quad)) {
+                extraQuads.add(toNQuads(quad));
+            }
+        }
+
+        boolean blankNodeQuadsMatch = expectedBlankNodeQuadsPerGraph.equals(actualBlankNodeQuadsPerGraph);
+        if (blankNodeQuadsMatch && !expectedWithBlankNodes.isEmpty()) {
+            blankNodeQuadsMatch = SparqlResultSetComparator.areEquivalent(
+                    SparqlResultSet.solutions(QUAD_VARIABLES, expectedWithBlankNodes),
+                    SparqlResultSet.solutions(QUAD_VARIABLES, actualWithBlankNodes));
+        }
+        if (!blankNodeQuadsMatch) {
+            for (Map<String, RdfTerm> quad : expectedWithBlankNodes) {
+                missingQuads.add(toNQuads(quad));
+            }
+            for (Map<String, RdfTerm> quad : actualWithBlankNodes) {
+                extraQuads.add(toNQuads(quad));
+            }
+        }
+
+        Collections.sort(missingQuads);
+        Collections.sort(extraQuads);
+        return new GraphDiff(missingQuads, extraQuads);
+    }
+
+    /**
+     * @return the graphs whose number of quads differs between the datasets, with their sizes, empty if the datasets
+     *         have the same number of quads in each graph
+     */
+    private static List<String> compareSizes(Graph expected, Graph actual) {
+        List<String> sizeDifferences = new ArrayList<>();
+        if (expected.size() != actual.size()) {
+            sizeDifferences.add("dataset: " + expected.size() + " expected quad(s), " + actual.size() + " actual");
+            return sizeDifferences;
+        }
+        Map<RdfTerm, Integer> expectedSizes = countQuadsPerGraph(expected);
+        Map<RdfTerm, Integer> actualSizes = countQuadsPerGraph(actual);
+        if (!expectedSizes.equals(actualSizes)) {
+            Set<RdfTerm> graphs = new HashSet<>(expectedSizes.keySet());
+            graphs.addAll(actualSizes.keySet());
+            for (RdfTerm graph : graphs) {
+                int expectedSize = expectedSizes.getOrDefault(graph, 0);
+                int actualSize = actualSizes.getOrDefault(graph, 0);
+                if (expectedSize != actualSize) {
+                    sizeDifferences.add(graph + ": " + expectedSize + " expected quad(s), " + actualSize + " actual");
+                }
+            }
+            Collections.sort(sizeDifferences);
+        }
+        return sizeDifferences;
+    }
+
+    private static Map<RdfTerm, Integer> countQuadsPerGraph(Graph dataset) {
+        Map<RdfTerm, Integer> sizes = new HashMap<>();
+        for (Edge edge : dataset.getEdges()) {
+            sizes.merge(RdfGraphResults.toRdfTerm(edge.getGraphValue()), 1, Integer::sum);
+        }
+        return sizes;
+    }
+
+    /**
+     * Sorts the quads of a dataset between ground quads and quads with blank nodes, counting the latter per graph
+     */
+    private static void splitQuads(Graph dataset, Set<Map<String, RdfTerm>> groundQuads,
+            List<Map<String, RdfTerm>> blankNodeQuads, Map<RdfTerm, Integer> blankNodeQuadsPerGraph) {
+        for (Map<String, RdfTerm> quad : RdfGraphResults.fromGraph(dataset, true).getSolutions()) {
+            boolean hasBlankNode = false;
+            for (RdfTerm term : quad.values()) {
+                hasBlankNode |= term.isBlankNode();
+            }
+            if (hasBlankNode) {
+                blankNodeQuads.add(quad);
+                blankNodeQuadsPerGraph.merge(quad.get(RdfGraphResults.GRAPH), 1, Integer::sum);
+            } else {
+                groundQuads.add(quad);
+            }
+        }
+    }
+
+    private static String toNQuads(Map<String, RdfTerm> quad) {
+        return quad.get(RdfGraphResults.SUBJECT) + " " + quad.get(RdfGraphResults.PREDICATE) + " "
+                + quad.get(RdfGraphResults.OBJECT) + " " + quad.get(RdfGraphResults.GRAPH) + " .";
+    }
+}
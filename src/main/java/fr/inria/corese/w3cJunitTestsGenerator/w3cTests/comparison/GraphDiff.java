@@ -0,0 +1,82 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import java.util.List;
+
+/**
+ * Difference between an expected and an actual RDF dataset, as found by {@link GraphComparator}: the quads of the
+ * expected dataset missing from the actual one and the extra quads of the actual dataset, in N-Quads syntax.
+ * <p>
+ * Ground quads are reported one by one. Quads with blank nodes cannot be paired individually, when the blank node
+ * parts of the datasets are not isomorphic, all of them are reported. Datasets with a different number of quads in a
+ * graph are only reported by their sizes.
+ */
+public class GraphDiff {
+
+    // Maximum number of quads of each side listed by toString()
+    private static final int MAX_LISTED_QUADS = 20;
+
+    private final List<String> missingQuads;
+    private final List<String> extraQuads;
+    private final List<String> sizeDifferences;
+
+    GraphDiff(List<String> missingQuads, List<String> extraQuads) {
+        this.missingQuads = missingQuads;
+        this.extraQuads = extraQuads;
+        this.sizeDifferences = List.of();
+    }
+
+    GraphDiff(List<String> sizeDifferences) {
+        this.missingQuads = List.of();
+        this.extraQuads = List.of();
+        this.sizeDifferences = sizeDifferences;
+    }
+
+    /**
+     * @return true if the datasets are isomorphic
+     */
+    public boolean isEmpty() {
+        return missingQuads.isEmpty() && extraQuads.isEmpty() && sizeDifferences.isEmpty();
+    }
+
+    public List<String> getMissingQuads() {
+        return missingQuads;
+    }
+
+    public List<String> getExtraQuads() {
+        return extraQuads;
+    }
+
+    /**
+     * @return the graphs with a different number of quads in the datasets, e.g. "&lt;http://example.org/g&gt;: 2
+     *         expected quad(s), 3 actual", in which case the quads are not compared
+     */
+    public List<String> getSizeDifferences() {
+        return sizeDifferences;
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "Datasets are isomorphic";
+        }
+        StringBuilder sb = new StringBuilder();
+        if (!sizeDifferences.isEmpty()) {
+            sb.append("Datasets differ in size");
+            appendQuads(sb, "# ", sizeDifferences);
+            return sb.toString();
+        }
+        sb.append(missingQuads.size()).append(" missing quad(s), ").append(extraQuads.size()).append(" extra quad(s)");
+        appendQuads(sb, "- ", missingQuads);
+        appendQuads(sb, "+ ", extraQuads);
+        return sb.toString();
+    }
+
+    private static void appendQuads(StringBuilder sb, String prefix, List<String> quads) {
+        for (int i = 0; i < Math.min(quads.size(), MAX_LISTED_QUADS); i++) {
+            sb.append("\n").append(prefix).append(quads.get(i));
+        }
+        if (quads.size() > MAX_LISTED_QUADS) {
+            sb.append("\n").append(prefix).append("... ").append(quads.size() - MAX_LISTED_QUADS).append(" more");
+        }
+    }
+}
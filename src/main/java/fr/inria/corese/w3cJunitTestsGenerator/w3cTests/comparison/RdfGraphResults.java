@@ -0,0 +1,84 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.api.core.Edge;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.sparql.api.IDatatype;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads RDF graphs, e.g. the results of CONSTRUCT queries, as result sets whose solutions are the triples of the graph
+ * bound to the variables "subject", "predicate" and "object", and "graph" for quads. Comparing two such result sets
+ * with {@link SparqlResultSetComparator} checks that the graphs are isomorphic.
+ */
+public class RdfGraphResults {
+
+    public static final String SUBJECT = "subject";
+    public static final String PREDICATE = "predicate";
+    public static final String OBJECT = "object";
+    public static final String GRAPH = "graph";
+
+    private RdfGraphResults() {
+    }
+
+    /**
+     * Loads an RDF file, in a format guessed from its extension, as a result set of triples.
+     *
+     * @param filePath Path to the file
+     * @return the triples of the file
+     * @throws IOException If the file cannot be read or parsed
+     */
+    public static SparqlResultSet read(Path filePath) throws IOException {
+        Graph graph = Graph.create();
+        graph.init();
+        try {
+            Load.create(graph).parse(filePath.toString());
+        } catch (LoadException e) {
+            throw new IOException("Could not load the RDF file " + filePath, e);
+        }
+        return fromGraph(graph, false);
+    }
+
+    /**
+     * @param graph          Graph to convert
+     * @param withGraphNames If true, the name of the graph of each edge is bound to the "graph" variable
+     * @return the edges of the graph as a result set
+     */
+    public static SparqlResultSet fromGraph(Graph graph, boolean withGraphNames) {
+        List<String> variables = withGraphNames ? List.of(SUBJECT, PREDICATE, OBJECT, GRAPH)
+                : List.of(SUBJECT, PREDICATE, OBJECT);
+        List<Map<String, RdfTerm>> solutions = new ArrayList<>();
+        for (Edge edge : graph.getEdges()) {
+            Map<String, RdfTerm> solution = new HashMap<>();
+            solution.put(SUBJECT, toRdfTerm(edge.getSubjectValue()));
+            solution.put(PREDICATE, toRdfTerm(edge.getPredicateValue()));
+            solution.put(OBJECT, toRdfTerm(edge.getObjectValue()));
+            if (withGraphNames) {
+                solution.put(GRAPH, toRdfTerm(edge.getGraphValue()));
+            }
+            solutions.add(solution);
+        }
+        return SparqlResultSet.solutions(variables, solutions);
+    }
+
+    /**
+     * @param value Corese value of a node
+     * @return the RDF term of the value
+     */
+    public static RdfTerm toRdfTerm(IDatatype value) {
+        if (value.isBlank()) {
+            return RdfTerm.blankNode(value.getLabel());
+        }
+        if (value.isURI()) {
+            return RdfTerm.iri(value.getLabel());
+        }
+        return RdfTerm.literal(value.getLabel(), value.getDatatypeURI(), value.getLang());
+    }
+}
@@ -0,0 +1,140 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * RDF term bound to a variable in a SPARQL result: an IRI, a blank node or a literal with its datatype or language tag.
+ * <p>
+ * Terms are normalized on creation so that equal terms are equal objects: a simple literal has the xsd:string datatype
+ * and language tags are lower case. Blank nodes are equal if they have the same label, the labels are only meaningful
+ * in their result set, see {@link SparqlResultSetComparator}.
+ */
+public class RdfTerm {
+
+    public static final String XSD_STRING = "http://www.w3.org/2001/XMLSchema#string";
+    public static final String RDF_LANG_STRING = "http://www.w3.org/1999/02/22-rdf-syntax-ns#langString";
+
+    public enum Kind {
+        IRI, BLANK_NODE, LITERAL
+    }
+
+    private final Kind kind;
+    private final String value;
+    private final String datatype;
+    private final String language;
+    private long hash64 = 0;
+
+    private RdfTerm(Kind kind, String value, String datatype, String language) {
+        this.kind = kind;
+        this.value = value;
+        this.datatype = datatype;
+        this.language = language;
+    }
+
+    public static RdfTerm iri(String iri) {
+        return new RdfTerm(Kind.IRI, iri, null, null);
+    }
+
+    public static RdfTerm blankNode(String label) {
+        return new RdfTerm(Kind.BLANK_NODE, label, null, null);
+    }
+
+    /**
+     * @param lexicalForm Lexical form of the literal
+     * @param datatype    Datatype IRI, null for a simple or a language-tagged literal
+     * @param language    Language tag, null if the literal has none
+     * @return the literal
+     */
+    public static RdfTerm literal(String lexicalForm, String datatype, String language) {
+        if (language != null && !language.isEmpty()) {
+            return new RdfTerm(Kind.LITERAL, lexicalForm, RDF_LANG_STRING, language.toLowerCase(Locale.ROOT));
+        }
+        return new RdfTerm(Kind.LITERAL, lexicalForm, datatype != null ? datatype : XSD_STRING, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the IRI, the label of the blank node or the lexical form of the literal
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public String getDatatype() {
+        return datatype;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public boolean isBlankNode() {
+        return kind == Kind.BLANK_NODE;
+    }
+
+    /**
+     * @return a 64 bits FNV-1a hash of the N-Triples form of the term, used to partition the solutions
+     */
+    long hash64() {
+        if (this.hash64 == 0) {
+            this.hash64 = hash64(toString());
+        }
+        return this.hash64;
+    }
+
+    /**
+     * @return the 64 bits FNV-1a hash of a string
+     */
+    static long hash64(String string) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < string.length(); i++) {
+            hash ^= string.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RdfTerm other = (RdfTerm) o;
+        return kind == other.kind
+                && value.equals(other.value)
+                && Objects.equals(datatype, other.datatype)
+                && Objects.equals(language, other.language);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, value, datatype, language);
+    }
+
+    /**
+     * @return the term in N-Triples syntax
+     */
+    @Override
+    public String toString() {
+        switch (kind) {
+            case IRI:
+                return "<" + value + ">";
+            case BLANK_NODE:
+                return "_:" + value;
+            default:
+                String literal = "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+                        .replace("\r", "\\r") + "\"";
+                if (language != null) {
+                    return literal + "@" + language;
+                }
+                return XSD_STRING.equals(datatype) ? literal : literal + "^^<" + datatype + ">";
+        }
+    }
+}
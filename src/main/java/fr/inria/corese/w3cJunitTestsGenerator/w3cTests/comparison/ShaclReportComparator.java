@@ -0,0 +1,207 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.api.core.Edge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Compares the SHACL validation report of a test with the expected report of its manifest.
+ * <p>
+ * The sh:ValidationResult of each report are indexed by their focus node, path, severity, source shape, source
+ * constraint component and value, and the two reports are compared as multisets of these keys in a single pass. The
+ * blank nodes of the focus nodes, source shapes and values are not compared, as their labels are local to their graph,
+ * and the blank node paths are compared by their structure, e.g. an inverse path or a sequence path.
+ * <p>
+ * The manifest graphs are shared by all the tests of their file and never modified, see
+ * {@link fr.inria.corese.w3cJunitTestsGenerator.w3cTests.cache.GraphCache}: each one is indexed once, on its first
+ * comparison, and only the report of each test is indexed by the test.
+ */
+public class ShaclReportComparator {
+
+    private static final String SH = "http://www.w3.org/ns/shacl#";
+    private static final RdfTerm RDF_TYPE = RdfTerm.iri("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+    private static final RdfTerm MF_RESULT = RdfTerm.iri(
+            "http://www.w3.org/2001/sw/DataAccess/tests/test-manifest#result");
+    private static final RdfTerm SH_VALIDATION_REPORT = RdfTerm.iri(SH + "ValidationReport");
+    private static final RdfTerm SH_CONFORMS = RdfTerm.iri(SH + "conforms");
+    private static final RdfTerm SH_RESULT = RdfTerm.iri(SH + "result");
+    private static final RdfTerm SH_FOCUS_NODE = RdfTerm.iri(SH + "focusNode");
+    private static final RdfTerm SH_RESULT_PATH = RdfTerm.iri(SH + "resultPath");
+    private static final RdfTerm SH_RESULT_SEVERITY = RdfTerm.iri(SH + "resultSeverity");
+    private static final RdfTerm SH_SOURCE_SHAPE = RdfTerm.iri(SH + "sourceShape");
+    private static final RdfTerm SH_SOURCE_CONSTRAINT_COMPONENT = RdfTerm.iri(SH + "sourceConstraintComponent");
+    private static final RdfTerm SH_VALUE = RdfTerm.iri(SH + "value");
+
+    private static final String ANY_BLANK_NODE = "_:";
+    // Depth of the blank node structures rendered for the paths, which bounds the rendering of cyclic structures
+    private static final int MAX_PATH_DEPTH = 8;
+
+    // Indexes of the manifest graphs, released with their graph
+    private static final Map<Graph, Map<RdfTerm, List<RdfTerm[]>>> manifestIndexes =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ShaclReportComparator() {
+    }
+
+    /**
+     * @param manifest Graph of the manifest declaring the test, holding its expected report as mf:result. It must not
+     *                 be modified once compared, as its index is kept.
+     * @param testUri  URI of the test, as declared by the remote manifest
+     * @param actual   Graph holding the validation report of the test
+     * @return the difference between the expected and actual reports, empty if they are equivalent
+     */
+    public static ShaclReportDiff compare(Graph manifest, String testUri, Graph actual) {
+        Map<RdfTerm, List<RdfTerm[]>> expectedIndex = manifestIndexes.computeIfAbsent(manifest,
+                ShaclReportComparator::index);
+        RdfTerm expectedReport = getObject(expectedIndex, RdfTerm.iri(testUri), MF_RESULT);
+        if (expectedReport == null) {
+            // Among the tests with the same last segment, the smallest IRI is taken, whatever the order of the index
+            String matchedIri = null;
+            for (Map.Entry<RdfTerm, List<RdfTerm[]>> subject : expectedIndex.entrySet()) {
+                RdfTerm result = getObject(expectedIndex, subject.getKey(), MF_RESULT);
+                if (result != null && isTest(subject.getKey(), testUri)
+                        && (matchedIri == null || subject.getKey().getValue().compareTo(matchedIri) < 0)) {
+                    matchedIri = subject.getKey().getValue();
+                    expectedReport = result;
+                }
+            }
+        }
+
+        Map<RdfTerm, List<RdfTerm[]>> actualIndex = index(actual);
+        RdfTerm actualReport = null;
+        for (Map.Entry<RdfTerm, List<RdfTerm[]>> subject : actualIndex.entrySet()) {
+            for (RdfTerm[] property : subject.getValue()) {
+                if (property[0].equals(RDF_TYPE) && property[1].equals(SH_VALIDATION_REPORT)) {
+                    actualReport = subject.getKey();
+                }
+            }
+        }
+
+        Map<String, Integer> expectedResults = new HashMap<>();
+        for (String result : getResults(expectedIndex, expectedReport)) {
+            expectedResults.merge(result, 1, Integer::sum);
+        }
+        List<String> extraResults = new ArrayList<>();
+        for (String result : getResults(actualIndex, actualReport)) {
+            Integer count = expectedResults.get(result);
+            if (count == null) {
+                extraResults.add(result);
+            } else if (count == 1) {
+                expectedResults.remove(result);
+            } else {
+                expectedResults.put(result, count - 1);
+            }
+        }
+        List<String> missingResults = new ArrayList<>();
+        for (Map.Entry<String, Integer> result : expectedResults.entrySet()) {
+            for (int i = 0; i < result.getValue(); i++) {
+                missingResults.add(result.getKey());
+            }
+        }
+
+        Collections.sort(missingResults);
+        Collections.sort(extraResults);
+        return new ShaclReportDiff(getConforms(expectedIndex, expectedReport), getConforms(actualIndex, actualReport),
+                missingResults, extraResults);
+    }
+
+    /**
+     * The manifests are parsed from their local copy, so the relative IRIs of their tests are resolved against the
+     * local file instead of the remote manifest: when the IRI of the test is not found, the test is recognized by the
+     * last segment of its IRI.
+     */
+    private static boolean isTest(RdfTerm subject, String testUri) {
+        if (subject.getKind() != RdfTerm.Kind.IRI) {
+            return false;
+        }
+        String iri = subject.getValue();
+        return iri.substring(iri.lastIndexOf('/') + 1).equals(testUri.substring(testUri.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * @return the (predicate, object) pairs of the triples of the graph, by subject
+     */
+    private static Map<RdfTerm, List<RdfTerm[]>> index(Graph graph) {
+        Map<RdfTerm, List<RdfTerm[]>> index = new HashMap<>();
+        for (Edge edge : graph.getEdges()) {
+            index.computeIfAbsent(RdfGraphResults.toRdfTerm(edge.getSubjectValue()), subject -> new ArrayList<>())
+                    .add(new RdfTerm[] { RdfGraphResults.toRdfTerm(edge.getPredicateValue()),
+                            RdfGraphResults.toRdfTerm(edge.getObjectValue()) });
+        }
+        return index;
+    }
+
+    private static String getConforms(Map<RdfTerm, List<RdfTerm[]>> index, RdfTerm report) {
+        if (report == null) {
+            return null;
+        }
+        RdfTerm conforms = getObject(index, report, SH_CONFORMS);
+        return conforms != null ? conforms.getValue() : "";
+    }
+
+    /**
+     * @return the keys of the validation results of the report, empty if there is no report
+     */
+    private static List<String> getResults(Map<RdfTerm, List<RdfTerm[]>> index, RdfTerm report) {
+        List<String> results = new ArrayList<>();
+        if (report == null) {
+            return results;
+        }
+        for (RdfTerm[] property : index.getOrDefault(report, List.of())) {
+            if (!property[0].equals(SH_RESULT)) {
+                continue;
+            }
+            RdfTerm result = property[1];
+            results.add("focusNode=" + render(getObject(index, result, SH_FOCUS_NODE))
+                    + " path=" + renderPath(index, getObject(index, result, SH_RESULT_PATH), 0)
+                    + " severity=" + render(getObject(index, result, SH_RESULT_SEVERITY))
+                    + " sourceShape=" + render(getObject(index, result, SH_SOURCE_SHAPE))
+                    + " sourceConstraintComponent="
+                    + render(getObject(index, result, SH_SOURCE_CONSTRAINT_COMPONENT))
+                    + " value=" + render(getObject(index, result, SH_VALUE)));
+        }
+        return results;
+    }
+
+    private static RdfTerm getObject(Map<RdfTerm, List<RdfTerm[]>> index, RdfTerm subject, RdfTerm predicate) {
+        for (RdfTerm[] property : index.getOrDefault(subject, List.of())) {
+            if (property[0].equals(predicate)) {
+                return property[1];
+            }
+        }
+        return null;
+    }
+
+    private static String render(RdfTerm term) {
+        if (term == null) {
+            return "";
+        }
+        return term.isBlankNode() ? ANY_BLANK_NODE : term.toString();
+    }
+
+    /**
+     * @return the path in N-Triples syntax, a blank node being replaced by its sorted properties, e.g.
+     * "[ &lt;http://www.w3.org/ns/shacl#inversePath&gt; &lt;http://example.org/p&gt; ]"
+     */
+    private static String renderPath(Map<RdfTerm, List<RdfTerm[]>> index, RdfTerm term, int depth) {
+        if (term == null || !term.isBlankNode()) {
+            return render(term);
+        }
+        List<RdfTerm[]> properties = index.getOrDefault(term, List.of());
+        if (properties.isEmpty() || depth >= MAX_PATH_DEPTH) {
+            return ANY_BLANK_NODE;
+        }
+        List<String> renderedProperties = new ArrayList<>();
+        for (RdfTerm[] property : properties) {
+            renderedProperties.add(property[0] + " " + renderPath(index, property[1], depth + 1));
+        }
+        Collections.sort(renderedProperties);
+        return "[ " + String.join(" ; ", renderedProperties) + " ]";
+    }
+}
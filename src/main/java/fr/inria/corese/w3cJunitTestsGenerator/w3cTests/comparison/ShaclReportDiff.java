@@ -0,0 +1,88 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Difference between an expected and an actual SHACL validation report, as found by {@link ShaclReportComparator}:
+ * their conformity, the validation results of the expected report missing from the actual one and the extra results
+ * of the actual report.
+ */
+public class ShaclReportDiff {
+
+    // Maximum number of results of each side listed by toString()
+    private static final int MAX_LISTED_RESULTS = 20;
+
+    private final String expectedConforms;
+    private final String actualConforms;
+    private final List<String> missingResults;
+    private final List<String> extraResults;
+
+    ShaclReportDiff(String expectedConforms, String actualConforms, List<String> missingResults,
+            List<String> extraResults) {
+        this.expectedConforms = expectedConforms;
+        this.actualConforms = actualConforms;
+        this.missingResults = missingResults;
+        this.extraResults = extraResults;
+    }
+
+    /**
+     * @return true if both reports exist, have the same conformity and the same results
+     */
+    public boolean isEmpty() {
+        return expectedConforms != null && Objects.equals(expectedConforms, actualConforms)
+                && missingResults.isEmpty() && extraResults.isEmpty();
+    }
+
+    /**
+     * @return the sh:conforms value of the expected report, null if there is no expected report
+     */
+    public String getExpectedConforms() {
+        return expectedConforms;
+    }
+
+    /**
+     * @return the sh:conforms value of the actual report, null if there is no actual report
+     */
+    public String getActualConforms() {
+        return actualConforms;
+    }
+
+    public List<String> getMissingResults() {
+        return missingResults;
+    }
+
+    public List<String> getExtraResults() {
+        return extraResults;
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "Validation reports are equivalent";
+        }
+        StringBuilder sb = new StringBuilder();
+        if (expectedConforms == null) {
+            sb.append("No expected validation report, ");
+        } else if (actualConforms == null) {
+            sb.append("No validation report, ");
+        } else if (!expectedConforms.equals(actualConforms)) {
+            sb.append("Expected sh:conforms ").append(expectedConforms).append(" but was ").append(actualConforms)
+                    .append(", ");
+        }
+        sb.append(missingResults.size()).append(" missing result(s), ").append(extraResults.size())
+                .append(" extra result(s)");
+        appendResults(sb, "- ", missingResults);
+        appendResults(sb, "+ ", extraResults);
+        return sb.toString();
+    }
+
+    private static void appendResults(StringBuilder sb, String prefix, List<String> results) {
+        for (int i = 0; i < Math.min(results.size(), MAX_LISTED_RESULTS); i++) {
+            sb.append("\n").append(prefix).append(results.get(i));
+        }
+        if (results.size() > MAX_LISTED_RESULTS) {
+            sb.append("\n").append(prefix).append("... ").append(results.size() - MAX_LISTED_RESULTS).append(" more");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reader of the SPARQL 1.1 Query Results JSON Format (".srj" files), see https://www.w3.org/TR/sparql11-results-json/.
+ */
+public class SparqlJsonResultsReader {
+
+    // Thread-safe once configured
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private SparqlJsonResultsReader() {
+    }
+
+    /**
+     * Reads a SPARQL JSON results file.
+     *
+     * @param filePath Path to the file
+     * @return the result set of the file
+     * @throws IOException If the file cannot be read or is not a SPARQL results document
+     */
+    public static SparqlResultSet read(Path filePath) throws IOException {
+        JsonNode root = OBJECT_MAPPER.readTree(filePath.toFile());
+        if (root == null || !root.isObject()) {
+            throw new IOException("Not a SPARQL JSON results file: " + filePath);
+        }
+        JsonNode booleanNode = root.get("boolean");
+        if (booleanNode != null) {
+            return SparqlResultSet.booleanResult(booleanNode.asBoolean());
+        }
+
+        List<String> variables = new ArrayList<>();
+        JsonNode head = root.path("head");
+        for (JsonNode variable : head.path("vars")) {
+            variables.add(variable.asText());
+        }
+
+        List<Map<String, RdfTerm>> solutions = new ArrayList<>();
+        for (JsonNode binding : root.path("results").path("bindings")) {
+            Map<String, RdfTerm> solution = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = binding.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                solution.put(field.getKey(), readTerm(field.getValue(), filePath));
+            }
+            solutions.add(solution);
+        }
+        return SparqlResultSet.solutions(variables, solutions);
+    }
+
+    private static RdfTerm readTerm(JsonNode term, Path filePath) throws IOException {
+        String type = term.path("type").asText();
+        String value = term.path("value").asText();
+        switch (type) {
+            case "uri":
+                return RdfTerm.iri(value);
+            case "bnode":
+                return RdfTerm.blankNode(value);
+            case "literal":
+            case "typed-literal":
+                JsonNode datatype = term.get("datatype");
+                JsonNode language = term.get("xml:lang");
+                return RdfTerm.literal(value, datatype != null ? datatype.asText() : null,
+                        language != null ? language.asText() : null);
+            default:
+                throw new IOException("Unknown RDF term type \"" + type + "\" in " + filePath);
+        }
+    }
+}
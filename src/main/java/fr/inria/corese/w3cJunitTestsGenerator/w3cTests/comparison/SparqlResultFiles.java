@@ -0,0 +1,120 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Entry point of the comparison of the result files of the SPARQL evaluation tests, whatever their format:
+ * <ul>
+ * <li>".srx" and ".xml": SPARQL Query Results XML Format</li>
+ * <li>".srj" and ".json": SPARQL Query Results JSON Format</li>
+ * <li>RDF files, e.g. ".rdf" and ".ttl": results of CONSTRUCT and DESCRIBE queries, compared as graphs</li>
+ * </ul>
+ */
+public class SparqlResultFiles {
+
+    private static final Pattern COMMENT_PATTERN = Pattern.compile("(?m)(^|\\s)#.*$");
+    private static final Pattern ORDER_BY_PATTERN = Pattern.compile("(?i)\\bORDER\\s+BY\\b");
+    private static final Pattern ORDER_BY_END_PATTERN = Pattern.compile("(?i)\\b(LIMIT|OFFSET|VALUES)\\b");
+    private static final Pattern ORDER_CONDITION_PATTERN = Pattern.compile("(?i)(ASC|DESC)?\\s*\\(?\\s*[?$](\\w+)\\s*\\)?");
+
+    private SparqlResultFiles() {
+    }
+
+    /**
+     * Reads a result file in a format given by its extension.
+     *
+     * @param filePath Path to the file
+     * @return the result set of the file
+     * @throws IOException If the file cannot be read or parsed
+     */
+    public static SparqlResultSet read(Path filePath) throws IOException {
+        String fileName = filePath.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".srx") || fileName.endsWith(".xml")) {
+            return SparqlXmlResultsReader.read(filePath);
+        }
+        if (fileName.endsWith(".srj") || fileName.endsWith(".json")) {
+            return SparqlJsonResultsReader.read(filePath);
+        }
+        return RdfGraphResults.read(filePath);
+    }
+
+    /**
+     * Compares a result file to the expected one.
+     *
+     * @param expectedFile   Expected result file
+     * @param actualFile     Result file to compare
+     * @param orderVariables Variables of the ORDER BY clause of the query, empty if its solutions are not ordered
+     * @return true if the results are equivalent, see {@link SparqlResultSetComparator}
+     * @throws IOException If one of the files cannot be read or parsed
+     */
+    public static boolean compare(Path expectedFile, Path actualFile, List<String> orderVariables) throws IOException {
+        return SparqlResultSetComparator.areEquivalent(read(expectedFile), read(actualFile), orderVariables);
+    }
+
+    /**
+     * Extracts the variables of the ORDER BY clause of the outermost query. The order is only checked for clauses made
+     * of variables, optionally wrapped in ASC() or DESC(): ties on more complex expressions cannot be detected from
+     * the results.
+     *
+     * @param query Text of a SPARQL query
+     * @return the order variables, without "?", empty if the query does not order its solutions or orders them on
+     * expressions
+     */
+    public static List<String> getOrderVariables(String query) {
+        String uncommentedQuery = COMMENT_PATTERN.matcher(query).replaceAll("$1");
+
+        // The solution modifiers of the outermost query are outside of any group
+        int orderByStart = -1;
+        Matcher orderByMatcher = ORDER_BY_PATTERN.matcher(uncommentedQuery);
+        while (orderByMatcher.find()) {
+            if (getGroupDepth(uncommentedQuery, orderByMatcher.start()) == 0) {
+                orderByStart = orderByMatcher.end();
+                break;
+            }
+        }
+        if (orderByStart < 0) {
+            return List.of();
+        }
+
+        String orderClause = uncommentedQuery.substring(orderByStart);
+        Matcher endMatcher = ORDER_BY_END_PATTERN.matcher(orderClause);
+        if (endMatcher.find()) {
+            orderClause = orderClause.substring(0, endMatcher.start());
+        }
+        orderClause = orderClause.trim();
+
+        List<String> variables = new ArrayList<>();
+        Matcher conditionMatcher = ORDER_CONDITION_PATTERN.matcher(orderClause);
+        int end = 0;
+        while (end < orderClause.length() && conditionMatcher.find(end) && conditionMatcher.start() == end) {
+            variables.add(conditionMatcher.group(2));
+            end = conditionMatcher.end();
+            while (end < orderClause.length() && Character.isWhitespace(orderClause.charAt(end))) {
+                end++;
+            }
+        }
+        return end == orderClause.length() ? variables : List.of();
+    }
+
+    /**
+     * @return the number of groups opened and not closed before a position of a query
+     */
+    private static int getGroupDepth(String query, int position) {
+        int depth = 0;
+        for (int i = 0; i < position; i++) {
+            char c = query.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            }
+        }
+        return depth;
+    }
+}
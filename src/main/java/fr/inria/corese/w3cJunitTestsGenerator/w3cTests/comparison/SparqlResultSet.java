@@ -0,0 +1,49 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a SPARQL query read from a results file: either the variables and the solutions of a SELECT query, or the
+ * boolean of an ASK query. A solution maps the bound variables, without "?", to their value, unbound variables are
+ * absent from it.
+ */
+public class SparqlResultSet {
+
+    private final List<String> variables;
+    private final List<Map<String, RdfTerm>> solutions;
+    private final Boolean booleanResult;
+
+    private SparqlResultSet(List<String> variables, List<Map<String, RdfTerm>> solutions, Boolean booleanResult) {
+        this.variables = variables;
+        this.solutions = solutions;
+        this.booleanResult = booleanResult;
+    }
+
+    public static SparqlResultSet solutions(List<String> variables, List<Map<String, RdfTerm>> solutions) {
+        return new SparqlResultSet(variables, solutions, null);
+    }
+
+    public static SparqlResultSet booleanResult(boolean booleanResult) {
+        return new SparqlResultSet(List.of(), List.of(), booleanResult);
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public List<Map<String, RdfTerm>> getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * @return the result of an ASK query, null for a SELECT query
+     */
+    public Boolean getBooleanResult() {
+        return booleanResult;
+    }
+
+    public boolean isBoolean() {
+        return booleanResult != null;
+    }
+}
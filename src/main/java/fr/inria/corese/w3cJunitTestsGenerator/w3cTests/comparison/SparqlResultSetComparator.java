@@ -0,0 +1,370 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two SPARQL result sets as the W3C test suites do: the variables of the results must be the same and the
+ * solutions must be equal as multisets, up to a renaming of the blank nodes. The renaming is a bijection between the
+ * blank node labels of the two result sets, shared by all their solutions. When the query orders its solutions, the
+ * values of the order variables must also appear in the same order in both result sets.
+ * <p>
+ * The solutions without blank node are compared by counting them. The blank nodes of the other solutions are colored
+ * by iterated hashing of the solutions they appear in, as the hash n-degree quads step of RDFC-1.0: two blank nodes
+ * that can be renamed into each other get the same color. The solutions are then partitioned by their hash, blank
+ * nodes replaced by their color, and each expected solution is only matched against the actual solutions of its
+ * partition. When the colors are all distinct, which is the usual case, the matching needs no backtracking and the
+ * comparison is close to linear in the number of solutions.
+ */
+public class SparqlResultSetComparator {
+
+    // Maximum number of refinement rounds of the blank node colors
+    private static final int MAX_REFINEMENT_ROUNDS = 16;
+    // Hash of a blank node in the solutions used to compute its own color
+    private static final long SELF = 0x5e1f5e1f5e1f5e1fL;
+
+    private SparqlResultSetComparator() {
+    }
+
+    /**
+     * @param expected Expected result set
+     * @param actual   Result set to compare to the expected one
+     * @return true if the result sets are equivalent, regardless of the order of their solutions
+     */
+    public static boolean areEquivalent(SparqlResultSet expected, SparqlResultSet actual) {
+        return areEquivalent(expected, actual, List.of());
+    }
+
+    /**
+     * @param expected       Expected result set
+     * @param actual         Result set to compare to the expected one
+     * @param orderVariables Variables of the ORDER BY clause of the query, without "?". Empty if the query does not
+     *                       order its solutions. The order is not checked if one of them is not a result variable.
+     * @return true if the result sets are equivalent
+     */
+    public static boolean areEquivalent(SparqlResultSet expected, SparqlResultSet actual, List<String> orderVariables) {
+        if (expected.isBoolean() || actual.isBoolean()) {
+            return expected.isBoolean() && actual.isBoolean()
+                    && expected.getBooleanResult().equals(actual.getBooleanResult());
+        }
+        if (!new HashSet<>(expected.getVariables()).equals(new HashSet<>(actual.getVariables()))) {
+            return false;
+        }
+        if (expected.getSolutions().size() != actual.getSolutions().size()) {
+            return false;
+        }
+
+        List<Map<String, RdfTerm>> expectedWithBlankNodes = new ArrayList<>();
+        List<Map<String, RdfTerm>> actualWithBlankNodes = new ArrayList<>();
+        Map<Map<String, RdfTerm>, Integer> groundCounts = new HashMap<>();
+        for (Map<String, RdfTerm> solution : expected.getSolutions()) {
+            if (hasBlankNode(solution)) {
+                expectedWithBlankNodes.add(solution);
+            } else {
+                groundCounts.merge(solution, 1, Integer::sum);
+            }
+        }
+        for (Map<String, RdfTerm> solution : actual.getSolutions()) {
+            if (hasBlankNode(solution)) {
+                actualWithBlankNodes.add(solution);
+            } else if (groundCounts.merge(solution, -1, Integer::sum) < 0) {
+                return false;
+            }
+        }
+        if (expectedWithBlankNodes.size() != actualWithBlankNodes.size()) {
+            return false;
+        }
+
+        Side expectedSide = new Side(expectedWithBlankNodes);
+        Side actualSide = new Side(actualWithBlankNodes);
+        refineColors(expectedSide, actualSide);
+        if (!new Matcher(expectedSide, actualSide).match()) {
+            return false;
+        }
+
+        if (!orderVariables.isEmpty() && expected.getVariables().containsAll(orderVariables)) {
+            return haveSameOrder(expected, expectedSide, actual, actualSide, orderVariables);
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the values of the order variables are the same, solution per solution. Blank nodes are compared by
+     * their color, as the ordering of a blank node is not affected by its label.
+     */
+    private static boolean haveSameOrder(SparqlResultSet expected, Side expectedSide, SparqlResultSet actual,
+            Side actualSide, List<String> orderVariables) {
+        for (int i = 0; i < expected.getSolutions().size(); i++) {
+            Map<String, RdfTerm> expectedSolution = expected.getSolutions().get(i);
+            Map<String, RdfTerm> actualSolution = actual.getSolutions().get(i);
+            for (String variable : orderVariables) {
+                RdfTerm expectedTerm = expectedSolution.get(variable);
+                RdfTerm actualTerm = actualSolution.get(variable);
+                if (expectedTerm == null || actualTerm == null) {
+                    if (expectedTerm != actualTerm) {
+                        return false;
+                    }
+                } else if (expectedTerm.isBlankNode() && actualTerm.isBlankNode()) {
+                    if (!expectedSide.colors.get(expectedTerm.getValue())
+                            .equals(actualSide.colors.get(actualTerm.getValue()))) {
+                        return false;
+                    }
+                } else if (!expectedTerm.equals(actualTerm)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Refines the colors of the blank nodes of both sides in lockstep, so that the colors of the two sides are
+     * comparable, until the partitions of the blank nodes are stable on both sides.
+     */
+    private static void refineColors(Side expectedSide, Side actualSide) {
+        int expectedClasses = 1;
+        int actualClasses = 1;
+        for (int round = 0; round < MAX_REFINEMENT_ROUNDS; round++) {
+            expectedSide.colors = expectedSide.refinedColors();
+            actualSide.colors = actualSide.refinedColors();
+            int newExpectedClasses = new HashSet<>(expectedSide.colors.values()).size();
+            int newActualClasses = new HashSet<>(actualSide.colors.values()).size();
+            if (newExpectedClasses == expectedClasses && newActualClasses == actualClasses) {
+                break;
+            }
+            expectedClasses = newExpectedClasses;
+            actualClasses = newActualClasses;
+        }
+    }
+
+    private static boolean hasBlankNode(Map<String, RdfTerm> solution) {
+        for (RdfTerm term : solution.values()) {
+            if (term.isBlankNode()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreads the bits of a hash
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Solutions with blank nodes of one of the result sets, with their variables sorted, and the colors of their blank
+     * nodes
+     */
+    private static class Side {
+
+        private final String[][] variables;
+        private final RdfTerm[][] terms;
+        private Map<String, Long> colors = new HashMap<>();
+
+        private Side(List<Map<String, RdfTerm>> solutions) {
+            this.variables = new String[solutions.size()][];
+            this.terms = new RdfTerm[solutions.size()][];
+            for (int i = 0; i < solutions.size(); i++) {
+                Map<String, RdfTerm> solution = solutions.get(i);
+                String[] sortedVariables = solution.keySet().toArray(new String[0]);
+                Arrays.sort(sortedVariables);
+                this.variables[i] = sortedVariables;
+                this.terms[i] = new RdfTerm[sortedVariables.length];
+                for (int j = 0; j < sortedVariables.length; j++) {
+                    RdfTerm term = solution.get(sortedVariables[j]);
+                    this.terms[i][j] = term;
+                    if (term.isBlankNode()) {
+                        this.colors.put(term.getValue(), 0L);
+                    }
+                }
+            }
+        }
+
+        private int size() {
+            return this.terms.length;
+        }
+
+        /**
+         * @param solution  Index of a solution
+         * @param selfLabel Label of the blank node whose color is computed, null to hash the solution itself
+         * @return the hash of the solution, its blank nodes replaced by their color
+         */
+        private long hash(int solution, String selfLabel) {
+            long hash = 17;
+            for (int j = 0; j < this.terms[solution].length; j++) {
+                RdfTerm term = this.terms[solution][j];
+                long termHash;
+                if (!term.isBlankNode()) {
+                    termHash = term.hash64();
+                } else if (term.getValue().equals(selfLabel)) {
+                    termHash = SELF;
+                } else {
+                    termHash = this.colors.get(term.getValue());
+                }
+                hash = mix(hash * 31 + RdfTerm.hash64(this.variables[solution][j]));
+                hash = mix(hash * 31 + termHash);
+            }
+            return hash;
+        }
+
+        /**
+         * @return the next colors of the blank nodes: the hash of their color and of the multiset of the hashes of the
+         * solutions they appear in, seen from them
+         */
+        private Map<String, Long> refinedColors() {
+            Map<String, Long> contributions = new HashMap<>();
+            for (int i = 0; i < size(); i++) {
+                HashSet<String> labels = new HashSet<>();
+                for (RdfTerm term : this.terms[i]) {
+                    if (term.isBlankNode() && labels.add(term.getValue())) {
+                        // Sum of spread hashes: a hash of the multiset, independent of the order of the solutions
+                        contributions.merge(term.getValue(), mix(hash(i, term.getValue())), Long::sum);
+                    }
+                }
+            }
+            Map<String, Long> refined = new HashMap<>();
+            for (Map.Entry<String, Long> color : this.colors.entrySet()) {
+                refined.put(color.getKey(), mix(color.getValue() * 31 + contributions.get(color.getKey())));
+            }
+            return refined;
+        }
+    }
+
+    /**
+     * Search of a bijection between the solutions of two sides, with a compatible renaming of their blank nodes.
+     * Each expected solution is only tried against the actual solutions of the same hash. The search is iterative, as
+     * its depth is the number of solutions.
+     */
+    private static class Matcher {
+
+        private final Side expected;
+        private final Side actual;
+        // Renaming of the expected blank nodes to the actual ones, and its inverse
+        private final Map<String, String> mapping = new HashMap<>();
+        private final Map<String, String> inverse = new HashMap<>();
+
+        private Matcher(Side expected, Side actual) {
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        private boolean match() {
+            int size = this.expected.size();
+            long[] expectedHashes = new long[size];
+            Map<Long, List<Integer>> actualPartitions = new HashMap<>();
+            Map<Long, Integer> expectedPartitionSizes = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                expectedHashes[i] = this.expected.hash(i, null);
+                expectedPartitionSizes.merge(expectedHashes[i], 1, Integer::sum);
+                actualPartitions.computeIfAbsent(this.actual.hash(i, null), hash -> new ArrayList<>()).add(i);
+            }
+            for (Map.Entry<Long, Integer> partition : expectedPartitionSizes.entrySet()) {
+                List<Integer> actualPartition = actualPartitions.get(partition.getKey());
+                if (actualPartition == null || actualPartition.size() != partition.getValue()) {
+                    return false;
+                }
+            }
+
+            // Solutions of the smallest partitions first, they constrain the renaming the most
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> expectedPartitionSizes.get(expectedHashes[i])));
+
+            boolean[] used = new boolean[size];
+            int[] chosen = new int[size];
+            int[] nextCandidate = new int[size];
+            List<List<String>> addedLabels = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                chosen[i] = -1;
+                addedLabels.add(new ArrayList<>());
+            }
+
+            int position = 0;
+            while (position >= 0 && position < size) {
+                List<Integer> candidates = actualPartitions.get(expectedHashes[order[position]]);
+                if (chosen[position] >= 0) {
+                    used[chosen[position]] = false;
+                    undo(addedLabels.get(position));
+                    chosen[position] = -1;
+                }
+                boolean matched = false;
+                while (nextCandidate[position] < candidates.size()) {
+                    int candidate = candidates.get(nextCandidate[position]++);
+                    if (used[candidate]) {
+                        continue;
+                    }
+                    if (extendMapping(order[position], candidate, addedLabels.get(position))) {
+                        used[candidate] = true;
+                        chosen[position] = candidate;
+                        matched = true;
+                        break;
+                    }
+                    undo(addedLabels.get(position));
+                }
+                if (matched) {
+                    position++;
+                } else {
+                    nextCandidate[position] = 0;
+                    position--;
+                }
+            }
+            return position == size;
+        }
+
+        /**
+         * Checks that two solutions are equal under the renaming, adding the missing pairs of blank nodes to it. Only
+         * blank nodes of the same color can be renamed into each other.
+         *
+         * @param addedLabels Receives the expected labels added to the renaming
+         * @return false if the solutions cannot be equal with an extension of the renaming
+         */
+        private boolean extendMapping(int expectedSolution, int actualSolution, List<String> addedLabels) {
+            String[] expectedVariables = this.expected.variables[expectedSolution];
+            if (!Arrays.equals(expectedVariables, this.actual.variables[actualSolution])) {
+                return false;
+            }
+            for (int j = 0; j < expectedVariables.length; j++) {
+                RdfTerm expectedTerm = this.expected.terms[expectedSolution][j];
+                RdfTerm actualTerm = this.actual.terms[actualSolution][j];
+                if (!expectedTerm.isBlankNode() || !actualTerm.isBlankNode()) {
+                    if (!expectedTerm.equals(actualTerm)) {
+                        return false;
+                    }
+                    continue;
+                }
+                String mapped = this.mapping.get(expectedTerm.getValue());
+                if (mapped == null) {
+                    if (this.inverse.containsKey(actualTerm.getValue())
+                            || !this.expected.colors.get(expectedTerm.getValue())
+                                    .equals(this.actual.colors.get(actualTerm.getValue()))) {
+                        return false;
+                    }
+                    this.mapping.put(expectedTerm.getValue(), actualTerm.getValue());
+                    this.inverse.put(actualTerm.getValue(), expectedTerm.getValue());
+                    addedLabels.add(expectedTerm.getValue());
+                } else if (!mapped.equals(actualTerm.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void undo(List<String> addedLabels) {
+            for (String label : addedLabels) {
+                this.inverse.remove(this.mapping.remove(label));
+            }
+            addedLabels.clear();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader of the SPARQL Query Results XML Format (".srx" files), see
+ * https://www.w3.org/TR/rdf-sparql-XMLres/. The document is read once with StAX, without building a DOM.
+ */
+public class SparqlXmlResultsReader {
+
+    public static final String SPARQL_RESULTS_NAMESPACE = "http://www.w3.org/2005/sparql-results#";
+
+    // Configured once, the creation of stream readers is thread-safe
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private SparqlXmlResultsReader() {
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * @param filePath Path to an XML file
+     * @return true if the root element of the file is the sparql element of the SPARQL results namespace
+     * @throws IOException If the file cannot be read or is not well-formed XML
+     */
+    public static boolean isSparqlResultsFile(Path filePath) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(filePath))) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                reader.nextTag();
+                return SPARQL_RESULTS_NAMESPACE.equals(reader.getNamespaceURI())
+                        && "sparql".equals(reader.getLocalName());
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not read the XML file " + filePath, e);
+        }
+    }
+
+    /**
+     * Reads a SPARQL results file.
+     *
+     * @param filePath Path to the file
+     * @return the result set of the file
+     * @throws IOException If the file cannot be read or is not a SPARQL results document
+     */
+    public static SparqlResultSet read(Path filePath) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(filePath))) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                return read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not read the SPARQL results file " + filePath, e);
+        }
+    }
+
+    private static SparqlResultSet read(XMLStreamReader reader) throws XMLStreamException {
+        List<String> variables = new ArrayList<>();
+        List<Map<String, RdfTerm>> solutions = new ArrayList<>();
+        Map<String, RdfTerm> solution = null;
+        String bindingName = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "variable":
+                        variables.add(reader.getAttributeValue(null, "name"));
+                        break;
+                    case "boolean":
+                        return SparqlResultSet.booleanResult(Boolean.parseBoolean(reader.getElementText().trim()));
+                    case "result":
+                        solution = new HashMap<>();
+                        break;
+                    case "binding":
+                        bindingName = reader.getAttributeValue(null, "name");
+                        break;
+                    case "uri":
+                        putBinding(solution, bindingName, RdfTerm.iri(reader.getElementText().trim()));
+                        break;
+                    case "bnode":
+                        putBinding(solution, bindingName, RdfTerm.blankNode(reader.getElementText().trim()));
+                        break;
+                    case "literal":
+                        String datatype = reader.getAttributeValue(null, "datatype");
+                        String language = reader.getAttributeValue(XMLConstants.XML_NS_URI, "lang");
+                        putBinding(solution, bindingName, RdfTerm.literal(reader.getElementText(), datatype, language));
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "result".equals(reader.getLocalName())) {
+                solutions.add(solution);
+                solution = null;
+            }
+        }
+        return SparqlResultSet.solutions(variables, solutions);
+    }
+
+    private static void putBinding(Map<String, RdfTerm> solution, String bindingName, RdfTerm value)
+            throws XMLStreamException {
+        if (solution == null || bindingName == null) {
+            throw new XMLStreamException("Value outside of a binding of a result: " + value);
+        }
+        solution.put(bindingName, value);
+    }
+}
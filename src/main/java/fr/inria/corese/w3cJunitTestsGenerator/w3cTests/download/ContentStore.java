@@ -0,0 +1,87 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.download;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Content-addressed store of the downloaded files. A file is stored once under the SHA-256 hash of its content, at
+ * root/aa/aabbcc..., whatever the number of URIs it was downloaded from.
+ * <p>
+ * The files used by the tests are copied from the store to their legacy path, so that the relative references between
+ * the files of a suite keep working and a missing file is restored without network access.
+ */
+public class ContentStore {
+
+    private final Path root;
+
+    /**
+     * @param root Root directory of the store
+     */
+    public ContentStore(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * @param sha256 Hash of a content, in hexadecimal format
+     * @return the path of the content in the store, that may not exist
+     */
+    public Path getBlobPath(String sha256) {
+        return this.root.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    /**
+     * @param sha256 Hash of a content, in hexadecimal format
+     * @return true if the content is in the store
+     */
+    public boolean contains(String sha256) {
+        return sha256 != null && Files.exists(getBlobPath(sha256));
+    }
+
+    /**
+     * Adds a content to the store if it is not already there. The content is written to a temporary file then moved,
+     * so a blob is never seen partially written.
+     *
+     * @param content Content to store
+     * @param sha256  Hash of the content, in hexadecimal format
+     * @return the path of the content in the store
+     * @throws IOException If an I/O error occurs
+     */
+    public Path store(byte[] content, String sha256) throws IOException {
+        Path blobPath = getBlobPath(sha256);
+        if (Files.exists(blobPath)) {
+            return blobPath;
+        }
+        Files.createDirectories(blobPath.getParent());
+        Path tempFile = Files.createTempFile(blobPath.getParent(), sha256, ".tmp");
+        try {
+            Files.write(tempFile, content);
+            try {
+                Files.move(tempFile, blobPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, blobPath, StandardCopyOption.REPLACE_EXISTING);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently by another download of the same content
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return blobPath;
+    }
+
+    /**
+     * Makes a file of the store available at another path, as a copy replacing the file at this path. The file is not
+     * linked to the store, so that the versioned test resources never depend on the store, which is not versioned.
+     *
+     * @param sha256     Hash of the content, in hexadecimal format
+     * @param targetPath Path where the content must be available
+     * @throws IOException If an I/O error occurs
+     */
+    public void materialize(String sha256, Path targetPath) throws IOException {
+        Files.createDirectories(targetPath.toAbsolutePath().getParent());
+        Files.copy(getBlobPath(sha256), targetPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
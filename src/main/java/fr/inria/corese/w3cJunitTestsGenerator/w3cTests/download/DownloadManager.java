@@ -0,0 +1,240 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.download;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads the remote files of the test suites with a shared asynchronous HTTP client.
+ * <p>
+ * Connections are pooled per host and reused between files, HTTP/2 is negotiated with the servers that support it so
+ * that the transfers to one host are multiplexed on a single connection. Requests to a host beyond the per-host limit
+ * wait for a connection of the pool. Failed transfers (I/O errors, 429 and 5xx responses) are retried with an
+ * exponential backoff.
+ * <p>
+ * Configuration, with system properties:
+ * <ul>
+ * <li>corese.w3c.download.maxPerHost: maximum number of connections to a host (default: 8)</li>
+ * <li>corese.w3c.download.maxTotal: maximum number of connections (default: 64)</li>
+ * <li>corese.w3c.download.retries: number of retries of a failed transfer (default: 3)</li>
+ * <li>corese.w3c.download.timeout: response timeout in seconds (default: 30)</li>
+ * </ul>
+ */
+public class DownloadManager implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownloadManager.class);
+
+    public static final String MAX_PER_HOST_PROPERTY = "corese.w3c.download.maxPerHost";
+    public static final String MAX_TOTAL_PROPERTY = "corese.w3c.download.maxTotal";
+    public static final String RETRIES_PROPERTY = "corese.w3c.download.retries";
+    public static final String TIMEOUT_PROPERTY = "corese.w3c.download.timeout";
+
+    private static final long INITIAL_BACKOFF_MILLIS = 500;
+
+    private static DownloadManager instance = null;
+
+    private final CloseableHttpAsyncClient client;
+    private final int maxRetries;
+
+    private DownloadManager(int maxPerHost, int maxTotal, int maxRetries, int timeoutSeconds) {
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(maxPerHost)
+                .setMaxConnTotal(maxTotal)
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setResponseTimeout(Timeout.ofSeconds(timeoutSeconds))
+                .build();
+        this.client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+        this.client.start();
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Returns the download manager shared by the generator, creating it on first use. Its client is closed when the
+     * JVM shuts down.
+     *
+     * @return the shared download manager
+     */
+    public static synchronized DownloadManager getInstance() {
+        if (instance == null) {
+            instance = new DownloadManager(
+                    Integer.getInteger(MAX_PER_HOST_PROPERTY, 8),
+                    Integer.getInteger(MAX_TOTAL_PROPERTY, 64),
+                    Integer.getInteger(RETRIES_PROPERTY, 3),
+                    Integer.getInteger(TIMEOUT_PROPERTY, 30));
+            DownloadManager shutdownInstance = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread(shutdownInstance::close, "download-manager-shutdown"));
+        }
+        return instance;
+    }
+
+    /**
+     * Downloads a file.
+     *
+     * @param fileUri URI of the file
+     * @return a future of the response, failed with an IOException if the file could not be transferred
+     */
+    public CompletableFuture<DownloadResponse> fetchAsync(URI fileUri) {
+        return fetchAsync(fileUri, Collections.emptyMap());
+    }
+
+    /**
+     * Downloads a file with additional request headers.
+     * Responses other than 2xx are not errors, it is up to the caller to check the status code of the response.
+     *
+     * @param fileUri        URI of the file
+     * @param requestHeaders Headers added to the request
+     * @return a future of the response, failed with an IOException if the file could not be transferred
+     */
+    public CompletableFuture<DownloadResponse> fetchAsync(URI fileUri, Map<String, String> requestHeaders) {
+        String scheme = fileUri.getScheme();
+        if (scheme == null || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+            return CompletableFuture.supplyAsync(() -> readUrl(fileUri));
+        }
+        return fetchWithRetries(fileUri, requestHeaders, 0);
+    }
+
+    /**
+     * Downloads a file and waits for the end of the transfer.
+     *
+     * @param fileUri URI of the file
+     * @return the response
+     * @throws IOException If the file could not be transferred
+     */
+    public DownloadResponse fetch(URI fileUri) throws IOException {
+        return join(fetchAsync(fileUri));
+    }
+
+    /**
+     * Waits for a future of this manager and rethrows its failure as an IOException
+     *
+     * @param future Future of a download
+     * @param <T>    Type of the result of the future
+     * @return the result of the future
+     * @throws IOException If the future failed
+     */
+    public static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a download", e);
+        }
+    }
+
+    private CompletableFuture<DownloadResponse> fetchWithRetries(URI fileUri, Map<String, String> requestHeaders,
+            int attempt) {
+        return execute(fileUri, requestHeaders).<CompletableFuture<DownloadResponse>>handle((response, error) -> {
+            boolean retryable = error != null
+                    || response.getStatusCode() == 429
+                    || response.getStatusCode() >= 500;
+            if (!retryable) {
+                return CompletableFuture.completedFuture(response);
+            }
+            if (attempt >= this.maxRetries) {
+                if (error != null) {
+                    return CompletableFuture.<DownloadResponse>failedFuture(toIOException(fileUri, error));
+                }
+                return CompletableFuture.completedFuture(response);
+            }
+            long delay = INITIAL_BACKOFF_MILLIS << attempt;
+            logger.warn("Download of {} failed ({}), retrying in {} ms", fileUri,
+                    error != null ? error.getMessage() : "HTTP " + response.getStatusCode(), delay);
+            return CompletableFuture.supplyAsync(() -> null,
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> fetchWithRetries(fileUri, requestHeaders, attempt + 1));
+        }).thenCompose(future -> future);
+    }
+
+    private CompletableFuture<DownloadResponse> execute(URI fileUri, Map<String, String> requestHeaders) {
+        SimpleRequestBuilder requestBuilder = SimpleRequestBuilder.get(fileUri);
+        for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+            requestBuilder.addHeader(header.getKey(), header.getValue());
+        }
+        SimpleHttpRequest request = requestBuilder.build();
+
+        CompletableFuture<DownloadResponse> future = new CompletableFuture<>();
+        this.client.execute(request, new FutureCallback<SimpleHttpResponse>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                Map<String, String> headers = new HashMap<>();
+                for (Header header : response.getHeaders()) {
+                    headers.put(header.getName().toLowerCase(Locale.ROOT), header.getValue());
+                }
+                byte[] body = response.getBodyBytes();
+                future.complete(new DownloadResponse(response.getCode(), body != null ? body : new byte[0], headers));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                future.completeExceptionally(new IOException("Download cancelled: " + fileUri));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Reads a file that is not served over HTTP, e.g. a file: URI
+     */
+    private static DownloadResponse readUrl(URI fileUri) {
+        try (InputStream in = fileUri.toURL().openStream()) {
+            return new DownloadResponse(200, in.readAllBytes(), Collections.emptyMap());
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static IOException toIOException(URI fileUri, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return new IOException("Could not download " + fileUri, cause);
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.client.close();
+        } catch (IOException e) {
+            logger.error("Could not close the download client", e);
+        }
+    }
+}
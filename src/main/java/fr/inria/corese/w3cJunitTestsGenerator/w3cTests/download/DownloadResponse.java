@@ -0,0 +1,45 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.download;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Response to a download: its HTTP status code, its body and the response headers useful to the file manager.
+ */
+public class DownloadResponse {
+
+    private final int statusCode;
+    private final byte[] body;
+    private final Map<String, String> headers;
+
+    /**
+     * @param statusCode HTTP status code of the response
+     * @param body       Content of the response, empty if there is none
+     * @param headers    Headers of the response, with lower case names
+     */
+    public DownloadResponse(int statusCode, byte[] body, Map<String, String> headers) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.headers = headers;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @param name Name of the header, case insensitive
+     * @return the value of the header, null if it is absent from the response
+     */
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+}
@@ -0,0 +1,30 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.download;
+
+/**
+ * Validators of the last download of a file: the ETag and Last-Modified headers sent by the server and the SHA-256
+ * hash of the content. The headers are null if the server did not send them.
+ */
+public class FileMetadata {
+
+    private final String etag;
+    private final String lastModified;
+    private final String sha256;
+
+    public FileMetadata(String etag, String lastModified, String sha256) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.sha256 = sha256;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+}
@@ -0,0 +1,119 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.download;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lockfile of the downloaded files: the {@link FileMetadata} of each file, keyed by its remote URI. The hash pins the
+ * version of the file used by the tests and locates its content in the {@link ContentStore}. The validators are used to
+ * revalidate the local copies with conditional requests instead of downloading them again.
+ * <p>
+ * Format: { "remote URI": { "etag": "...", "lastModified": "...", "sha256": "..." }, ... }
+ */
+public class FileMetadataStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileMetadataStore.class);
+
+    private final Path storePath;
+    private final ConcurrentHashMap<String, FileMetadata> metadata = new ConcurrentHashMap<>();
+    private volatile boolean modified = false;
+
+    private FileMetadataStore(Path storePath) {
+        this.storePath = storePath;
+    }
+
+    /**
+     * Reads a metadata file. A missing or unreadable file gives an empty store.
+     *
+     * @param storePath Path to the metadata file
+     * @return the metadata store backed by the file
+     */
+    public static FileMetadataStore load(Path storePath) {
+        FileMetadataStore store = new FileMetadataStore(storePath);
+        if (!Files.exists(storePath)) {
+            return store;
+        }
+        try {
+            JsonNode root = new ObjectMapper().readTree(storePath.toFile());
+            Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode entry = field.getValue();
+                store.metadata.put(field.getKey(), new FileMetadata(
+                        getText(entry, "etag"),
+                        getText(entry, "lastModified"),
+                        getText(entry, "sha256")));
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read the file metadata store " + storePath + ", files will be revalidated in full", e);
+        }
+        return store;
+    }
+
+    /**
+     * @param fileUri Remote URI of a file
+     * @return the metadata of the last download of the file, null if unknown
+     */
+    public FileMetadata get(URI fileUri) {
+        return this.metadata.get(fileUri.toString());
+    }
+
+    /**
+     * Records the metadata of a download
+     *
+     * @param fileUri      Remote URI of the file
+     * @param fileMetadata Metadata of the download
+     */
+    public void put(URI fileUri, FileMetadata fileMetadata) {
+        this.metadata.put(fileUri.toString(), fileMetadata);
+        this.modified = true;
+    }
+
+    /**
+     * Writes the store to its file if it changed since it was loaded or last saved. The entries are sorted by URI so
+     * that the file is stable under version control.
+     */
+    public synchronized void save() {
+        if (!this.modified) {
+            return;
+        }
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode root = mapper.createObjectNode();
+        for (Map.Entry<String, FileMetadata> entry : new TreeMap<>(this.metadata).entrySet()) {
+            ObjectNode node = root.putObject(entry.getKey());
+            FileMetadata fileMetadata = entry.getValue();
+            if (fileMetadata.getEtag() != null) {
+                node.put("etag", fileMetadata.getEtag());
+            }
+            if (fileMetadata.getLastModified() != null) {
+                node.put("lastModified", fileMetadata.getLastModified());
+            }
+            node.put("sha256", fileMetadata.getSha256());
+        }
+        try {
+            Files.createDirectories(this.storePath.toAbsolutePath().getParent());
+            mapper.writeValue(this.storePath.toFile(), root);
+            this.modified = false;
+        } catch (IOException e) {
+            logger.error("Could not write the file metadata store " + this.storePath, e);
+        }
+    }
+
+    private static String getText(JsonNode entry, String field) {
+        JsonNode value = entry.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+}
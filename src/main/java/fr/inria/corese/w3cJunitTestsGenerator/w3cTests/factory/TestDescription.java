@@ -0,0 +1,151 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Description of a test as declared in its manifest: the objects of the mf:, qt:, ut:, sht: and rdfc: properties used
+ * to create the test. Values that are absent from the manifest are null, or empty for the collections.
+ */
+public class TestDescription {
+
+    private final String testUri;
+
+    private String name;
+    private String comment;
+    private String action;
+    private String result;
+    private String query;
+    private String data;
+    private String dataGraph;
+    private String shapesGraph;
+    private String conformity;
+    private String hashAlgorithm;
+
+    // Update tests
+    private final Set<String> requestFiles = new HashSet<>();
+    private final Set<String> actionDataFiles = new HashSet<>();
+    private final Set<String> resultDataFiles = new HashSet<>();
+    private final Map<String, String> actionGraphs = new HashMap<>();
+    private final Map<String, String> resultGraphs = new HashMap<>();
+
+    /**
+     * @param testUri URI of the test resource in its manifest
+     */
+    public TestDescription(String testUri) {
+        this.testUri = testUri;
+    }
+
+    public String getTestUri() {
+        return testUri;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public String getDataGraph() {
+        return dataGraph;
+    }
+
+    public String getShapesGraph() {
+        return shapesGraph;
+    }
+
+    public String getConformity() {
+        return conformity;
+    }
+
+    public String getHashAlgorithm() {
+        return hashAlgorithm;
+    }
+
+    public Set<String> getRequestFiles() {
+        return requestFiles;
+    }
+
+    public Set<String> getActionDataFiles() {
+        return actionDataFiles;
+    }
+
+    public Set<String> getResultDataFiles() {
+        return resultDataFiles;
+    }
+
+    public Map<String, String> getActionGraphs() {
+        return actionGraphs;
+    }
+
+    public Map<String, String> getResultGraphs() {
+        return resultGraphs;
+    }
+
+    /**
+     * Sets the value of a property of the description if it has no value yet. The variable names are the ones of the
+     * detail query of {@link TestDescriptionIndex}.
+     *
+     * @param variable Name of the variable, without "?"
+     * @param value    Value of the variable, ignored if null
+     */
+    void setIfAbsent(String variable, String value) {
+        if (value == null) {
+            return;
+        }
+        switch (variable) {
+            case "name":
+                name = name == null ? value : name;
+                break;
+            case "comment":
+                comment = comment == null ? value : comment;
+                break;
+            case "action":
+                action = action == null ? value : action;
+                break;
+            case "result":
+                result = result == null ? value : result;
+                break;
+            case "query":
+                query = query == null ? value : query;
+                break;
+            case "data":
+                data = data == null ? value : data;
+                break;
+            case "dataGraph":
+                dataGraph = dataGraph == null ? value : dataGraph;
+                break;
+            case "shapesGraph":
+                shapesGraph = shapesGraph == null ? value : shapesGraph;
+                break;
+            case "conformity":
+                conformity = conformity == null ? value : conformity;
+                break;
+            case "hashAlgorithm":
+                hashAlgorithm = hashAlgorithm == null ? value : hashAlgorithm;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown test description variable: " + variable);
+        }
+    }
+}
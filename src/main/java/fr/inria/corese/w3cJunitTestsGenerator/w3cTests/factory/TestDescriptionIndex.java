@@ -0,0 +1,160 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory;
+
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.kgram.core.Mapping;
+import fr.inria.corese.core.kgram.core.Mappings;
+import fr.inria.corese.core.query.QueryProcess;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the descriptions of all the tests of a manifest graph.
+ * The descriptions are extracted with two queries over the whole graph, one for the common properties of the tests
+ * and one for the details of the update tests, instead of one query per test.
+ */
+public class TestDescriptionIndex {
+
+    private static final List<String> DETAIL_VARIABLES = List.of("name", "comment", "action", "result", "query", "data",
+            "dataGraph", "shapesGraph", "conformity", "hashAlgorithm");
+
+    private final Map<String, TestDescription> descriptions;
+
+    private TestDescriptionIndex(Map<String, TestDescription> descriptions) {
+        this.descriptions = descriptions;
+    }
+
+    /**
+     * Extracts the descriptions of all the tests of the graph of the query process.
+     *
+     * @param queryProcess Query process over the manifest graph
+     * @return the index of the test descriptions
+     * @throws EngineException If one of the extraction queries fails
+     */
+    public static TestDescriptionIndex build(QueryProcess queryProcess) throws EngineException {
+        Map<String, TestDescription> descriptions = new HashMap<>();
+
+        Mappings detailMappings = queryProcess.query(buildTestDetailQuery());
+        for (Mapping mapping : detailMappings) {
+            TestDescription description = getOrCreate(descriptions, mapping);
+            for (String variable : DETAIL_VARIABLES) {
+                description.setIfAbsent(variable, getLabel(mapping, variable));
+            }
+        }
+
+        Mappings updateMappings = queryProcess.query(buildUpdateTestDetailQuery());
+        for (Mapping mapping : updateMappings) {
+            TestDescription description = getOrCreate(descriptions, mapping);
+            description.getRequestFiles().add(getLabel(mapping, "request"));
+            if (getLabel(mapping, "actionDataFile") != null) {
+                description.getActionDataFiles().add(getLabel(mapping, "actionDataFile"));
+            }
+            if (getLabel(mapping, "resultDataFile") != null) {
+                description.getResultDataFiles().add(getLabel(mapping, "resultDataFile"));
+            }
+            if (getLabel(mapping, "actionGraphDataFile") != null && getLabel(mapping, "actionGraphName") != null) {
+                description.getActionGraphs().put(getLabel(mapping, "actionGraphName"),
+                        getLabel(mapping, "actionGraphDataFile"));
+            }
+            if (getLabel(mapping, "resultGraphDataFile") != null && getLabel(mapping, "resultGraphName") != null) {
+                description.getResultGraphs().put(getLabel(mapping, "resultGraphName"),
+                        getLabel(mapping, "resultGraphDataFile"));
+            }
+        }
+
+        return new TestDescriptionIndex(descriptions);
+    }
+
+    /**
+     * Returns the description of a test. Tests of manifests loaded from their local copy are identified by the local
+     * path of the manifest, so the local form of the URI is also looked up.
+     *
+     * @param testUri URI of the test
+     * @return the description of the test, null if the test has no mf:action
+     */
+    public TestDescription get(String testUri) {
+        TestDescription description = this.descriptions.get(testUri);
+        if (description == null) {
+            description = this.descriptions.get(TestFileManager.getLocalFilePath(URI.create(testUri)).toString());
+        }
+        return description;
+    }
+
+    private static TestDescription getOrCreate(Map<String, TestDescription> descriptions, Mapping mapping) {
+        return descriptions.computeIfAbsent(getLabel(mapping, "test"), TestDescription::new);
+    }
+
+    private static String getLabel(Mapping mapping, String variable) {
+        Node value = mapping.getValue("?" + variable);
+        return value != null ? value.getLabel() : null;
+    }
+
+    /**
+     * Builds a query to retrieve the details of every test of the manifest graph.
+     *
+     * @return The query to retrieve the test details.
+     */
+    private static String buildTestDetailQuery() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PREFIX mf: <http://www.w3.org/2001/sw/DataAccess/tests/test-manifest#>\n");
+        sb.append("PREFIX rdfc: <https://w3c.github.io/rdf-canon/tests/vocab#>\n");
+        sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
+        sb.append("PREFIX qt: <http://www.w3.org/2001/sw/DataAccess/tests/test-query#>\n");
+        sb.append("PREFIX sht: <http://www.w3.org/ns/shacl-test#>\n");
+        sb.append(
+                "SELECT DISTINCT ?test ?name ?comment ?action ?result ?query ?data ?dataGraph ?shapesGraph ?conformity ?hashAlgorithm WHERE {\n");
+        sb.append("    ?test mf:action ?action .\n");
+        sb.append("    OPTIONAL { ?test mf:name ?name . }\n");
+        sb.append("    OPTIONAL { ?action qt:query ?query . }\n");
+        sb.append("    OPTIONAL { ?action qt:data ?data . }\n");
+        sb.append("    OPTIONAL { ?action sht:dataGraph ?dataGraph ; \n");
+        sb.append("                       sht:shapesGraph ?shapesGraph . }\n");
+        sb.append("    OPTIONAL { ?test mf:result ?result } .\n");
+        sb.append("    OPTIONAL { ?test mf:result ?result .");
+        sb.append("        ?result sh:conforms ?conformity .");
+        sb.append("        FILTER(isBlank(?result))");
+        sb.append("    } .\n");
+        sb.append("    OPTIONAL { ?test rdfs:comment ?comment } .\n");
+        sb.append("    OPTIONAL { ?test rdfc:hashAlgorithm ?hashAlgorithm } .\n");
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Builds a query to retrieve the request and data files of every update test of the manifest graph.
+     *
+     * @return The query to retrieve the update test details.
+     */
+    private static String buildUpdateTestDetailQuery() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
+        sb.append("PREFIX mf: <http://www.w3.org/2001/sw/DataAccess/tests/test-manifest#>\n");
+        sb.append("PREFIX ut:    <http://www.w3.org/2009/sparql/tests/test-update#>\n");
+        sb.append(
+                "SELECT DISTINCT ?test ?request ?actionDataFile ?resultDataFile ?actionGraphDataFile ?actionGraphName ?resultGraphDataFile ?resultGraphName {\n");
+        sb.append("    ?test a mf:UpdateEvaluationTest ;\n");
+        sb.append("            mf:action ?action ;\n");
+        sb.append("            mf:result ?result .\n");
+        sb.append("    ?action ut:request ?request .\n");
+        sb.append("    OPTIONAL {\n");
+        sb.append("        ?action ut:data ?actionDataFile .\n");
+        sb.append("        ?result ut:data ?resultDataFile .\n");
+        sb.append("    }\n");
+        sb.append("    OPTIONAL {\n");
+        sb.append("        ?action ut:graphData ?actionGraph .\n");
+        sb.append("        ?actionGraph ut:graph ?actionGraphDataFile ;\n");
+        sb.append("                rdfs:label ?actionGraphName .\n");
+        sb.append("    }\n");
+        sb.append("    OPTIONAL {\n");
+        sb.append("        ?result ut:graphData ?resultGraph .\n");
+        sb.append("        ?resultGraph ut:graph ?resultGraphDataFile ;\n");
+        sb.append("                rdfs:label ?resultGraphName .\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,281 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory;
+
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestCreationException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Compact binary index of the tests of a suite, written by {@link TestIndexWriter} when the suite is generated, so that
+ * the test catalog can be read without parsing the manifests and querying them with the RDF stack.
+ * <p>
+ * The file is memory-mapped and its strings are decoded on first access. All the integers are big-endian.
+ * <pre>
+ * Header (32 bytes):
+ *   int   magic "W3CI"
+ *   short format version
+ *   short number of fields of a test record
+ *   int   number of strings
+ *   int   number of test records
+ *   int   number of ints of the list table
+ *   int   number of bytes of the string data
+ *   long  reserved
+ * Test records: per test, a string id for each scalar field and a (start, count) reference to the list table for
+ *   each collection field, see the FIELD_ constants. Absent values are -1.
+ * List table: string ids of the collections, the graphs of the update tests being (name, file) pairs.
+ * String offsets: number of strings + 1 ints, the start of each string in the string data, then its end.
+ * String data: the interned strings, in UTF-8.
+ * </pre>
+ */
+public class TestIndex {
+
+    static final int MAGIC = 0x57334349;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int NO_VALUE = -1;
+
+    // Scalar fields of a test record
+    static final int FIELD_TEST = 0;
+    static final int FIELD_TYPE = 1;
+    static final int FIELD_MANIFEST = 2;
+    static final int FIELD_NAME = 3;
+    static final int FIELD_COMMENT = 4;
+    static final int FIELD_ACTION = 5;
+    static final int FIELD_RESULT = 6;
+    static final int FIELD_QUERY = 7;
+    static final int FIELD_DATA = 8;
+    static final int FIELD_DATA_GRAPH = 9;
+    static final int FIELD_SHAPES_GRAPH = 10;
+    static final int FIELD_CONFORMITY = 11;
+    static final int FIELD_HASH_ALGORITHM = 12;
+    static final int SCALAR_FIELDS = 13;
+    // Collection fields of a test record, each taking two ints
+    static final int LIST_REQUEST_FILES = 0;
+    static final int LIST_ACTION_DATA_FILES = 1;
+    static final int LIST_RESULT_DATA_FILES = 2;
+    static final int LIST_ACTION_GRAPHS = 3;
+    static final int LIST_RESULT_GRAPHS = 4;
+    static final int LIST_FIELDS = 5;
+    static final int RECORD_FIELDS = SCALAR_FIELDS + 2 * LIST_FIELDS;
+    static final int RECORD_SIZE = RECORD_FIELDS * Integer.BYTES;
+
+    // Variables of TestDescription set from the scalar fields, indexed by field
+    private static final String[] DESCRIPTION_VARIABLES = { null, null, null, "name", "comment", "action", "result",
+            "query", "data", "dataGraph", "shapesGraph", "conformity", "hashAlgorithm" };
+
+    private final ByteBuffer buffer;
+    private final int testCount;
+    private final int recordsOffset;
+    private final int listsOffset;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+    private final AtomicReferenceArray<String> strings;
+
+    private TestIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a test index file");
+        }
+        if (buffer.getShort(4) != VERSION || buffer.getShort(6) != RECORD_FIELDS) {
+            throw new IOException("Unsupported test index version " + buffer.getShort(4) + ", expected " + VERSION);
+        }
+        int stringCount = buffer.getInt(8);
+        this.testCount = buffer.getInt(12);
+        int listLength = buffer.getInt(16);
+        int stringDataLength = buffer.getInt(20);
+        if (stringCount < 0 || this.testCount < 0 || listLength < 0 || stringDataLength < 0) {
+            throw new IOException("Corrupt test index file: negative size in the header");
+        }
+
+        this.recordsOffset = HEADER_SIZE;
+        // Computed as long so that huge sizes are rejected instead of overflowing
+        long listsOffset = this.recordsOffset + (long) this.testCount * RECORD_SIZE;
+        long stringOffsetsOffset = listsOffset + (long) listLength * Integer.BYTES;
+        long stringDataOffset = stringOffsetsOffset + ((long) stringCount + 1) * Integer.BYTES;
+        if (stringDataOffset + stringDataLength != buffer.limit()) {
+            throw new IOException("Truncated test index file");
+        }
+        this.listsOffset = (int) listsOffset;
+        this.stringOffsetsOffset = (int) stringOffsetsOffset;
+        this.stringDataOffset = (int) stringDataOffset;
+        this.strings = new AtomicReferenceArray<>(stringCount);
+        checkReferences(listLength, stringDataLength);
+    }
+
+    /**
+     * Checks that the string ids, list references and string offsets of the file are in range, so that a damaged
+     * index is rejected when it is opened instead of failing on the first access to a test.
+     */
+    private void checkReferences(int listLength, int stringDataLength) throws IOException {
+        for (int test = 0; test < this.testCount; test++) {
+            int record = this.recordsOffset + test * RECORD_SIZE;
+            for (int field = 0; field < SCALAR_FIELDS; field++) {
+                checkStringId(this.buffer.getInt(record + field * Integer.BYTES));
+            }
+            for (int list = 0; list < LIST_FIELDS; list++) {
+                int reference = record + (SCALAR_FIELDS + 2 * list) * Integer.BYTES;
+                int start = this.buffer.getInt(reference);
+                int count = this.buffer.getInt(reference + Integer.BYTES);
+                if (start < 0 || count < 0 || (long) start + count > listLength) {
+                    throw new IOException("Corrupt test index file: list (" + start + ", " + count + ") of test "
+                            + test + " is out of the list table");
+                }
+            }
+        }
+        for (int i = 0; i < listLength; i++) {
+            checkStringId(this.buffer.getInt(this.listsOffset + i * Integer.BYTES));
+        }
+        int previousEnd = 0;
+        for (int id = 0; id <= this.strings.length(); id++) {
+            int offset = this.buffer.getInt(this.stringOffsetsOffset + id * Integer.BYTES);
+            if (offset < previousEnd || offset > stringDataLength) {
+                throw new IOException("Corrupt test index file: string offset " + offset + " is out of range");
+            }
+            previousEnd = offset;
+        }
+    }
+
+    private void checkStringId(int id) throws IOException {
+        if (id != NO_VALUE && (id < 0 || id >= this.strings.length())) {
+            throw new IOException("Corrupt test index file: string id " + id + " is out of range");
+        }
+    }
+
+    /**
+     * Maps a test index file in memory.
+     *
+     * @param indexPath Path to the index file
+     * @return the index
+     * @throws IOException If the file cannot be read or is not a test index of the supported version
+     */
+    public static TestIndex open(Path indexPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            // The mapping stays valid once the channel is closed
+            return new TestIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param suiteName Name of a test suite
+     * @return the path of the index file of the suite
+     */
+    public static Path getIndexPath(String suiteName) {
+        return Path.of(TestFileManager.RESOURCE_PATH_STRING, "index", suiteName + ".w3cindex");
+    }
+
+    /**
+     * @return the number of tests of the index
+     */
+    public int size() {
+        return this.testCount;
+    }
+
+    /**
+     * @param test Position of a test in the index
+     * @return the URI of the test
+     */
+    public String getTestUri(int test) {
+        return getScalar(test, FIELD_TEST);
+    }
+
+    /**
+     * @param test Position of a test in the index
+     * @return the URI of the type of the test
+     */
+    public String getTypeUri(int test) {
+        return getScalar(test, FIELD_TYPE);
+    }
+
+    /**
+     * @param test Position of a test in the index
+     * @return the URI of the manifest declaring the test
+     */
+    public URI getManifestUri(int test) {
+        return URI.create(getScalar(test, FIELD_MANIFEST));
+    }
+
+    /**
+     * @param test Position of a test in the index
+     * @return the description of the test, as extracted from its manifest
+     */
+    public TestDescription getDescription(int test) {
+        TestDescription description = new TestDescription(getTestUri(test));
+        for (int field = FIELD_NAME; field < SCALAR_FIELDS; field++) {
+            description.setIfAbsent(DESCRIPTION_VARIABLES[field], getScalar(test, field));
+        }
+        description.getRequestFiles().addAll(getList(test, LIST_REQUEST_FILES));
+        description.getActionDataFiles().addAll(getList(test, LIST_ACTION_DATA_FILES));
+        description.getResultDataFiles().addAll(getList(test, LIST_RESULT_DATA_FILES));
+        putPairs(description.getActionGraphs(), getList(test, LIST_ACTION_GRAPHS));
+        putPairs(description.getResultGraphs(), getList(test, LIST_RESULT_GRAPHS));
+        return description;
+    }
+
+    /**
+     * Creates the tests of the index, in the order of the generated test file.
+     *
+     * @return the tests of the suite
+     * @throws TestCreationException If a test cannot be created
+     */
+    public List<IW3cTest> createTests() throws TestCreationException {
+        List<IW3cTest> tests = new ArrayList<>(this.testCount);
+        for (int test = 0; test < this.testCount; test++) {
+            tests.add(W3cTestFactory.createW3cTest(getTestUri(test), getTypeUri(test), getDescription(test),
+                    getManifestUri(test)));
+        }
+        return tests;
+    }
+
+    private String getScalar(int test, int field) {
+        return getString(this.buffer.getInt(this.recordsOffset + test * RECORD_SIZE + field * Integer.BYTES));
+    }
+
+    private List<String> getList(int test, int list) {
+        int reference = this.recordsOffset + test * RECORD_SIZE + (SCALAR_FIELDS + 2 * list) * Integer.BYTES;
+        int start = this.buffer.getInt(reference);
+        int count = this.buffer.getInt(reference + Integer.BYTES);
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(getString(this.buffer.getInt(this.listsOffset + (start + i) * Integer.BYTES)));
+        }
+        return values;
+    }
+
+    private static void putPairs(Map<String, String> map, List<String> pairs) {
+        for (int i = 0; i + 1 < pairs.size(); i += 2) {
+            map.put(pairs.get(i), pairs.get(i + 1));
+        }
+    }
+
+    /**
+     * @return the string of an id, decoded on first access, null for {@link #NO_VALUE}
+     */
+    private String getString(int id) {
+        if (id == NO_VALUE) {
+            return null;
+        }
+        String value = this.strings.get(id);
+        if (value == null) {
+            int start = this.buffer.getInt(this.stringOffsetsOffset + id * Integer.BYTES);
+            int end = this.buffer.getInt(this.stringOffsetsOffset + (id + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = this.buffer.duplicate();
+            view.position(this.stringDataOffset + start);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            this.strings.set(id, value);
+        }
+        return value;
+    }
+}
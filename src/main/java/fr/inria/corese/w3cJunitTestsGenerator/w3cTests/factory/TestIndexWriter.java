@@ -0,0 +1,144 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes the {@link TestIndex} of a suite from the tests found in its manifests. The strings are interned, so that the
+ * URIs shared by many tests, e.g. their types and manifests, are stored once.
+ */
+public class TestIndexWriter {
+
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<byte[]> strings = new ArrayList<>();
+    private final List<int[]> records = new ArrayList<>();
+    private final List<Integer> lists = new ArrayList<>();
+
+    /**
+     * Adds a test to the index. The tests are indexed in the order they are added.
+     *
+     * @param testUri     URI of the test
+     * @param typeUri     URI of the type of the test
+     * @param manifestUri URI of the manifest declaring the test
+     * @param description Description of the test extracted from its manifest
+     */
+    public void add(String testUri, String typeUri, URI manifestUri, TestDescription description) {
+        int[] record = new int[TestIndex.RECORD_FIELDS];
+        record[TestIndex.FIELD_TEST] = intern(testUri);
+        record[TestIndex.FIELD_TYPE] = intern(typeUri);
+        record[TestIndex.FIELD_MANIFEST] = intern(manifestUri.toString());
+        record[TestIndex.FIELD_NAME] = intern(description.getName());
+        record[TestIndex.FIELD_COMMENT] = intern(description.getComment());
+        record[TestIndex.FIELD_ACTION] = intern(description.getAction());
+        record[TestIndex.FIELD_RESULT] = intern(description.getResult());
+        record[TestIndex.FIELD_QUERY] = intern(description.getQuery());
+        record[TestIndex.FIELD_DATA] = intern(description.getData());
+        record[TestIndex.FIELD_DATA_GRAPH] = intern(description.getDataGraph());
+        record[TestIndex.FIELD_SHAPES_GRAPH] = intern(description.getShapesGraph());
+        record[TestIndex.FIELD_CONFORMITY] = intern(description.getConformity());
+        record[TestIndex.FIELD_HASH_ALGORITHM] = intern(description.getHashAlgorithm());
+        // The collections are sorted so that the index file does not depend on the iteration order of their sets
+        addList(record, TestIndex.LIST_REQUEST_FILES, sorted(description.getRequestFiles()));
+        addList(record, TestIndex.LIST_ACTION_DATA_FILES, sorted(description.getActionDataFiles()));
+        addList(record, TestIndex.LIST_RESULT_DATA_FILES, sorted(description.getResultDataFiles()));
+        addList(record, TestIndex.LIST_ACTION_GRAPHS, pairs(description.getActionGraphs()));
+        addList(record, TestIndex.LIST_RESULT_GRAPHS, pairs(description.getResultGraphs()));
+        this.records.add(record);
+    }
+
+    /**
+     * Writes the index file, replacing it atomically so that a reader never maps a partially written file.
+     *
+     * @param indexPath Path to the index file
+     * @throws IOException If the file cannot be written
+     */
+    public void write(Path indexPath) throws IOException {
+        int stringDataLength = 0;
+        for (byte[] string : this.strings) {
+            stringDataLength += string.length;
+        }
+        int size = TestIndex.HEADER_SIZE + this.records.size() * TestIndex.RECORD_SIZE
+                + this.lists.size() * Integer.BYTES + (this.strings.size() + 1) * Integer.BYTES + stringDataLength;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(TestIndex.MAGIC);
+        buffer.putShort(TestIndex.VERSION);
+        buffer.putShort((short) TestIndex.RECORD_FIELDS);
+        buffer.putInt(this.strings.size());
+        buffer.putInt(this.records.size());
+        buffer.putInt(this.lists.size());
+        buffer.putInt(stringDataLength);
+        buffer.putLong(0);
+        for (int[] record : this.records) {
+            for (int value : record) {
+                buffer.putInt(value);
+            }
+        }
+        for (int value : this.lists) {
+            buffer.putInt(value);
+        }
+        int offset = 0;
+        for (byte[] string : this.strings) {
+            buffer.putInt(offset);
+            offset += string.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] string : this.strings) {
+            buffer.put(string);
+        }
+
+        Path absolutePath = indexPath.toAbsolutePath();
+        Files.createDirectories(absolutePath.getParent());
+        Path temporaryPath = absolutePath.resolveSibling(absolutePath.getFileName() + ".tmp");
+        Files.write(temporaryPath, buffer.array());
+        Files.move(temporaryPath, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return TestIndex.NO_VALUE;
+        }
+        Integer id = this.stringIds.get(value);
+        if (id == null) {
+            id = this.strings.size();
+            this.strings.add(value.getBytes(StandardCharsets.UTF_8));
+            this.stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    private void addList(int[] record, int list, List<String> values) {
+        record[TestIndex.SCALAR_FIELDS + 2 * list] = this.lists.size();
+        record[TestIndex.SCALAR_FIELDS + 2 * list + 1] = values.size();
+        for (String value : values) {
+            this.lists.add(intern(value));
+        }
+    }
+
+    private static List<String> sorted(Collection<String> values) {
+        String[] sortedValues = values.toArray(new String[0]);
+        Arrays.sort(sortedValues);
+        return Arrays.asList(sortedValues);
+    }
+
+    private static List<String> pairs(Map<String, String> map) {
+        List<String> pairs = new ArrayList<>();
+        for (Map.Entry<String, String> entry : new TreeMap<>(map).entrySet()) {
+            pairs.add(entry.getKey());
+            pairs.add(entry.getValue());
+        }
+        return pairs;
+    }
+}
@@ -1,25 +1,16 @@
 package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory;
 
-import fr.inria.corese.core.kgram.core.Mapping;
-import fr.inria.corese.core.kgram.core.Mappings;
-import fr.inria.corese.core.print.TripleFormat;
 import fr.inria.corese.core.print.rdfc10.HashingUtility.HashAlgorithm;
-import fr.inria.corese.core.query.QueryProcess;
-import fr.inria.corese.core.sparql.exceptions.EngineException;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
-import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Factory for creating W3C tests.
@@ -106,33 +97,32 @@ public class W3cTestFactory {
     }
 
     /**
-     * Creates a W3C test from the specified test name, type URI, and query process.
+     * Returns the test type of a test type URI.
+     *
+     * @param typeUri The URI of the test type.
+     * @return The test type, or null if the type is not supported.
+     */
+    public static TestType getTestType(String typeUri) {
+        return typeMap.get(typeUri);
+    }
+
+    /**
+     * Creates a W3C test from the specified test name, type URI, and description.
      * 
-     * @param test         The name of the test.
-     * @param typeUri      The URI of the test type.
-     * @param queryProcess The query process.
-     * @param manifestUri  Manifest URI used to resolve the relative address of
-     *                     action and result files
+     * @param test        The name of the test.
+     * @param typeUri     The URI of the test type.
+     * @param description The description of the test extracted from its manifest,
+     *                    see {@link TestDescriptionIndex}.
+     * @param manifestUri Manifest URI used to resolve the relative address of
+     *                    action and result files
      * @return The W3C test.
      * @throws TestCreationException If an error occurs while creating the test.
      */
-    public static IW3cTest createW3cTest(String test, String typeUri, QueryProcess queryProcess, URI manifestUri)
+    public static IW3cTest createW3cTest(String test, String typeUri, TestDescription description, URI manifestUri)
             throws TestCreationException {
         logger.debug("createW3cTest {} {} {}", test, typeUri, manifestUri.toString());
-        String query = buildTestDetailQuery(test);
-        Mappings mappings = executeQuery(queryProcess, query)
-                .orElseThrow(() -> new TestCreationException("Failed to retrieve test details for: " + test));
-
-        if (mappings.size() == 0) {
-            logger.debug(query);
-            String debugQuery = "CONSTRUCT WHERE { ?s ?p ?o }";
-            try {
-                TripleFormat.create(queryProcess.query(debugQuery)).write("src/main/resources/debug.ttl");
-
-            } catch (EngineException | IOException e) {
-                logger.error("Error during debug dump", e);
-            }
-            throw new TestCreationException("No test description found in " + manifestUri.toString());
+        if (description == null) {
+            throw new TestCreationException("No test description found for " + test + " in " + manifestUri.toString());
         }
 
         TestType type = typeMap.get(typeUri);
@@ -140,14 +130,14 @@ public class W3cTestFactory {
             throw new TestCreationException("Unsupported test type URI: " + typeUri);
         }
 
-        String name = mappings.getValue("?name") != null ? mappings.getValue("?name").getLabel()
+        String name = description.getName() != null ? description.getName()
                 : TestUtils.extractLongTestName(test);
-        String comment = mappings.getValue("?comment") != null ? mappings.getValue("?comment").getLabel() : "";
+        String comment = description.getComment() != null ? description.getComment() : "";
 
         HashAlgorithm hashAlgorithm = null;
 
-        if (mappings.getValue("?hashAlgorithm") != null) {
-            switch (mappings.getValue("?hashAlgorithm").getLabel()) {
+        if (description.getHashAlgorithm() != null) {
+            switch (description.getHashAlgorithm()) {
                 case "SHA256":
                     hashAlgorithm = HashAlgorithm.SHA_256;
                     break;
@@ -156,7 +146,7 @@ public class W3cTestFactory {
                     break;
                 default:
                     throw new TestCreationException(
-                            "Unsupported hash algorithm: " + mappings.getValue("?hashAlgorithm").getLabel());
+                            "Unsupported hash algorithm: " + description.getHashAlgorithm());
             }
         }
 
@@ -166,61 +156,61 @@ public class W3cTestFactory {
                         test,
                         name,
                         comment,
-                        URI.create(mappings.getValue("?action").getLabel()),
-                        URI.create(mappings.getValue("?result").getLabel()),
+                        URI.create(description.getAction()),
+                        URI.create(description.getResult()),
                         hashAlgorithm);
             case RDFC10MapTest:
                 return new RDFC10MapTest(
                         test,
                         name,
                         comment,
-                        URI.create(mappings.getValue("?action").getLabel()),
-                        URI.create(mappings.getValue("?result").getLabel()),
+                        URI.create(description.getAction()),
+                        URI.create(description.getResult()),
                         hashAlgorithm);
             case RDFC10NegativeEvalTest:
                 return new RDFC10NegativeEvalTest(
                         test,
                         name,
                         comment,
-                        URI.create(mappings.getValue("?action").getLabel()));
+                        URI.create(description.getAction()));
             case RDF11NQuadsPositiveSyntaxTest:
-                URI actionPathRDF11NQuadsPositiveSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathRDF11NQuadsPositiveSyntaxTest = URI.create(description.getAction());
                 return new RDF11NQuadsPositiveSyntaxTest(
                         test,
                         name,
                         comment,
                         actionPathRDF11NQuadsPositiveSyntaxTest);
             case RDF11NQuadsNegativeSyntaxTest:
-                URI actionPathRDF11NQuadsNegativeSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathRDF11NQuadsNegativeSyntaxTest = URI.create(description.getAction());
                 return new RDF11NQuadsNegativeSyntaxTest(
                         test,
                         name,
                         comment,
                         actionPathRDF11NQuadsNegativeSyntaxTest);
             case RDF11NTriplesNegativeSyntaxTest:
-                URI actionPathRDF11NTriplesNegativeSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathRDF11NTriplesNegativeSyntaxTest = URI.create(description.getAction());
                 return new RDF11NTriplesNegativeSyntaxTest(
                         test,
                         name,
                         comment,
                         actionPathRDF11NTriplesNegativeSyntaxTest);
             case RDF11NTriplesPositiveSyntaxTest:
-                URI actionPathRDF11NTriplesPositiveSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathRDF11NTriplesPositiveSyntaxTest = URI.create(description.getAction());
                 return new RDF11NTriplesPositiveSyntaxTest(
                         test,
                         name,
                         comment,
                         actionPathRDF11NTriplesPositiveSyntaxTest);
             case RDF11XMLNegativeSyntaxTest:
-                URI actionPathRDF11XMLNegativeSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathRDF11XMLNegativeSyntaxTest = URI.create(description.getAction());
                 return new RDF11XMLNegativeSyntaxTest(
                         test,
                         name,
                         comment,
                         actionPathRDF11XMLNegativeSyntaxTest);
             case RDF11XMLEvalTest:
-                URI actionPathRDF11XMLEvalTest = URI.create(mappings.getValue("?action").getLabel());
-                URI resultPathRDF11XMLEvalTest = URI.create(mappings.getValue("?result").getLabel());
+                URI actionPathRDF11XMLEvalTest = URI.create(description.getAction());
+                URI resultPathRDF11XMLEvalTest = URI.create(description.getResult());
                 return new RDF11XMLEvalTest(
                         test,
                         name,
@@ -229,22 +219,22 @@ public class W3cTestFactory {
                         resultPathRDF11XMLEvalTest);
             case RDF11TrigNegativeEvalTest:
             case RDF11TrigNegativeSyntaxTest:
-                URI actionPathRDF11TrigNegativeSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathRDF11TrigNegativeSyntaxTest = URI.create(description.getAction());
                 return new RDF11TrigNegativeSyntaxTest(
                         test,
                         name,
                         comment,
                         actionPathRDF11TrigNegativeSyntaxTest);
             case RDF11TrigPositiveSyntaxTest:
-                URI actionPathRDF11TrigPositiveSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathRDF11TrigPositiveSyntaxTest = URI.create(description.getAction());
                 return new RDF11TrigPositiveSyntaxTest(
                         test,
                         name,
                         comment,
                         actionPathRDF11TrigPositiveSyntaxTest);
             case RDF11TrigEvalTest:
-                URI actionPathRDF11TrigEvalTest = URI.create(mappings.getValue("?action").getLabel());
-                URI resultPathRDF11TrigEvalTest = URI.create(mappings.getValue("?result").getLabel());
+                URI actionPathRDF11TrigEvalTest = URI.create(description.getAction());
+                URI resultPathRDF11TrigEvalTest = URI.create(description.getResult());
                 return new RDF11TrigEvalTest(
                         test,
                         name,
@@ -253,22 +243,22 @@ public class W3cTestFactory {
                         resultPathRDF11TrigEvalTest);
             case RDF11TurtleNegativeEvalTest:
             case RDF11TurtleNegativeSyntaxTest: // There are no functional differences between syntax and eval tests
-                URI actionPathRDF11NTurtleNegativeSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathRDF11NTurtleNegativeSyntaxTest = URI.create(description.getAction());
                 return new RDF11TurtleNegativeSyntaxTest(
                         test,
                         name,
                         comment,
                         actionPathRDF11NTurtleNegativeSyntaxTest);
             case RDF11TurtlePositiveSyntaxTest:
-                URI actionPathRDF11NTurtlePositiveSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathRDF11NTurtlePositiveSyntaxTest = URI.create(description.getAction());
                 return new RDF11TurtlePositiveSyntaxTest(
                         test,
                         name,
                         comment,
                         actionPathRDF11NTurtlePositiveSyntaxTest);
             case RDF11TurtleEvalTest:
-                URI actionPathRDF11TurtleEvalTest = URI.create(mappings.getValue("?action").getLabel());
-                URI resultPathRDF11TurtleEvalTest = URI.create(mappings.getValue("?result").getLabel());
+                URI actionPathRDF11TurtleEvalTest = URI.create(description.getAction());
+                URI resultPathRDF11TurtleEvalTest = URI.create(description.getResult());
                 return new RDF11TurtleEvalTest(
                         test,
                         name,
@@ -278,7 +268,7 @@ public class W3cTestFactory {
             case SPARQL10NegativeSyntaxTest:
             case SPARQL11NegativeSyntaxTest:
             case SPARQL11UpdateNegativeSyntaxTest:
-                URI actionPathSPARQLNegativeSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathSPARQLNegativeSyntaxTest = URI.create(description.getAction());
                 return new SPARQLNegativeSyntaxTest(
                         test,
                         name,
@@ -287,7 +277,7 @@ public class W3cTestFactory {
             case SPARQL10PositiveSyntaxTest:
             case SPARQL11PositiveSyntaxTest:
             case SPARQL11UpdatePositiveSyntaxTest:
-                URI actionPathSPARQLPositiveSyntaxTest = URI.create(mappings.getValue("?action").getLabel());
+                URI actionPathSPARQLPositiveSyntaxTest = URI.create(description.getAction());
                 return new SPARQLPositiveSyntaxTest(
                         test,
                         name,
@@ -295,10 +285,10 @@ public class W3cTestFactory {
                         actionPathSPARQLPositiveSyntaxTest);
             case SPARQL11CSVResultFormatTest:
             case SPARQLQueryEvaluationTest:
-                URI resultPathSPARQLQueryEvaluationTest = URI.create(mappings.getValue("?result").getLabel());
-                URI queryPathSPARQLQueryEvaluationTest = URI.create(mappings.getValue("?query").getLabel());
-                if (mappings.getValue("?data") != null) {
-                    URI dataPathSPARQLQueryEvaluationTest = URI.create(mappings.getValue("?data").getLabel());
+                URI resultPathSPARQLQueryEvaluationTest = URI.create(description.getResult());
+                URI queryPathSPARQLQueryEvaluationTest = URI.create(description.getQuery());
+                if (description.getData() != null) {
+                    URI dataPathSPARQLQueryEvaluationTest = URI.create(description.getData());
                     return new SPARQLQueryEvaluationTest(
                             test,
                             name,
@@ -315,62 +305,21 @@ public class W3cTestFactory {
                             queryPathSPARQLQueryEvaluationTest);
                 }
             case SHACLValidateTest:
-                URI dataGraphUri = URI.create(mappings.getValue("?dataGraph").getLabel());
-                URI shapeGraphUri = URI.create(mappings.getValue("?shapesGraph").getLabel());
-                if (mappings.getValue("?conformity") != null) {
-                    String referenceConformity = mappings.getValue("?conformity").getLabel();
-                    return new SHACLValidateTest(
-                            manifestUri,
-                            test,
-                            name,
-                            comment,
-                            dataGraphUri,
-                            shapeGraphUri,
-                            referenceConformity);
-                } else {
-                    return new SHACLValidateTest(
-                            manifestUri,
-                            test,
-                            name,
-                            comment,
-                            dataGraphUri,
-                            shapeGraphUri);
-                }
+                URI dataGraphUri = URI.create(description.getDataGraph());
+                URI shapeGraphUri = URI.create(description.getShapesGraph());
+                return new SHACLValidateTest(
+                        manifestUri,
+                        test,
+                        name,
+                        comment,
+                        dataGraphUri,
+                        shapeGraphUri);
             case SPARQLUpdateEvaluationTest:
-                String updateQueryTestDetailString = buildUpdateTestDetailQuery(test);
-                Mappings updateQueryTestMappings = executeQuery(queryProcess, updateQueryTestDetailString)
-                        .orElseThrow();
-
-                HashSet<String> actionDataFileList = new HashSet<>();
-                HashSet<String> requestFileList = new HashSet<>();
-                HashMap<String, String> actionDataGraphMap = new HashMap<>();
-                HashSet<String> resultDataFileList = new HashSet<>();
-                HashMap<String, String> resultDataGraphMap = new HashMap<>();
-                for (Mapping mapping : updateQueryTestMappings.getMappingList()) {
-                    String requestFile = mapping.getValue("?request").getLabel();
-                    requestFileList.add(requestFile);
-                    if (mapping.getValue("?actionDataFile") != null) {
-                        String actionDataFile = mapping.getValue("?actionDataFile").getLabel();
-                        actionDataFileList.add(actionDataFile);
-                    }
-                    if (mapping.getValue("?resultDataFile") != null) {
-                        String resultDataFile = mapping.getValue("?resultDataFile").getLabel();
-                        resultDataFileList.add(resultDataFile);
-                    }
-
-                    if ((mapping.getValue("?actionGraphDataFile") != null)
-                            && (mapping.getValue("?actionGraphName") != null)) {
-                        String actionGraphName = mapping.getValue("?actionGraphName").getLabel();
-                        String actionGraphDataFile = mapping.getValue("?actionGraphDataFile").getLabel();
-                        actionDataGraphMap.put(actionGraphName, actionGraphDataFile);
-                    }
-                    if ((mapping.getValue("?resultGraphDataFile") != null)
-                            && (mapping.getValue("?resultGraphName") != null)) {
-                        String resultGraphDataFile = mapping.getValue("?resultGraphDataFile").getLabel();
-                        String resultGraphName = mapping.getValue("?resultGraphName").getLabel();
-                        resultDataGraphMap.put(resultGraphName, resultGraphDataFile);
-                    }
-                }
+                HashSet<String> requestFileList = new HashSet<>(description.getRequestFiles());
+                HashSet<String> actionDataFileList = new HashSet<>(description.getActionDataFiles());
+                HashSet<String> resultDataFileList = new HashSet<>(description.getResultDataFiles());
+                HashMap<String, String> actionDataGraphMap = new HashMap<>(description.getActionGraphs());
+                HashMap<String, String> resultDataGraphMap = new HashMap<>(description.getResultGraphs());
                 if (actionDataFileList.isEmpty() && resultDataFileList.isEmpty()) {
                     return new SPARQLUpdateEvaluationTest(
                             manifestUri,
@@ -406,87 +355,6 @@ public class W3cTestFactory {
         }
     }
 
-    /**
-     * Builds a query to retrieve the test details from the manifest file.
-     * 
-     * @return The query to retrieve the test details.
-     */
-    private static String buildTestDetailQuery(String test) {
-        Path localTestFilePath = TestFileManager.getLocalFilePath(URI.create(test));
-        StringBuilder sb = new StringBuilder();
-        sb.append("PREFIX mf: <http://www.w3.org/2001/sw/DataAccess/tests/test-manifest#>\n");
-        sb.append("PREFIX rdfc: <https://w3c.github.io/rdf-canon/tests/vocab#>\n");
-        sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
-        sb.append("PREFIX qt: <http://www.w3.org/2001/sw/DataAccess/tests/test-query#>\n");
-        sb.append("PREFIX sht: <http://www.w3.org/ns/shacl-test#>\n");
-        sb.append(
-                "SELECT DISTINCT ?name ?comment ?action ?result ?query ?data ?dataGraph ?shapesGraph ?conformity ?hashAlgorithm WHERE {\n");
-        sb.append("    ?test mf:action ?action .\n");
-        sb.append("    OPTIONAL { ?test mf:name ?name . }\n");
-        sb.append("    OPTIONAL { ?action qt:query ?query . }\n");
-        sb.append("    OPTIONAL { ?action qt:data ?data . }\n");
-        sb.append("    OPTIONAL { ?action sht:dataGraph ?dataGraph ; \n");
-        sb.append("                       sht:shapesGraph ?shapesGraph . }\n");
-        sb.append("    OPTIONAL { ?test mf:result ?result } .\n");
-        sb.append("    OPTIONAL { ?test mf:result ?result .");
-        sb.append("        ?result sh:conforms ?conformity .");
-        sb.append("        FILTER(isBlank(?result))");
-        sb.append("    } .\n");
-        sb.append("    OPTIONAL { ?test rdfs:comment ?comment } .\n");
-        sb.append("    OPTIONAL { ?test rdfc:hashAlgorithm ?hashAlgorithm } .\n");
-        sb.append("    VALUES ?test { <").append(test).append("> <").append(localTestFilePath).append("> }\n");
-        sb.append("}");
-        return sb.toString();
-    }
-
-    private static String buildUpdateTestDetailQuery(String test) {
-        Path localTestFilePath = TestFileManager.getLocalFilePath(URI.create(test));
-        StringBuilder sb = new StringBuilder();
-        sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
-        sb.append("PREFIX mf: <http://www.w3.org/2001/sw/DataAccess/tests/test-manifest#>\n");
-        sb.append("PREFIX ut:    <http://www.w3.org/2009/sparql/tests/test-update#>\n");
-        sb.append(
-                "SELECT DISTINCT ?request ?actionDataFile ?resultDataFile ?actionGraphDataFile ?actionGraphName ?resultGraphDataFile ?resultGraphName {\n");
-        sb.append("    ?test a mf:UpdateEvaluationTest ;\n");
-        sb.append("            mf:action ?action ;\n");
-        sb.append("            mf:result ?result .\n");
-        sb.append("    ?action ut:request ?request .\n");
-        sb.append("    OPTIONAL {\n");
-        sb.append("        ?action ut:data ?actionDataFile .\n");
-        sb.append("        ?result ut:data ?resultDataFile .\n");
-        sb.append("    }\n");
-        sb.append("    OPTIONAL {\n");
-        sb.append("        ?action ut:graphData ?actionGraph .\n");
-        sb.append("        ?actionGraph ut:graph ?actionGraphDataFile ;\n");
-        sb.append("                rdfs:label ?actionGraphName .\n");
-        sb.append("    }\n");
-        sb.append("    OPTIONAL {\n");
-        sb.append("        ?result ut:graphData ?resultGraph .\n");
-        sb.append("        ?resultGraph ut:graph ?resultGraphDataFile ;\n");
-        sb.append("                rdfs:label ?resultGraphName .\n");
-        sb.append("    }\n");
-        sb.append("    VALUES ?test { <").append(test).append("> <").append(localTestFilePath).append("> }\n");
-        sb.append("}\n");
-        return sb.toString();
-    }
-
-    /**
-     * Executes the specified query using the specified query process.
-     * 
-     * @param queryProcess The query process.
-     * @param query        The query to execute.
-     * @return The mappings resulting from the query execution, or an empty optional
-     *         if an error occurs.
-     */
-    private static Optional<Mappings> executeQuery(QueryProcess queryProcess, String query) {
-        try {
-            return Optional.ofNullable(queryProcess.query(query));
-        } catch (EngineException e) {
-            logger.error("Error executing query.", e);
-            return Optional.empty();
-        }
-    }
-
     /**
      * Exception thrown when an error occurs while creating a test.
      */
@@ -1,14 +1,23 @@
 package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations;
 
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.logic.Entailment;
+import fr.inria.corese.core.print.CanonicalRdf10Format;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestAssertions;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandResult;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandRunners;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.Set;
 
@@ -18,6 +27,7 @@ import java.util.Set;
 public abstract class AbstractRDFEvalTest implements IW3cTest {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractRDFEvalTest.class);
+    private static boolean directApiModeFlag = false; // Indicates if the generated tests call the Corese API directly instead of corese-command
 
     private String test;
     private String name;
@@ -49,25 +59,32 @@ public abstract class AbstractRDFEvalTest implements IW3cTest {
         this.resultFormat = resultFormat;
 
         try {
-            TestFileManager.loadFile(actionUri);
-            TestFileManager.loadFile(resultUri);
+            TestFileManager.loadFiles(actionUri, resultUri);
         } catch (IOException | NoSuchAlgorithmException e) {
             logger.error("Error during test file loading", e);
         }
     }
 
+    /**
+     * In direct API mode, the tests parse the action and result files into graphs with Load and compare their
+     * canonical forms as strings, without calling corese-command nor writing intermediate files.
+     *
+     * @param directApiMode true to generate tests calling the Corese API directly
+     */
+    public static void setDirectApiMode(boolean directApiMode) {
+        directApiModeFlag = directApiMode;
+    }
+
+    public static boolean isInDirectApiMode() {
+        return directApiModeFlag;
+    }
+
     @Override
     public Set<String> getImports() {
-        return Set.of("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager",
-                "fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils",
+        return Set.of("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.AbstractRDFEvalTest",
                 "fr.inria.corese.core.load.LoadException",
                 "java.io.IOException",
-                "java.net.URISyntaxException",
-                "java.net.URI",
-                "java.nio.file.Path",
-                "java.security.NoSuchAlgorithmException",
-                "static org.junit.Assert.assertEquals",
-                "static org.junit.Assert.assertTrue");
+                "java.net.URI");
     }
 
     @Override
@@ -81,57 +98,105 @@ public abstract class AbstractRDFEvalTest implements IW3cTest {
             sb.append("    // ").append(sanitizedComment).append("\n");
         }
         sb.append("    @Test\n");
-        sb.append("    public void ").append(TestUtils.sanitizeTestName(test));
-        sb.append("() throws IOException, NoSuchAlgorithmException, InterruptedException {\n");
-
-        // Test body
-        sb.append("        // Load action file\n");
-        sb.append("        Path localActionFile = TestFileManager.getLocalFilePath(URI.create(\"").append(this.actionFile.toString()).append("\"));\n");
-        sb.append("        Path localResultFile = TestFileManager.getLocalFilePath(URI.create(\"").append(this.resultFile.toString()).append("\"));\n");
-        sb.append("        \n");
-        sb.append("        Path convertedActionFilePath = Path.of(\"").append(Paths.get(TestFileManager.getFileName(this.actionFile))).append("\");\n");
-        sb.append("        Path canonConvertedActionFilePath = Path.of(\"").append(Paths.get(TestFileManager.getFileName(this.actionFile))).append("\");\n");
-        sb.append("        Path canonConvertedResultFilePath = Path.of(\"").append(Paths.get(TestFileManager.getFileName(this.resultFile))).append("\");\n");
-        sb.append("\n");
-        sb.append("        // Converting the action file\n");
-        sb.append("        Process actionConversionCommand = new ProcessBuilder().inheritIO().command(\n");
-        sb.append("                \"java\", \"-jar\", \"src/test/resources/corese-command.jar\", \"convert\",\n"); // FIXME To be replaced by the latest corese-command release
-        sb.append("                \"-i\", \"").append(this.actionFile).append("\",\n");
-        sb.append("                \"-if\", \"").append(this.actionFormat).append("\",\n");
-        sb.append("                \"-of\", \"").append(this.resultFormat).append("\",\n");
-        sb.append("                \"-o\", convertedActionFilePath.toString())\n");
-        sb.append("            .start();\n");
-        sb.append("        int actionConversionExitCode = actionConversionCommand.waitFor();\n");
-        sb.append("\n");
-        sb.append("        // Canonicalization of the given result file\n");
-        sb.append("        Process resultCanonicalizationCommand = new ProcessBuilder().inheritIO().command(\n");
-        sb.append("                \"java\", \"-jar\", \"src/test/resources/corese-command.jar\", \"canonicalize\",\n"); // FIXME To be replaced by the latest corese-command release
-        sb.append("                \"-i\", \"").append(this.resultFile).append("\",\n");
-        sb.append("                \"-if\", \"").append(this.resultFormat).append("\",\n");
-        sb.append("                \"-o\", canonConvertedResultFilePath.toString())\n");
-        sb.append("            .start();\n");
-        sb.append("        int resultCanonicalizationExitCode = resultCanonicalizationCommand.waitFor();\n");
-        sb.append("\n");
-        sb.append("        // Canonicalization of the conversion result file\n");
-        sb.append("        Process convertedActionCanonicalizationCommand = new ProcessBuilder().inheritIO().command(\n");
-        sb.append("                \"java\", \"-jar\", \"src/test/resources/corese-command.jar\", \"canonicalize\",\n"); // FIXME To be replaced by the latest corese-command release
-        sb.append("                \"-i\", convertedActionFilePath.toString(),\n");
-        sb.append("                \"-if\", \"").append(this.resultFormat).append("\",\n");
-        sb.append("                \"-o\", canonConvertedActionFilePath.toString())\n");
-        sb.append("            .start();\n");
-        sb.append("        int convertedActionCanonicalizationExitCode = convertedActionCanonicalizationCommand.waitFor();\n");
-        sb.append("\n");
-        sb.append("        // Comparison of the content of the file\n");
-        sb.append("        boolean comparisonResult = TestUtils.compareFilesLineByLine(canonConvertedActionFilePath, canonConvertedResultFilePath);\n");
-        sb.append("\n");
-        sb.append("        assertEquals(0, resultCanonicalizationExitCode);\n");
-        sb.append("        assertEquals(0, actionConversionExitCode);\n");
-        sb.append("        assertEquals(0, convertedActionCanonicalizationExitCode);\n");
-        sb.append("        assertTrue(comparisonResult);\n");
+        sb.append("    public void ").append(getMethodName());
+        sb.append("() throws IOException, InterruptedException, LoadException {\n");
+
+        // Test body, the mode of the generation being kept by the test
+        sb.append("        AbstractRDFEvalTest.evaluate(\"").append(getMethodName()).append("\",\n");
+        sb.append("                URI.create(\"").append(this.actionFile).append("\"),\n");
+        sb.append("                URI.create(\"").append(this.resultFile).append("\"),\n");
+        sb.append("                \"").append(this.actionFormat).append("\", \"").append(this.resultFormat).append("\", ")
+                .append(isInDirectApiMode()).append(");\n");
 
         // Footer of the test
         sb.append("    }\n");
 
         return sb.toString();
     }
+
+    @Override
+    public String getMethodName() {
+        return TestUtils.sanitizeTestName(test);
+    }
+
+    @Override
+    public void execute() throws IOException, InterruptedException, LoadException {
+        evaluate(getMethodName(), this.actionFile, this.resultFile, this.actionFormat, this.resultFormat,
+                isInDirectApiMode());
+    }
+
+    /**
+     * Checks that the conversion of the action file to the format of the result file has the canonical form of the
+     * result file. Run by the generated tests and by {@link #execute()}.
+     * <p>
+     * With corese-command, the action file is converted, then the converted file and the result file are canonicalized
+     * in files prefixed by the name of the test, so that tests running in parallel do not share them, and compared line
+     * by line. In direct API mode, the local copies of the two files are loaded in memory and their canonical RDF 1.0
+     * forms are compared as strings.
+     *
+     * @param testName     Name of the test, prefixing its output files
+     * @param actionFile   URI of the action file
+     * @param resultFile   URI of the result file
+     * @param actionFormat Syntax of the action file, as accepted by the "-if" argument of corese-command
+     * @param resultFormat Syntax of the result file, as accepted by the "-of" argument of corese-command
+     * @param directApi    true to call the Corese API directly instead of corese-command
+     * @throws IOException          If corese-command cannot be run or a file cannot be read
+     * @throws InterruptedException If the thread is interrupted while waiting for corese-command
+     * @throws LoadException        If a file cannot be parsed in direct API mode
+     */
+    public static void evaluate(String testName, URI actionFile, URI resultFile, String actionFormat,
+            String resultFormat, boolean directApi) throws IOException, InterruptedException, LoadException {
+        if (directApi) {
+            TestMetrics.phase("parse");
+            Graph actionGraph = Graph.create();
+            parseLocalCopy(actionGraph, actionFile);
+            Graph resultGraph = Graph.create();
+            parseLocalCopy(resultGraph, resultFile);
+            TestMetrics.phase("canonicalize");
+            String canonicalAction = CanonicalRdf10Format.create(actionGraph).toString();
+            String canonicalResult = CanonicalRdf10Format.create(resultGraph).toString();
+            TestMetrics.phase("compare");
+            TestAssertions.assertEquals("Canonical form of the action graph", canonicalResult, canonicalAction);
+            return;
+        }
+
+        String outputPrefix = testName + "_";
+        Path convertedActionFilePath = Path.of(outputPrefix + TestFileManager.getFileName(actionFile));
+        // The converted action file is canonicalized in place
+        Path canonConvertedActionFilePath = convertedActionFilePath;
+        Path canonConvertedResultFilePath = Path.of(outputPrefix + TestFileManager.getFileName(resultFile));
+
+        TestMetrics.phase("parse");
+        CommandResult actionConversionResult = CommandRunners.getDefault().run("convert",
+                "-i", actionFile.toString(),
+                "-if", actionFormat,
+                "-of", resultFormat,
+                "-o", convertedActionFilePath.toString());
+        TestMetrics.phase("canonicalize");
+        CommandResult resultCanonicalizationResult = CommandRunners.getDefault().run("canonicalize",
+                "-i", resultFile.toString(),
+                "-if", resultFormat,
+                "-o", canonConvertedResultFilePath.toString());
+        CommandResult convertedActionCanonicalizationResult = CommandRunners.getDefault().run("canonicalize",
+                "-i", convertedActionFilePath.toString(),
+                "-if", resultFormat,
+                "-o", canonConvertedActionFilePath.toString());
+        TestMetrics.phase("compare");
+        boolean comparisonResult = TestUtils.compareFilesLineByLine(canonConvertedActionFilePath, canonConvertedResultFilePath);
+
+        TestAssertions.assertSuccess("canonicalize", resultCanonicalizationResult.getExitCode());
+        TestAssertions.assertSuccess("convert", actionConversionResult.getExitCode());
+        TestAssertions.assertSuccess("canonicalize", convertedActionCanonicalizationResult.getExitCode());
+        TestAssertions.assertTrue("The canonical forms of the converted action and of the result differ", comparisonResult);
+    }
+
+    /**
+     * Parses the local copy of a file of the suite in the default graph, its relative IRIs being resolved against its
+     * remote URI as in the suite. Named after their file, the triples of the action and result files would differ by
+     * their graph.
+     */
+    private static void parseLocalCopy(Graph graph, URI fileUri) throws LoadException {
+        Load.create(graph).parse(TestFileManager.getLocalFilePath(fileUri).toString(), Entailment.DEFAULT,
+                fileUri.toString(), Load.UNDEF_FORMAT);
+    }
 }
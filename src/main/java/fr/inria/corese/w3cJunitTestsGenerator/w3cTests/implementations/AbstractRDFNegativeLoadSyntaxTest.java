@@ -1,13 +1,18 @@
 package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations;
 
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestAssertions;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandResult;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandRunners;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.Set;
 
@@ -51,6 +56,8 @@ public abstract class AbstractRDFNegativeLoadSyntaxTest implements IW3cTest {
     @Override
     public Set<String> getImports() {
         return Set.of("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager",
+                "fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandResult",
+                "fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandRunners",
                 "fr.inria.corese.core.load.LoadException",
                 "java.io.IOException",
                 "java.net.URISyntaxException",
@@ -77,18 +84,34 @@ public abstract class AbstractRDFNegativeLoadSyntaxTest implements IW3cTest {
         // Test body
         sb.append("        // Load action file\n");
         sb.append("        Path localActionFile = TestFileManager.getLocalFilePath(URI.create(\"").append(this.actionFile.toString()).append("\"));\n");
-        sb.append("        Process command = new ProcessBuilder().inheritIO().command(\n");
-        sb.append("                \"java\", \"-jar\", \"src/test/resources/corese-command.jar\", \"sparql\",\n"); // FIXME To be replaced by the latest corese-command release
+        sb.append("        TestMetrics.phase(\"parse\");\n");
+        sb.append("        CommandResult result = CommandRunners.getDefault().run(\"sparql\",\n");
         sb.append("                \"-i\", localActionFile.toString(),\n");
         sb.append("                \"-if\", \"").append(this.format).append("\",\n");
         sb.append("                \"-of\", \"csv\",\n");
-        sb.append("                \"-q\", \"").append(TestUtils.BASIC_SPARQL_SELECT_QUERY_PATH_STRING).append("\")\n");
-        sb.append("            .start();\n");
-        sb.append("        assertNotEquals(0, command.waitFor());\n");
+        sb.append("                \"-q\", \"").append(TestUtils.BASIC_SPARQL_SELECT_QUERY_PATH_STRING).append("\");\n");
+        sb.append("        assertNotEquals(0, result.getExitCode());\n");
 
         // Footer of the test
         sb.append("    }\n");
 
         return sb.toString();
     }
+
+    @Override
+    public String getMethodName() {
+        return TestUtils.sanitizeTestName(test);
+    }
+
+    @Override
+    public void execute() throws IOException, InterruptedException {
+        Path localActionFile = TestFileManager.getLocalFilePath(this.actionFile);
+        TestMetrics.phase("parse");
+        CommandResult result = CommandRunners.getDefault().run("sparql",
+                "-i", localActionFile.toString(),
+                "-if", this.format,
+                "-of", "csv",
+                "-q", TestUtils.BASIC_SPARQL_SELECT_QUERY_PATH_STRING);
+        TestAssertions.assertFailure("sparql", result.getExitCode());
+    }
 }
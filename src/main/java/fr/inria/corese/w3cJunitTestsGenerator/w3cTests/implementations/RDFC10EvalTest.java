@@ -1,10 +1,19 @@
 package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Set;
 
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.print.CanonicalRdf10Format;
 import fr.inria.corese.core.print.rdfc10.HashingUtility.HashAlgorithm;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestAssertions;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
 
 /**
  * Represents a test for the RDFC10EvalTest type.
@@ -61,11 +70,13 @@ public class RDFC10EvalTest implements IW3cTest {
 
         // Test body
         sb.append("        // Create graph and load action file\n");
+        sb.append("        TestMetrics.phase(\"parse\");\n");
         sb.append("        Graph graph = Graph.create();\n");
         sb.append("        Load ld = Load.create(graph);\n");
         sb.append("        ld.parse(\"").append(actionFile).append("\");\n");
         sb.append("\n");
         sb.append("        // Create canonical RDF 1.0 format and convert graph to string\n");
+        sb.append("        TestMetrics.phase(\"canonicalize\");\n");
         if (hashAlgorithm != null && hashAlgorithm != HashAlgorithm.SHA_256) {
             sb.append("        CanonicalRdf10Format rdfc10 = CanonicalRdf10Format.create(graph, HashAlgorithm.")
                     .append(hashAlgorithm).append(");\n");
@@ -75,6 +86,7 @@ public class RDFC10EvalTest implements IW3cTest {
         sb.append("        String result = rdfc10.toString();\n");
         sb.append("\n");
         sb.append("        // Load expected result file\n");
+        sb.append("        TestMetrics.phase(\"compare\");\n");
         sb.append("        URL url = new URL(\"").append(resultFile).append("\");\n");
         sb.append("        Scanner scanner = new Scanner(url.openStream(), \"UTF-8\");\n");
         sb.append("        scanner.useDelimiter(\"\\\\A\");\n");
@@ -91,4 +103,30 @@ public class RDFC10EvalTest implements IW3cTest {
         return sb.toString();
     }
 
+    @Override
+    public String getMethodName() {
+        return test;
+    }
+
+    @Override
+    public void execute() throws IOException, LoadException {
+        TestMetrics.phase("parse");
+        Graph graph = Graph.create();
+        Load ld = Load.create(graph);
+        ld.parse(actionFile.toString());
+
+        TestMetrics.phase("canonicalize");
+        CanonicalRdf10Format rdfc10 = hashAlgorithm != null && hashAlgorithm != HashAlgorithm.SHA_256
+                ? CanonicalRdf10Format.create(graph, hashAlgorithm)
+                : CanonicalRdf10Format.create(graph);
+        String result = rdfc10.toString();
+
+        TestMetrics.phase("compare");
+        String expected;
+        try (InputStream in = resultFile.toURL().openStream()) {
+            expected = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        TestAssertions.assertEquals("Canonical form of " + actionFile, expected, result);
+    }
+
 }
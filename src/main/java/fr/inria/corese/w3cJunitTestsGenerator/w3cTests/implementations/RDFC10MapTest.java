@@ -1,10 +1,20 @@
 package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations;
 
+import java.io.IOException;
 import java.net.URI;
+import java.util.Map;
 import java.util.Set;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.print.CanonicalRdf10Format;
 import fr.inria.corese.core.print.rdfc10.HashingUtility.HashAlgorithm;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestAssertions;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
 
 /**
  * Represents a test for the RDFC10MapTest type.
@@ -63,12 +73,14 @@ public class RDFC10MapTest implements IW3cTest {
 
         // Test body
         sb.append("        // Create graph and load action file\n");
+        sb.append("        TestMetrics.phase(\"parse\");\n");
         sb.append("        Graph graph = Graph.create();\n");
         sb.append("        Load ld = Load.create(graph);\n");
         sb.append("        ld.setRenameBlankNode(false);\n");
         sb.append("        ld.parse(\"").append(actionFile).append("\");\n");
         sb.append("\n");
         sb.append("        // Create canonical RDF 1.0 format and get map of issued identifiers\n");
+        sb.append("        TestMetrics.phase(\"canonicalize\");\n");
         if (hashAlgorithm != null && hashAlgorithm != HashAlgorithm.SHA_256) {
             sb.append("        CanonicalRdf10Format rdfc10 = CanonicalRdf10Format.create(graph, HashAlgorithm.")
                     .append(hashAlgorithm).append(");\n");
@@ -78,6 +90,7 @@ public class RDFC10MapTest implements IW3cTest {
         sb.append("        Map<String, String> result = rdfc10.getIssuedIdentifiersMap();\n");
         sb.append("\n");
         sb.append("        // Load map from result json file\n");
+        sb.append("        TestMetrics.phase(\"compare\");\n");
         sb.append("        URL url = new URL(\"").append(resultFile).append("\");\n");
         sb.append(
                 "        Map<String, String> expect = new ObjectMapper().readValue(url, new TypeReference<Map<String, String>>(){});\n");
@@ -89,4 +102,30 @@ public class RDFC10MapTest implements IW3cTest {
         return sb.toString();
     }
 
+    @Override
+    public String getMethodName() {
+        return test;
+    }
+
+    @Override
+    public void execute() throws IOException, LoadException {
+        TestMetrics.phase("parse");
+        Graph graph = Graph.create();
+        Load ld = Load.create(graph);
+        ld.setRenameBlankNode(false);
+        ld.parse(actionFile.toString());
+
+        TestMetrics.phase("canonicalize");
+        CanonicalRdf10Format rdfc10 = hashAlgorithm != null && hashAlgorithm != HashAlgorithm.SHA_256
+                ? CanonicalRdf10Format.create(graph, hashAlgorithm)
+                : CanonicalRdf10Format.create(graph);
+        Map<String, String> result = rdfc10.getIssuedIdentifiersMap();
+
+        TestMetrics.phase("compare");
+        Map<String, String> expect = new ObjectMapper().readValue(resultFile.toURL(),
+                new TypeReference<Map<String, String>>() {
+                });
+        TestAssertions.assertEquals("Issued identifiers of " + actionFile, expect, result);
+    }
+
 }
@@ -3,7 +3,13 @@ package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations;
 import java.net.URI;
 import java.util.Set;
 
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.print.CanonicalRdf10Format;
+import fr.inria.corese.core.print.rdfc10.CanonicalRdf10.CanonicalizationException;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
 
 /**
  * Represents a test for the RDFC10NegativeEvalTest type.
@@ -50,11 +56,13 @@ public class RDFC10NegativeEvalTest implements IW3cTest {
 
         // Test body
         sb.append("        // Create graph and load action file\n");
+        sb.append("        TestMetrics.phase(\"parse\");\n");
         sb.append("        Graph graph = Graph.create();\n");
         sb.append("        Load ld = Load.create(graph);\n");
         sb.append("        ld.parse(\"").append(actionFile).append("\");\n");
         sb.append("\n");
         sb.append("        // Attempt to create canonical RDF 1.0 format, expecting a failure\n");
+        sb.append("        TestMetrics.phase(\"canonicalize\");\n");
         sb.append("        CanonicalRdf10Format rdfc10 = CanonicalRdf10Format.create(graph);\n");
         sb.append("        // This line should trigger the CanonicalizationException\n");
         sb.append("        rdfc10.toString();\n");
@@ -65,4 +73,25 @@ public class RDFC10NegativeEvalTest implements IW3cTest {
         return sb.toString();
     }
 
+    @Override
+    public String getMethodName() {
+        return test;
+    }
+
+    @Override
+    public void execute() throws LoadException {
+        TestMetrics.phase("parse");
+        Graph graph = Graph.create();
+        Load ld = Load.create(graph);
+        ld.parse(actionFile.toString());
+
+        TestMetrics.phase("canonicalize");
+        try {
+            CanonicalRdf10Format.create(graph).toString();
+        } catch (CanonicalizationException e) {
+            return;
+        }
+        throw new AssertionError("The canonicalization of " + actionFile + " should have failed");
+    }
+
 }
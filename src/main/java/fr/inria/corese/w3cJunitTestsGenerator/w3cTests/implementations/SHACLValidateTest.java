@@ -1,14 +1,29 @@
 package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations;
 
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.shacl.Shacl;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestAssertions;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.cache.GraphCache;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.ShaclReportComparator;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.ShaclReportDiff;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandResult;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandRunners;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -17,6 +32,7 @@ import java.util.Set;
 public class SHACLValidateTest implements IW3cTest {
 
     private static final Logger logger = LoggerFactory.getLogger(SHACLValidateTest.class);
+    private static boolean inProcessModeFlag = false; // Indicates if the tests validate with the SHACL engine of corese-core instead of corese-command
 
     private URI manifestUri;
     private String testUri;
@@ -27,8 +43,6 @@ public class SHACLValidateTest implements IW3cTest {
     private URI dataGraph;
     private URI shapeGraph;
 
-    private String conformity = null;
-
     /**
      *
      * @param manifestUri URI of the manifest file that declares the tests as a entry.
@@ -48,40 +62,42 @@ public class SHACLValidateTest implements IW3cTest {
         this.shapeGraph = shapeGraph;
 
         try {
+            List<URI> graphFiles = new ArrayList<>();
             if(dataGraph.toString().compareTo(testUri) != 0) {
-                TestFileManager.loadFile(dataGraph);
+                graphFiles.add(dataGraph);
             }
             if(shapeGraph.toString().compareTo(testUri) != 0) {
-                TestFileManager.loadFile(shapeGraph);
+                graphFiles.add(shapeGraph);
             }
+            TestFileManager.loadFiles(graphFiles);
         } catch (IOException | NoSuchAlgorithmException e) {
             logger.error("Error during test file loading", e);
         }
     }
 
-    public SHACLValidateTest(URI manifestUri, String test, String name, String comment, URI dataGraph, URI shapeGraph, String conformity) {
-        this(manifestUri, test, name, comment, dataGraph, shapeGraph);
-        this.conformity = conformity;
+    /**
+     * In in-process mode, the tests validate the data graph with the SHACL engine of corese-core and compare the
+     * report graph in memory, without calling corese-command nor writing the report. The data and shapes graphs are
+     * parsed once per JVM through the {@link GraphCache} and shared by the tests, as the SHACL engine only reads them
+     * and writes its report in a new graph.
+     *
+     * @param inProcessMode true to validate in the test JVM
+     */
+    public static void setInProcessMode(boolean inProcessMode) {
+        inProcessModeFlag = inProcessMode;
+    }
+
+    public static boolean isInProcessMode() {
+        return inProcessModeFlag;
     }
 
     @Override
     public Set<String> getImports() {
-        return Set.of("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager",
-                "fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils",
-                "fr.inria.corese.core.Graph",
-                "fr.inria.corese.core.GraphStore",
-                "fr.inria.corese.core.kgram.core.Mappings",
-                "fr.inria.corese.core.load.Load",
+        return Set.of("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.SHACLValidateTest",
                 "fr.inria.corese.core.load.LoadException",
-                "fr.inria.corese.core.query.QueryProcess",
                 "fr.inria.corese.core.sparql.exceptions.EngineException",
                 "java.io.IOException",
-                "java.net.URISyntaxException",
-                "java.net.URI",
-                "java.nio.file.Path",
-                "java.security.NoSuchAlgorithmException",
-                "static org.junit.Assert.assertEquals",
-                "static org.junit.Assert.assertTrue");
+                "java.net.URI");
     }
 
     @Override
@@ -100,62 +116,78 @@ public class SHACLValidateTest implements IW3cTest {
         sb.append("    public void ").append(longtestName);
         sb.append("() throws IOException, InterruptedException, LoadException, EngineException {\n");
 
-        // Test body
-        sb.append("        // Load action file\n");
-        sb.append("        Path localDataFile = TestFileManager.getLocalFilePath(URI.create(\"").append(TestFileManager.getLocalFilePath(this.dataGraph)).append("\"));\n");
-        sb.append("        Path localShapeFile = TestFileManager.getLocalFilePath(URI.create(\"").append(TestFileManager.getLocalFilePath(this.shapeGraph)).append("\"));\n");
-        sb.append("        Path validationReportFilePath = Path.of(\"").append(TestFileManager.RESOURCE_PATH_STRING).append(longtestName).append("Report.ttl\");\n");
-        sb.append("\n");
-        sb.append("        // Validation of the data file with the shape file\n");
-        sb.append("        Process actionValidationCommand = new ProcessBuilder().inheritIO().command(\n");
-        sb.append("                \"java\", \"-jar\", \"src/test/resources/corese-command.jar\", \"shacl\",\n"); // FIXME To be replaced by the latest corese-command release
-        sb.append("                \"-i\", \"").append(TestFileManager.getLocalFilePath(URI.create(this.dataGraph.toString()))).append("\",\n");
-        sb.append("                \"-s\", \"").append(TestFileManager.getLocalFilePath(URI.create(this.shapeGraph.toString()))).append("\",\n");
-        sb.append("                \"-a\", \"turtle\",\n");
-        sb.append("                \"-o\", validationReportFilePath.toString())\n");
-        sb.append("            .start();\n");
-        sb.append("        int validationExitCode = actionValidationCommand.waitFor();\n");
-        sb.append("        assertEquals(0, validationExitCode);\n");
-        sb.append("\n");
-        if(this.conformity != null && this.conformity.equals("true")) {
-            sb.append("        Graph resultGraph = Graph.create();\n");
-            sb.append("        resultGraph.init();\n");
-            sb.append("        Load resultLoader = Load.create(resultGraph);\n");
-            sb.append("        resultLoader.parse(validationReportFilePath.toString());\n");
-            sb.append("        QueryProcess exec = QueryProcess.create(resultGraph);\n");
-            sb.append("        boolean checkIfValidationIsSuccessfull = ! exec.query(TestUtils.generateSHACLSuccessfullValidationReport()).isEmpty();\n");
-            sb.append("        assertTrue(checkIfValidationIsSuccessfull);\n");
-        } else {
-            sb.append("        GraphStore graphStore = GraphStore.create();\n");
-            sb.append("        Graph referenceGraph = new Graph();\n");
-            sb.append("        referenceGraph.init();\n");
-            sb.append("        Load referenceLoader = Load.create(referenceGraph);\n");
-            sb.append("        referenceLoader.parse(localDataFile.toString());\n");
-            sb.append("        referenceLoader.parse(localShapeFile.toString());\n");
-            sb.append("        referenceLoader.parse(\"").append(TestFileManager.getLocalFilePath(this.manifestUri)).append("\");\n");
-            sb.append("\n");
-            sb.append("        Graph resultGraph = Graph.create();\n");
-            sb.append("        resultGraph.init();\n");
-            sb.append("        Load resultLoader = Load.create(resultGraph);\n");
-            sb.append("        resultLoader.parse(validationReportFilePath.toString());\n");
-            sb.append("        graphStore.setNamedGraph(\"http://corese.inria.fr/reference\", referenceGraph);\n");
-            sb.append("        graphStore.setNamedGraph(\"http://corese.inria.fr/result\", resultGraph);\n");
-            sb.append("\n");
-            sb.append("        QueryProcess exec = QueryProcess.create(graphStore);\n");
-            sb.append("        boolean checkIfRefAreInResultSPARQLQuery = ! exec.query(TestUtils.generateSHACLCheckIfRefAreInResultSPARQLQuery()).isEmpty();\n");
-            sb.append("        boolean checkIfResultsAreInRefSPARQLQuery = ! exec.query(TestUtils.generateSHACLCheckIfResultsAreInRefSPARQLQuery()).isEmpty();\n");
-            sb.append("        boolean checkIfResultsAreNotInRefSPARQLQuery = exec.query(TestUtils.generateSHACLCheckIfResultsAreNotInRefSPARQLQuery()).isEmpty();\n");
-            sb.append("        boolean checkIfRefAreNotInResultSPARQLQuery = exec.query(TestUtils.generateSHACLCheckIfRefAreNotInResultSPARQLQuery()).isEmpty();\n");
-            sb.append("\n");
-            sb.append("        assertTrue(checkIfRefAreInResultSPARQLQuery);\n");
-            sb.append("        assertTrue(checkIfResultsAreInRefSPARQLQuery);\n");
-            sb.append("        assertTrue(checkIfResultsAreNotInRefSPARQLQuery);\n");
-            sb.append("        assertTrue(checkIfRefAreNotInResultSPARQLQuery);\n");
-        }
+        // Test body, the mode of the generation being kept by the test
+        sb.append("        SHACLValidateTest.validate(\"").append(this.testUri).append("\",\n");
+        sb.append("                URI.create(\"").append(this.manifestUri).append("\"),\n");
+        sb.append("                URI.create(\"").append(this.dataGraph).append("\"),\n");
+        sb.append("                URI.create(\"").append(this.shapeGraph).append("\"), ").append(isInProcessMode())
+                .append(");\n");
 
         // Footer of the test
         sb.append("    }\n");
 
         return sb.toString();
     }
+
+    @Override
+    public String getMethodName() {
+        return TestUtils.extractLongTestName(this.testUri);
+    }
+
+    @Override
+    public void execute() throws IOException, InterruptedException, LoadException, EngineException {
+        validate(this.testUri, this.manifestUri, this.dataGraph, this.shapeGraph, isInProcessMode());
+    }
+
+    /**
+     * Validates the data graph of a test with its shapes graph and compares the validation report with the expected
+     * report of the manifest. Run by the generated tests and by {@link #execute()}.
+     *
+     * @param testUri     URI of the test, as declared by the remote manifest
+     * @param manifestUri URI of the manifest declaring the test, holding its expected report as mf:result
+     * @param dataGraph   URI of the data graph
+     * @param shapeGraph  URI of the shapes graph
+     * @param inProcess   true to validate with the SHACL engine of corese-core instead of corese-command, see
+     *                    {@link #setInProcessMode(boolean)}
+     * @throws IOException          If corese-command cannot be run or a file cannot be read
+     * @throws InterruptedException If the thread is interrupted while waiting for corese-command
+     * @throws LoadException        If a graph cannot be parsed
+     * @throws EngineException      If the validation fails in process
+     */
+    public static void validate(String testUri, URI manifestUri, URI dataGraph, URI shapeGraph, boolean inProcess)
+            throws IOException, InterruptedException, LoadException, EngineException {
+        Path localDataFile = TestFileManager.getLocalFilePath(dataGraph);
+        Path localShapeFile = TestFileManager.getLocalFilePath(shapeGraph);
+
+        TestMetrics.phase("load");
+        // The manifest is shared by all the tests of its file and holds the reference report as mf:result
+        Graph manifestGraph = GraphCache.getInstance().getShared(TestFileManager.getLocalFilePath(manifestUri));
+        Graph resultGraph;
+        if (inProcess) {
+            Graph dataGraphContent = GraphCache.getInstance().getShared(localDataFile);
+            Graph shapesGraphContent = GraphCache.getInstance().getShared(localShapeFile);
+
+            TestMetrics.phase("validate");
+            resultGraph = new Shacl(dataGraphContent, shapesGraphContent).eval();
+            TestMetrics.phase("compare");
+        } else {
+            TestMetrics.phase("validate");
+            Path validationReportFilePath = Path.of(TestFileManager.RESOURCE_PATH_STRING
+                    + TestUtils.extractLongTestName(testUri) + "Report.ttl");
+            CommandResult validationResult = CommandRunners.getDefault().run("shacl",
+                    "-i", localDataFile.toString(),
+                    "-s", localShapeFile.toString(),
+                    "-a", "turtle",
+                    "-o", validationReportFilePath.toString());
+            TestAssertions.assertSuccess("shacl", validationResult.getExitCode());
+
+            TestMetrics.phase("compare");
+            resultGraph = Graph.create();
+            resultGraph.init();
+            Load.create(resultGraph).parse(validationReportFilePath.toString());
+        }
+
+        ShaclReportDiff reportDiff = ShaclReportComparator.compare(manifestGraph, testUri, resultGraph);
+        TestAssertions.assertTrue(reportDiff.toString(), reportDiff.isEmpty());
+    }
 }
@@ -1,14 +1,22 @@
 package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations;
 
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestAssertions;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.SparqlResultFiles;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandResult;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner.CommandRunners;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -36,19 +44,7 @@ public class SPARQLQueryEvaluationTest implements IW3cTest {
      * @param queryFile Uri of the file object of the qt:query property linked to the action resource
      */
     public SPARQLQueryEvaluationTest(String testUri, String name, String comment, URI resultFile, URI queryFile) {
-        this.testUri = testUri;
-        this.testName = TestUtils.extractLongTestName(testUri);
-        this.name = name;
-        this.comment = comment;
-        this.resultFile = resultFile;
-        this.queryFile = queryFile;
-
-        try {
-            TestFileManager.loadFile(resultFile);
-            TestFileManager.loadFile(queryFile);
-        } catch (IOException | NoSuchAlgorithmException e) {
-            logger.error("Error during test file loading", e);
-        }
+        this(testUri, name, comment, null, resultFile, queryFile);
     }
 
     /**
@@ -60,10 +56,20 @@ public class SPARQLQueryEvaluationTest implements IW3cTest {
      * @param queryFile Uri of the file object of the qt:query property linked to the action resource
      */
     public SPARQLQueryEvaluationTest(String testUri, String name, String comment, URI dataFile, URI resultFile, URI queryFile) {
-        this(testUri, name, comment, resultFile, queryFile);
+        this.testUri = testUri;
+        this.testName = TestUtils.extractLongTestName(testUri);
+        this.name = name;
+        this.comment = comment;
         this.dataFile = dataFile;
+        this.resultFile = resultFile;
+        this.queryFile = queryFile;
+
         try {
-            TestFileManager.loadFile(dataFile);
+            List<URI> testFiles = new ArrayList<>(List.of(resultFile, queryFile));
+            if (dataFile != null) {
+                testFiles.add(dataFile);
+            }
+            TestFileManager.loadFiles(testFiles);
         } catch (IOException | NoSuchAlgorithmException e) {
             logger.error("Error during test file loading", e);
         }
@@ -71,41 +77,15 @@ public class SPARQLQueryEvaluationTest implements IW3cTest {
 
     @Override
     public Set<String> getImports() {
-        return Set.of("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager",
-                "fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils",
-                "fr.inria.corese.core.load.LoadException",
-                "javax.xml.parsers.ParserConfigurationException",
-                "javax.xml.xpath.XPathExpressionException",
+        return Set.of("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.SPARQLQueryEvaluationTest",
                 "java.io.IOException",
-                "java.net.URISyntaxException",
-                "java.net.URI",
-                "java.nio.file.Path",
-                "java.security.NoSuchAlgorithmException",
-                "org.xml.sax.SAXException",
-                "static org.junit.Assert.assertEquals",
-                "static org.junit.Assert.assertTrue");
+                "java.net.URI");
     }
 
     @Override
     public String generate() {
         StringBuilder sb = new StringBuilder();
 
-        String formatArgumentString = "xml";
-        String localResultFile = TestFileManager.RESOURCE_PATH_STRING + this.testName  + ".xml";
-        if(this.resultFile.toString().endsWith("ttl")) {
-            localResultFile = TestFileManager.RESOURCE_PATH_STRING + this.testName  + ".ttl";
-            formatArgumentString = "turtle";
-        } else if(this.resultFile.toString().endsWith("tsv")) {
-            localResultFile = TestFileManager.RESOURCE_PATH_STRING + this.testName  + ".tsv";
-            formatArgumentString = "tsv";
-        } else if(this.resultFile.toString().endsWith("csv")) {
-            localResultFile = TestFileManager.RESOURCE_PATH_STRING + this.testName  + ".csv";
-            formatArgumentString = "csv";
-        } else if(this.resultFile.toString().endsWith("srj") || this.resultFile.toString().endsWith("json")) {
-            localResultFile = TestFileManager.RESOURCE_PATH_STRING + this.testName  + ".json";
-            formatArgumentString = "json";
-        }
-
         // Header of the test
         sb.append("    // ").append(TestUtils.sanitizeComment(this.name)).append(" SPARQL Evaluation Test\n");
         sb.append("    // ").append(this.testUri).append("\n");
@@ -118,38 +98,124 @@ public class SPARQLQueryEvaluationTest implements IW3cTest {
         }
         sb.append("    @Test\n");
         sb.append("    public void ").append(testName);
-        sb.append("() throws IOException, NoSuchAlgorithmException, InterruptedException, XPathExpressionException, ParserConfigurationException, SAXException {\n");
+        sb.append("() throws IOException, InterruptedException {\n");
 
         // Test body
-        sb.append("        // Load action file\n");
-        sb.append("        Process command = new ProcessBuilder().inheritIO().command(\n");
-        sb.append("                \"java\", \"-jar\", \"src/test/resources/corese-command.jar\", \"sparql\",\n"); // FIXME To be replaced by the latest corese-command release
+        sb.append("        SPARQLQueryEvaluationTest.evaluate(\"").append(this.testName).append("\",\n");
         if(this.dataFile != null) {
-            sb.append("                \"-i\", \"").append(TestFileManager.getLocalFilePath(this.dataFile)).append("\",\n");
-        } else {
-            sb.append("                \"-i\", \"").append(TestUtils.SAMPLE_DATA_FILE_PATH_STRING).append("\",\n");
-        }
-        sb.append("                \"-if\", \"turtle\",\n");
-        sb.append("                \"-of\", \"").append(formatArgumentString).append("\",\n");
-        sb.append("                \"-o\", \"").append(localResultFile).append("\",\n");
-
-        sb.append("                \"-q\", \"").append(TestFileManager.getLocalFilePath(this.queryFile)).append("\")\n");
-        sb.append("            .start();\n");
-        sb.append("        assertEquals(0, command.waitFor());\n");
-        if( this.resultFile.toString().endsWith("xml") || this.resultFile.toString().endsWith("rdf") || this.resultFile.toString().endsWith("srx")) {
-            sb.append("        boolean comparison = TestUtils.compareXMLSparqlResultFiles(Path.of(\"");
-        } else if(this.resultFile.toString().endsWith("srj") || this.resultFile.toString().endsWith("json") || this.resultFile.toString().endsWith("jsonld")) {
-            sb.append("        boolean comparison = TestUtils.jsonFilesAreEqual(Path.of(\"");
+            sb.append("                URI.create(\"").append(this.dataFile).append("\"),\n");
         } else {
-            sb.append("        boolean comparison = TestUtils.compareFilesLineByLine(Path.of(\"");
+            sb.append("                null,\n");
         }
-        sb.append(TestFileManager.getLocalFilePath(this.resultFile)).append("\"), Path.of(\"");
-        sb.append(localResultFile).append("\"));\n");
-        sb.append("        assertTrue(comparison);\n");
+        sb.append("                URI.create(\"").append(this.queryFile).append("\"),\n");
+        sb.append("                URI.create(\"").append(this.resultFile).append("\"));\n");
 
         // Footer of the test
         sb.append("    }\n");
 
         return sb.toString();
     }
+
+    @Override
+    public String getMethodName() {
+        return testName;
+    }
+
+    @Override
+    public void execute() throws IOException, InterruptedException {
+        evaluate(this.testName, this.dataFile, this.queryFile, this.resultFile);
+    }
+
+    /**
+     * Queries the data file with corese-command and compares the results with the expected ones, as result sets,
+     * or graphs for CONSTRUCT queries, with the order of the query if any. Run by the generated tests and by
+     * {@link #execute()}.
+     *
+     * @param testName   Name of the test, naming its result file
+     * @param dataFile   URI of the data file of the test, null to query the sample data file
+     * @param queryFile  URI of the query file of the test
+     * @param resultFile URI of the expected results of the test
+     * @throws IOException          If corese-command cannot be run or a file cannot be read
+     * @throws InterruptedException If the thread is interrupted while waiting for corese-command
+     */
+    public static void evaluate(String testName, URI dataFile, URI queryFile, URI resultFile)
+            throws IOException, InterruptedException {
+        String localResultFile = getLocalResultFile(testName, resultFile);
+        TestMetrics.phase("query");
+        CommandResult result = CommandRunners.getDefault().run("sparql",
+                "-i", dataFile != null ? TestFileManager.getLocalFilePath(dataFile).toString()
+                        : TestUtils.SAMPLE_DATA_FILE_PATH_STRING,
+                "-if", "turtle",
+                "-of", getFormatArgument(resultFile),
+                "-o", localResultFile,
+                "-q", TestFileManager.getLocalFilePath(queryFile).toString());
+        TestAssertions.assertSuccess("sparql", result.getExitCode());
+
+        TestMetrics.phase("compare");
+        Path expectedResultFile = TestFileManager.getLocalFilePath(resultFile);
+        String resultFileString = resultFile.toString();
+        boolean comparison;
+        if(resultFileString.endsWith("xml") || resultFileString.endsWith("srx") || resultFileString.endsWith("srj") || resultFileString.endsWith("json")
+                || resultFileString.endsWith("rdf") || resultFileString.endsWith("ttl")) {
+            comparison = TestUtils.compareSparqlResultFiles(expectedResultFile, Path.of(localResultFile),
+                    getOrderVariables(queryFile).toArray(new String[0]));
+        } else if(resultFileString.endsWith("jsonld")) {
+            comparison = TestUtils.jsonFilesAreEqual(expectedResultFile, Path.of(localResultFile));
+        } else {
+            comparison = TestUtils.compareFilesLineByLine(expectedResultFile, Path.of(localResultFile));
+        }
+        TestAssertions.assertTrue("The results of the query differ from " + resultFile, comparison);
+    }
+
+    /**
+     * @return the name of the output format of the results, as accepted by the "-of" argument of corese-command
+     */
+    private static String getFormatArgument(URI resultFile) {
+        String resultFileString = resultFile.toString();
+        if(resultFileString.endsWith("ttl")) {
+            return "turtle";
+        } else if(resultFileString.endsWith("tsv")) {
+            return "tsv";
+        } else if(resultFileString.endsWith("csv")) {
+            return "csv";
+        } else if(resultFileString.endsWith("srj") || resultFileString.endsWith("json")) {
+            return "json";
+        }
+        // Also used for the RDF/XML results of CONSTRUCT queries
+        return "xml";
+    }
+
+    /**
+     * @return the path of the file where the results of the query are written, with an extension matching their format
+     */
+    private static String getLocalResultFile(String testName, URI resultFile) {
+        String resultFileString = resultFile.toString();
+        String extension = ".xml";
+        if(resultFileString.endsWith("ttl")) {
+            extension = ".ttl";
+        } else if(resultFileString.endsWith("rdf")) {
+            // RDF/XML result of a CONSTRUCT query, the extension gives its format to the loader of the comparison
+            extension = ".rdf";
+        } else if(resultFileString.endsWith("tsv")) {
+            extension = ".tsv";
+        } else if(resultFileString.endsWith("csv")) {
+            extension = ".csv";
+        } else if(resultFileString.endsWith("srj") || resultFileString.endsWith("json")) {
+            extension = ".json";
+        }
+        return TestFileManager.RESOURCE_PATH_STRING + testName + extension;
+    }
+
+    /**
+     * @return the variables of the ORDER BY clause of the query, empty if its solutions are not ordered
+     */
+    private static List<String> getOrderVariables(URI queryFile) {
+        try {
+            return SparqlResultFiles.getOrderVariables(
+                    TestUtils.getFileTextContent(TestFileManager.getLocalFilePath(queryFile).toString()));
+        } catch (IOException e) {
+            logger.error("Could not read the query " + queryFile + ", the order of its results is not checked", e);
+            return List.of();
+        }
+    }
 }
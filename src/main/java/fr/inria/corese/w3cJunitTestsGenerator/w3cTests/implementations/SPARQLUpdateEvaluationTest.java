@@ -1,17 +1,28 @@
 package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations;
 
+import fr.inria.corese.core.GraphStore;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.logic.Entailment;
+import fr.inria.corese.core.query.QueryProcess;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestAssertions;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
 import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.GraphDiff;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -51,21 +62,23 @@ public class SPARQLUpdateEvaluationTest implements IW3cTest {
         this.resultGraphMap = resultGraphMap;
 
         try {
+            List<URI> testFiles = new ArrayList<>();
             for(String requestFilename : requestFileList) {
-                TestFileManager.loadFile(URI.create(requestFilename));
+                testFiles.add(URI.create(requestFilename));
             }
             for(String actionDataFilename : actionDataFileList) {
-                TestFileManager.loadFile(URI.create(actionDataFilename));
+                testFiles.add(URI.create(actionDataFilename));
             }
             for(String resultDataFilename : resultDataFileList) {
-                TestFileManager.loadFile(URI.create(resultDataFilename));
+                testFiles.add(URI.create(resultDataFilename));
             }
             for(String actionGraphFile : actionGraphMap.values()) {
-                TestFileManager.loadFile(URI.create(actionGraphFile));
+                testFiles.add(URI.create(actionGraphFile));
             }
             for(String resultGraphFile : resultGraphMap.values()) {
-                TestFileManager.loadFile(URI.create(resultGraphFile));
+                testFiles.add(URI.create(resultGraphFile));
             }
+            TestFileManager.loadFiles(testFiles);
         } catch (IOException | NoSuchAlgorithmException e) {
             logger.error("Error during test file loading", e);
         }
@@ -73,25 +86,16 @@ public class SPARQLUpdateEvaluationTest implements IW3cTest {
 
     @Override
     public Set<String> getImports() {
-        return Set.of("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager",
-                "fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils",
-                "fr.inria.corese.core.Graph",
-                "fr.inria.corese.core.GraphStore",
-                "fr.inria.corese.core.load.Load",
-                "fr.inria.corese.core.query.QueryProcess",
+        return Set.of("fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.SPARQLUpdateEvaluationTest",
+                "fr.inria.corese.core.load.LoadException",
                 "fr.inria.corese.core.sparql.exceptions.EngineException",
-                "java.io.BufferedReader",
-                "java.io.FileReader",
-                "java.io.FileNotFoundException",
-                "java.nio.file.Path",
-                "static org.junit.Assert.assertEquals",
-                "static org.junit.Assert.assertTrue");
+                "java.io.IOException",
+                "java.util.List",
+                "java.util.Map");
     }
 
     @Override
     public String generate() {
-        String loadQueryFilename = this.testName + ".load.rq";
-
         StringBuilder sb = new StringBuilder();
         // Header of the test
         sb.append("    // ").append(TestUtils.sanitizeComment(this.name)).append(" SPARQL Update Evaluation Test\n");
@@ -102,56 +106,119 @@ public class SPARQLUpdateEvaluationTest implements IW3cTest {
         }
         sb.append("    @Test\n");
         sb.append("    public void ").append(testName);
-        sb.append("() throws LoadException, EngineException, FileNotFoundException, IOException {\n");
-
-        sb.append("\n");
-        sb.append("\n");
-        sb.append("        GraphStore kbRef = GraphStore.create();\n");
-        sb.append("        Load refLoader = Load.create(kbRef);\n");
-        for(String actionDataFile : this.actionDataFileList) {
-            sb.append("        refLoader.parse(\"").append(TestFileManager.getLocalFilePath(URI.create(actionDataFile))).append("\");\n");
+        sb.append("() throws LoadException, EngineException, IOException {\n");
+
+        // Test body
+        sb.append("        SPARQLUpdateEvaluationTest.evaluate(");
+        appendList(sb, this.requestFileList);
+        sb.append(",\n                ");
+        appendList(sb, this.actionDataFileList);
+        sb.append(",\n                ");
+        appendList(sb, this.resultDataFileList);
+        sb.append(",\n                ");
+        appendMap(sb, this.actionGraphMap);
+        sb.append(",\n                ");
+        appendMap(sb, this.resultGraphMap);
+        sb.append(");\n");
+
+        // Footer of the test
+        sb.append("    }\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Appends the Java expression of a list of strings, in the iteration order of the collection
+     */
+    private static void appendList(StringBuilder sb, Collection<String> values) {
+        sb.append("List.of(");
+        String separator = "";
+        for (String value : values) {
+            sb.append(separator).append("\"").append(value).append("\"");
+            separator = ", ";
         }
-        sb.append("\n");
-        int refGraphnumber = 0;
-        for(Map.Entry<String, String> namedGraphEntry : this.actionGraphMap.entrySet()) {
-            Path namedGraphFilename = TestFileManager.getLocalFilePath(URI.create(namedGraphEntry.getValue()));
-            String namedGraphName = namedGraphEntry.getKey();
-            sb.append("        Graph refGraph").append(refGraphnumber).append(" = Graph.create();\n");
-            sb.append("        Load refGraph").append(refGraphnumber).append("Loader = Load.create(refGraph").append(refGraphnumber).append(");\n");
-            sb.append("        refGraph").append(refGraphnumber).append("Loader.parse(\"").append(namedGraphFilename).append("\");\n");
-            sb.append("        kbRef.setNamedGraph(\"").append(namedGraphName).append("\", refGraph").append(refGraphnumber).append(");\n");
-            sb.append("\n");
-            refGraphnumber++;
+        sb.append(")");
+    }
+
+    /**
+     * Appends the Java expression of a map of strings, Map.of being limited to 10 entries
+     */
+    private static void appendMap(StringBuilder sb, Map<String, String> map) {
+        sb.append("Map.ofEntries(");
+        String separator = "";
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            sb.append(separator).append("Map.entry(\"").append(entry.getKey()).append("\", \"")
+                    .append(entry.getValue()).append("\")");
+            separator = ", ";
         }
-        sb.append("\n");
-        sb.append("        GraphStore kbResult = GraphStore.create();\n");
-        sb.append("        Load resultLoader = Load.create(kbResult);\n");
-        for(String resultDataFile : this.resultDataFileList) {
-            sb.append("        resultLoader.parse(\"").append(TestFileManager.getLocalFilePath(URI.create(resultDataFile))).append("\");\n");
+        sb.append(")");
+    }
+
+    @Override
+    public String getMethodName() {
+        return testName;
+    }
+
+    @Override
+    public void execute() throws LoadException, EngineException, IOException {
+        evaluate(this.requestFileList, this.actionDataFileList, this.resultDataFileList, this.actionGraphMap,
+                this.resultGraphMap);
+    }
+
+    /**
+     * Runs the update requests of a test on its initial dataset and compares the resulting dataset with the expected
+     * one. Run by the generated tests and by {@link #execute()}.
+     *
+     * @param requestFiles    URIs of the update requests, run in this order
+     * @param actionDataFiles URIs of the files of the default graph of the initial dataset
+     * @param resultDataFiles URIs of the files of the default graph of the expected dataset
+     * @param actionGraphs    URIs of the files of the named graphs of the initial dataset, by graph name
+     * @param resultGraphs    URIs of the files of the named graphs of the expected dataset, by graph name
+     * @throws LoadException   If a file cannot be parsed
+     * @throws EngineException If an update request fails
+     * @throws IOException     If a file cannot be read
+     */
+    public static void evaluate(Collection<String> requestFiles, Collection<String> actionDataFiles,
+            Collection<String> resultDataFiles, Map<String, String> actionGraphs, Map<String, String> resultGraphs)
+            throws LoadException, EngineException, IOException {
+        TestMetrics.phase("load");
+        GraphStore kbRef = loadDataset(actionDataFiles, actionGraphs);
+        GraphStore kbResult = loadDataset(resultDataFiles, resultGraphs);
+
+        TestMetrics.phase("query");
+        QueryProcess resultQueryProcess = QueryProcess.create(kbRef);
+        for(String queryFilename : requestFiles) {
+            resultQueryProcess.query(TestUtils.getFileTextContent(TestFileManager.getLocalFilePath(URI.create(queryFilename)).toString()));
         }
-        sb.append("\n");
-        int resultGraphnumber = 0;
-        for(Map.Entry<String, String> namedGraphEntry : this.resultGraphMap.entrySet()) {
-            Path namedGraphFilename = TestFileManager.getLocalFilePath(URI.create(namedGraphEntry.getValue()));
-            String namedGraphName = namedGraphEntry.getKey();
-            sb.append("        Graph resultGraph").append(resultGraphnumber).append(" = Graph.create();\n");
-            sb.append("        Load resultGraph").append(resultGraphnumber).append("Loader = Load.create(resultGraph").append(resultGraphnumber).append(");\n");
-            sb.append("        resultGraph").append(resultGraphnumber).append("Loader.parse(\"").append(namedGraphFilename).append("\");\n");
-            sb.append("        kbResult.setNamedGraph(\"").append(namedGraphName).append("\", resultGraph").append(resultGraphnumber).append(");\n");
-            sb.append("\n");
-            resultGraphnumber++;
+
+        TestMetrics.phase("compare");
+        GraphDiff diff = TestUtils.compareGraphStores(kbResult, kbRef);
+        TestAssertions.assertTrue(diff.toString(), diff.isEmpty());
+    }
+
+    /**
+     * Loads a dataset in the main graph of a graph store, where the updates write their quads and where
+     * {@link TestUtils#compareGraphStores} reads them: the default graph files in the default graph rather than in a
+     * graph named after their path, and each named graph file in the graph of its name.
+     *
+     * @param defaultGraphFiles URIs of the files of the default graph
+     * @param namedGraphFiles   URIs of the files of the named graphs, by graph name
+     * @return the graph store of the dataset
+     * @throws LoadException If a file cannot be parsed
+     */
+    public static GraphStore loadDataset(Collection<String> defaultGraphFiles, Map<String, String> namedGraphFiles)
+            throws LoadException {
+        GraphStore dataset = GraphStore.create();
+        Load loader = Load.create(dataset);
+        for(String defaultGraphFile : defaultGraphFiles) {
+            loader.parse(TestFileManager.getLocalFilePath(URI.create(defaultGraphFile)).toString(), Entailment.DEFAULT,
+                    defaultGraphFile, Load.UNDEF_FORMAT);
         }
-        sb.append("        QueryProcess resultQueryProcess = QueryProcess.create(kbRef);\n");
-        int queryNumber = 0;
-        for(String queryFilename : this.requestFileList) {
-            sb.append("        String query").append(queryNumber).append("String = TestUtils.getFileTextContent(\"").append(TestFileManager.getLocalFilePath(URI.create(queryFilename))).append("\");\n");
-            sb.append("        resultQueryProcess.query(query").append(queryNumber).append("String);\n");
-            queryNumber++;
+        for(Map.Entry<String, String> namedGraphEntry : namedGraphFiles.entrySet()) {
+            String namedGraphFile = namedGraphEntry.getValue();
+            loader.parse(TestFileManager.getLocalFilePath(URI.create(namedGraphFile)).toString(),
+                    namedGraphEntry.getKey(), namedGraphFile, Load.UNDEF_FORMAT);
         }
-        sb.append("\n");
-        sb.append("        assertEquals(0, TestUtils.graphStoreContentCompare(kbRef, kbResult));\n");
-        sb.append("}\n");
-
-        return sb.toString();
+        return dataset;
     }
 }
@@ -0,0 +1,180 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures the wall time, CPU time and allocated bytes of the test running on the current thread, split in phases,
+ * e.g. "parse", "query" and "compare". The test is measured from {@link #start()} to {@link #stop()}, and the tests
+ * mark the start of each of their phases with {@link #phase(String)}. The time before the first phase is in the
+ * "setup" phase.
+ * <p>
+ * Only the work of the current thread is measured: the CPU time and allocations of corese-command are included with
+ * the in-process command runner, and not with the runners executing it in other JVMs. The CPU time and allocated bytes
+ * are -1 when the JVM does not measure them.
+ */
+public class TestMetrics {
+
+    public static final String SETUP_PHASE = "setup";
+    public static final String TOTAL_PHASE = "total";
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = isCpuTimeSupported();
+    private static final boolean ALLOCATION_SUPPORTED = isAllocationSupported();
+
+    private static final ThreadLocal<Measure> currentMeasure = new ThreadLocal<>();
+
+    private TestMetrics() {
+    }
+
+    /**
+     * Starts the measure of a test on the current thread, replacing the measure in progress if any.
+     */
+    public static void start() {
+        currentMeasure.set(new Measure());
+    }
+
+    /**
+     * Ends the current phase of the test measured on the current thread and starts a new one. Does nothing if no test
+     * is measured, e.g. when a test runs without its watcher.
+     *
+     * @param phase Name of the new phase
+     */
+    public static void phase(String phase) {
+        Measure measure = currentMeasure.get();
+        if (measure != null) {
+            measure.phase(phase);
+        }
+    }
+
+    /**
+     * Ends the measure of the test of the current thread.
+     *
+     * @return the phases of the test followed by its total, empty if no test is measured
+     */
+    public static List<Sample> stop() {
+        Measure measure = currentMeasure.get();
+        currentMeasure.remove();
+        return measure != null ? measure.stop() : Collections.emptyList();
+    }
+
+    private static boolean isCpuTimeSupported() {
+        try {
+            if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && !THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+                THREAD_MX_BEAN.setThreadCpuTimeEnabled(true);
+            }
+            return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    private static boolean isAllocationSupported() {
+        if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+        try {
+            if (threadMXBean.isThreadAllocatedMemorySupported() && !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+                threadMXBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled();
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    private static long cpuTime() {
+        return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION_SUPPORTED ? ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN)
+                .getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * Measure of a phase, or of a whole test
+     */
+    public static class Sample {
+        private final String phase;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+
+        Sample(String phase, long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.phase = phase;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    /**
+     * Counters of a test in progress, at its start and at the start of its current phase
+     */
+    private static class Measure {
+        private final List<Sample> phases = new ArrayList<>();
+        private final long startWall;
+        private final long startCpu;
+        private final long startAllocated;
+        private String phase = SETUP_PHASE;
+        private long phaseWall;
+        private long phaseCpu;
+        private long phaseAllocated;
+
+        Measure() {
+            this.startWall = this.phaseWall = System.nanoTime();
+            this.startCpu = this.phaseCpu = cpuTime();
+            this.startAllocated = this.phaseAllocated = allocatedBytes();
+        }
+
+        void phase(String nextPhase) {
+            long wall = System.nanoTime();
+            long cpu = cpuTime();
+            long allocated = allocatedBytes();
+            this.phases.add(sample(this.phase, wall, this.phaseWall, cpu, this.phaseCpu, allocated,
+                    this.phaseAllocated));
+            this.phase = nextPhase;
+            this.phaseWall = wall;
+            this.phaseCpu = cpu;
+            this.phaseAllocated = allocated;
+        }
+
+        List<Sample> stop() {
+            long wall = System.nanoTime();
+            long cpu = cpuTime();
+            long allocated = allocatedBytes();
+            this.phases.add(sample(this.phase, wall, this.phaseWall, cpu, this.phaseCpu, allocated,
+                    this.phaseAllocated));
+            this.phases.add(sample(TOTAL_PHASE, wall, this.startWall, cpu, this.startCpu, allocated,
+                    this.startAllocated));
+            return this.phases;
+        }
+
+        private static Sample sample(String phase, long wall, long startWall, long cpu, long startCpu, long allocated,
+                long startAllocated) {
+            return new Sample(phase, wall - startWall, cpu >= 0 ? cpu - startCpu : -1,
+                    allocated >= 0 ? allocated - startAllocated : -1);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects the {@link TestMetrics} of the generated tests in memory and writes them in the testMetrics.csv file of
+ * their suite, as {@link TestReportCollector} does for their outcomes.
+ * <p>
+ * The file starts with a header line, followed by a line per phase of each test and a line for the total of the test:
+ * manifestUri#testName, outcome, phase, wall time (ns), CPU time (ns), allocated bytes
+ */
+public class TestMetricsCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestMetricsCollector.class);
+
+    public static final String HEADER = "test,outcome,phase,wallNanos,cpuNanos,allocatedBytes";
+
+    private static final ConcurrentHashMap<Path, TestMetricsCollector> collectors = new ConcurrentHashMap<>();
+
+    private final Path metricsPath;
+    private final String manifestUri;
+    private final ConcurrentLinkedQueue<String> lines = new ConcurrentLinkedQueue<>();
+
+    private TestMetricsCollector(Path metricsPath, String manifestUri) {
+        this.metricsPath = metricsPath;
+        this.manifestUri = manifestUri;
+    }
+
+    /**
+     * Returns the collector of a metrics file, creating it on first use.
+     *
+     * @param metricsFile Path to the CSV metrics file
+     * @param manifestUri URI of the manifest, without extension, used to build the URIs of the tests
+     * @return the collector of the metrics file
+     */
+    public static TestMetricsCollector forMetrics(String metricsFile, String manifestUri) {
+        return collectors.computeIfAbsent(Path.of(metricsFile), path -> new TestMetricsCollector(path, manifestUri));
+    }
+
+    /**
+     * Ends the measure of the test of the current thread, started with {@link TestMetrics#start()}, and records it.
+     *
+     * @param testName The name of the test.
+     * @param outcome  The EARL outcome of the test, e.g. "passed".
+     */
+    public void record(String testName, String outcome) {
+        for (TestMetrics.Sample sample : TestMetrics.stop()) {
+            this.lines.add(this.manifestUri + "#" + testName + "," + outcome + "," + sample.getPhase() + ","
+                    + sample.getWallNanos() + "," + sample.getCpuNanos() + "," + sample.getAllocatedBytes());
+        }
+    }
+
+    /**
+     * Writes all the metrics recorded so far in the metrics file, replacing its previous content. The lines are
+     * sorted so that the file does not depend on the execution order of the tests.
+     */
+    public synchronized void flush() {
+        List<String> sortedLines = new ArrayList<>(this.lines);
+        Collections.sort(sortedLines);
+
+        StringBuilder content = new StringBuilder(HEADER).append("\n");
+        for (String line : sortedLines) {
+            content.append(line).append("\n");
+        }
+
+        try {
+            Files.createDirectories(this.metricsPath.getParent());
+            Files.write(this.metricsPath, content.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.error("Could not write the test metrics file: " + this.metricsPath, e);
+        }
+    }
+}
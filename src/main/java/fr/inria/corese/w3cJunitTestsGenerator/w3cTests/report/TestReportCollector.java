@@ -0,0 +1,87 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects the outcomes of the generated tests in memory and writes them in the testReport.csv file of their suite.
+ * Recording an outcome does not lock nor touch the file system, so the tests of a class can run in parallel. The file
+ * is written once, when all the tests of the class have run.
+ * <p>
+ * Format of a line: manifestUri#testName, datetime, http://www.w3.org/ns/earl#status
+ */
+public class TestReportCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestReportCollector.class);
+
+    public static final String EARL = "http://www.w3.org/ns/earl#";
+
+    // eg "2023-01-25T10:18:04-08:00"
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+
+    private static final ConcurrentHashMap<Path, TestReportCollector> collectors = new ConcurrentHashMap<>();
+
+    private final Path reportPath;
+    private final String manifestUri;
+    private final ConcurrentLinkedQueue<String> lines = new ConcurrentLinkedQueue<>();
+
+    private TestReportCollector(Path reportPath, String manifestUri) {
+        this.reportPath = reportPath;
+        this.manifestUri = manifestUri;
+    }
+
+    /**
+     * Returns the collector of a report file, creating it on first use.
+     *
+     * @param reportFile  Path to the CSV report file
+     * @param manifestUri URI of the manifest, without extension, used to build the URIs of the tests
+     * @return the collector of the report file
+     */
+    public static TestReportCollector forReport(String reportFile, String manifestUri) {
+        return collectors.computeIfAbsent(Path.of(reportFile), path -> new TestReportCollector(path, manifestUri));
+    }
+
+    /**
+     * Records the outcome of a test.
+     *
+     * @param testName The name of the test.
+     * @param outcome  The EARL outcome of the test, e.g. "passed".
+     */
+    public void record(String testName, String outcome) {
+        this.lines.add(this.manifestUri + "#" + testName + "," + DATE_TIME_FORMATTER.format(ZonedDateTime.now()) + ","
+                + EARL + outcome);
+    }
+
+    /**
+     * Writes all the outcomes recorded so far in the report file, replacing its previous content. The lines are
+     * sorted so that the file does not depend on the execution order of the tests.
+     */
+    public synchronized void flush() {
+        List<String> sortedLines = new ArrayList<>(this.lines);
+        Collections.sort(sortedLines);
+
+        StringBuilder content = new StringBuilder();
+        for (String line : sortedLines) {
+            content.append(line).append("\n");
+        }
+
+        try {
+            Files.createDirectories(this.reportPath.getParent());
+            Files.write(this.reportPath, content.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.error("Could not write the test report file: " + this.reportPath, e);
+        }
+    }
+}
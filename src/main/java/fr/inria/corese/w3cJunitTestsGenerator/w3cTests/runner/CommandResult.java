@@ -0,0 +1,52 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Result of a corese-command invocation: its exit code, its standard output and the file it wrote, if any.
+ */
+public class CommandResult {
+
+    private final int exitCode;
+    private final String stdout;
+    private final Path outputFile;
+
+    /**
+     * @param exitCode   Exit code returned by the command
+     * @param stdout     Text written by the command on its standard output
+     * @param outputFile Path given to the "-o" argument of the command, null if there was none
+     */
+    public CommandResult(int exitCode, String stdout, Path outputFile) {
+        this.exitCode = exitCode;
+        this.stdout = stdout;
+        this.outputFile = outputFile;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public String getStdout() {
+        return stdout;
+    }
+
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * Extracts the value of the "-o" argument of a corese-command invocation
+     *
+     * @param arguments arguments of the command
+     * @return the path of the output file, null if the command writes on its standard output
+     */
+    public static Path extractOutputFile(String... arguments) {
+        for (int i = 0; i < arguments.length - 1; i++) {
+            if (arguments[i].equals("-o")) {
+                return Paths.get(arguments[i + 1]);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,63 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Gives access to the command runner used by the generated tests.
+ * The runner is chosen with the system property "corese.w3c.commandRunner":
+ * <ul>
+ *     <li>"inprocess" (default): corese-command is executed in the current JVM</li>
+ *     <li>"process": each invocation forks a new JVM running the corese-command jar</li>
+ *     <li>"pool": the invocations are sent to a pool of warm worker JVMs, see {@link WorkerPoolCommandRunner}</li>
+ * </ul>
+ */
+public class CommandRunners {
+
+    public static final String CORESE_COMMAND_JAR_PATH_STRING = "src/test/resources/corese-command.jar";
+    public static final String RUNNER_PROPERTY = "corese.w3c.commandRunner";
+
+    private static ICommandRunner defaultRunner = null;
+
+    private CommandRunners() {
+    }
+
+    /**
+     * @return the command runner selected for the current JVM
+     */
+    public static synchronized ICommandRunner getDefault() {
+        if (defaultRunner == null) {
+            defaultRunner = create(System.getProperty(RUNNER_PROPERTY, "inprocess"));
+        }
+        return defaultRunner;
+    }
+
+    /**
+     * Replaces the command runner used by the generated tests
+     *
+     * @param runner the new runner
+     */
+    public static synchronized void setDefault(ICommandRunner runner) {
+        defaultRunner = runner;
+    }
+
+    /**
+     * Creates a command runner from its name
+     *
+     * @param runnerName Name of the runner, as accepted by the "corese.w3c.commandRunner" property
+     * @return a new command runner
+     */
+    private static ICommandRunner create(String runnerName) {
+        Path jarPath = Path.of(CORESE_COMMAND_JAR_PATH_STRING);
+        switch (runnerName.toLowerCase(Locale.ROOT)) {
+            case "process":
+                return new ProcessCommandRunner(jarPath);
+            case "pool":
+                return new WorkerPoolCommandRunner(jarPath);
+            case "inprocess":
+                return new InProcessCommandRunner(jarPath);
+            default:
+                throw new IllegalArgumentException("Unknown command runner: " + runnerName);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Entry point of the worker JVMs of {@link WorkerPoolCommandRunner}.
+ * A worker reads corese-command requests on its standard input, executes them in-process and writes the results on
+ * its standard output, until its standard input is closed.
+ * <p>
+ * Request: the number of arguments, followed by each argument in modified UTF-8.
+ * Response: the exit code, followed by the length and the UTF-8 bytes of the standard output of the command.
+ * <p>
+ * The standard output of the JVM is reserved to the protocol: what the commands print on System.out is captured in
+ * their response, and anything else printed on it is redirected to the standard error.
+ */
+public class CommandWorker {
+
+    private CommandWorker() {
+    }
+
+    /**
+     * @param args the path to the corese-command jar
+     */
+    public static void main(String[] args) throws IOException {
+        DataOutputStream protocolOut = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        DataInputStream protocolIn = new DataInputStream(new BufferedInputStream(System.in));
+        System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true));
+
+        InProcessCommandRunner runner = new InProcessCommandRunner(Path.of(args[0]));
+        while (true) {
+            String[] arguments;
+            try {
+                arguments = readRequest(protocolIn);
+            } catch (EOFException e) {
+                return;
+            }
+
+            CommandResult result;
+            try {
+                result = runner.run(arguments);
+            } catch (IOException e) {
+                e.printStackTrace();
+                result = new CommandResult(1, "", CommandResult.extractOutputFile(arguments));
+            }
+            writeResponse(protocolOut, result);
+        }
+    }
+
+    static String[] readRequest(DataInputStream in) throws IOException {
+        int argumentCount = in.readInt();
+        String[] arguments = new String[argumentCount];
+        for (int i = 0; i < argumentCount; i++) {
+            arguments[i] = in.readUTF();
+        }
+        return arguments;
+    }
+
+    static void writeRequest(DataOutputStream out, String... arguments) throws IOException {
+        out.writeInt(arguments.length);
+        for (String argument : arguments) {
+            out.writeUTF(argument);
+        }
+        out.flush();
+    }
+
+    static void writeResponse(DataOutputStream out, CommandResult result) throws IOException {
+        byte[] stdout = result.getStdout().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(result.getExitCode());
+        out.writeInt(stdout.length);
+        out.write(stdout);
+        out.flush();
+    }
+
+    static CommandResult readResponse(DataInputStream in, String... arguments) throws IOException {
+        int exitCode = in.readInt();
+        byte[] stdout = new byte[in.readInt()];
+        in.readFully(stdout);
+        return new CommandResult(exitCode, new String(stdout, StandardCharsets.UTF_8),
+                CommandResult.extractOutputFile(arguments));
+    }
+}
@@ -0,0 +1,19 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner;
+
+import java.io.IOException;
+
+/**
+ * Interface for the engines able to execute a corese-command invocation for the generated tests.
+ */
+public interface ICommandRunner {
+
+    /**
+     * Executes corese-command with the given arguments.
+     *
+     * @param arguments the arguments of the command, starting with the name of the sub-command (e.g. "convert")
+     * @return the result of the command
+     * @throws IOException          If the command could not be launched or its output could not be read
+     * @throws InterruptedException If the thread is interrupted while waiting for the command
+     */
+    public CommandResult run(String... arguments) throws IOException, InterruptedException;
+}
@@ -0,0 +1,167 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.jar.JarFile;
+
+/**
+ * Runs corese-command invocations inside the current JVM.
+ * The classes of the corese-command jar are loaded once in an isolated class loader, so that its version of
+ * corese-core does not interfere with the one used by the generator, and the loader is reused by every test.
+ * The commands are executed through the picocli entry point of corese-command, which returns the exit code instead
+ * of calling System.exit.
+ * <p>
+ * corese-command and its corese-core keep their settings in static fields, so the invocations are executed one at a
+ * time. What a command prints on System.out and System.err is captured with the output of picocli, the other threads
+ * still printing on the standard streams.
+ */
+public class InProcessCommandRunner implements ICommandRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessCommandRunner.class);
+
+    private static final String COMMAND_LINE_CLASS_NAME = "picocli.CommandLine";
+
+    private final Path jarPath;
+
+    private URLClassLoader classLoader = null;
+    private Class<?> mainClass;
+    private Constructor<?> commandLineConstructor;
+    private Method setOutMethod;
+    private Method setErrMethod;
+    private Method executeMethod;
+
+    /**
+     * @param jarPath Path to the corese-command jar
+     */
+    public InProcessCommandRunner(Path jarPath) {
+        this.jarPath = jarPath;
+    }
+
+    @Override
+    public synchronized CommandResult run(String... arguments) throws IOException {
+        this.initialize();
+
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        Thread currentThread = Thread.currentThread();
+        ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+        PrintStream previousOut = System.out;
+        PrintStream previousErr = System.err;
+        currentThread.setContextClassLoader(this.classLoader);
+        System.setOut(new PrintStream(new ThreadOutputStream(currentThread, stdout, previousOut), true,
+                StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(new ThreadOutputStream(currentThread, stderr, previousErr), true,
+                StandardCharsets.UTF_8));
+        try (PrintWriter outWriter = new PrintWriter(new OutputStreamWriter(stdout, StandardCharsets.UTF_8), true);
+                PrintWriter errWriter = new PrintWriter(new OutputStreamWriter(stderr, StandardCharsets.UTF_8), true)) {
+            Object command = this.mainClass.getDeclaredConstructor().newInstance();
+            Object commandLine = this.commandLineConstructor.newInstance(command);
+            this.setOutMethod.invoke(commandLine, outWriter);
+            this.setErrMethod.invoke(commandLine, errWriter);
+            int exitCode = (int) this.executeMethod.invoke(commandLine, (Object) arguments);
+            outWriter.flush();
+            errWriter.flush();
+            System.out.flush();
+            System.err.flush();
+
+            if (stderr.size() > 0) {
+                previousErr.print(stderr.toString(StandardCharsets.UTF_8));
+            }
+            return new CommandResult(exitCode, stdout.toString(StandardCharsets.UTF_8),
+                    CommandResult.extractOutputFile(arguments));
+        } catch (InvocationTargetException e) {
+            throw new IOException("corese-command failed with arguments " + String.join(" ", arguments), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Could not call the entry point of " + this.jarPath, e);
+        } finally {
+            System.setOut(previousOut);
+            System.setErr(previousErr);
+            currentThread.setContextClassLoader(previousClassLoader);
+        }
+    }
+
+    /**
+     * Standard stream that captures what the thread of a command writes, and passes on what the other threads write
+     */
+    private static class ThreadOutputStream extends OutputStream {
+
+        private final Thread commandThread;
+        private final OutputStream capture;
+        private final OutputStream previous;
+
+        ThreadOutputStream(Thread commandThread, OutputStream capture, OutputStream previous) {
+            this.commandThread = commandThread;
+            this.capture = capture;
+            this.previous = previous;
+        }
+
+        private OutputStream target() {
+            return Thread.currentThread() == this.commandThread ? this.capture : this.previous;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.previous.flush();
+        }
+    }
+
+    /**
+     * Creates the class loader of the corese-command jar and looks up its entry point, once.
+     *
+     * @throws IOException If the jar cannot be read or does not contain the expected classes
+     */
+    private synchronized void initialize() throws IOException {
+        if (this.classLoader != null) {
+            return;
+        }
+
+        String mainClassName;
+        try (JarFile jarFile = new JarFile(this.jarPath.toFile())) {
+            mainClassName = jarFile.getManifest().getMainAttributes().getValue("Main-Class");
+        }
+        if (mainClassName == null) {
+            throw new IOException("No Main-Class declared in the manifest of " + this.jarPath);
+        }
+
+        URLClassLoader loader = new URLClassLoader(new URL[] { this.jarPath.toUri().toURL() },
+                ClassLoader.getPlatformClassLoader());
+        try {
+            this.mainClass = loader.loadClass(mainClassName);
+            Class<?> commandLineClass = loader.loadClass(COMMAND_LINE_CLASS_NAME);
+            this.commandLineConstructor = commandLineClass.getConstructor(Object.class);
+            this.setOutMethod = commandLineClass.getMethod("setOut", PrintWriter.class);
+            this.setErrMethod = commandLineClass.getMethod("setErr", PrintWriter.class);
+            this.executeMethod = commandLineClass.getMethod("execute", String[].class);
+        } catch (ReflectiveOperationException e) {
+            loader.close();
+            throw new IOException("Could not find the picocli entry point of " + this.jarPath, e);
+        }
+
+        logger.info("Loaded corese-command entry point {} from {}", mainClassName, this.jarPath);
+        this.classLoader = loader;
+    }
+}
@@ -0,0 +1,45 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs each corese-command invocation in a new JVM, as a launch of the released application would.
+ */
+public class ProcessCommandRunner implements ICommandRunner {
+
+    private final Path jarPath;
+
+    /**
+     * @param jarPath Path to the corese-command jar
+     */
+    public ProcessCommandRunner(Path jarPath) {
+        this.jarPath = jarPath;
+    }
+
+    @Override
+    public CommandResult run(String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("java");
+        command.add("-jar");
+        command.add(jarPath.toString());
+        command.addAll(Arrays.asList(arguments));
+
+        Process process = new ProcessBuilder()
+                .command(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        String stdout;
+        try (InputStream in = process.getInputStream()) {
+            stdout = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        int exitCode = process.waitFor();
+
+        return new CommandResult(exitCode, stdout, CommandResult.extractOutputFile(arguments));
+    }
+}
@@ -0,0 +1,191 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.runner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs corese-command invocations in a pool of long-lived worker JVMs (see {@link CommandWorker}).
+ * The workers stay warm between tests while keeping the isolation of a separate process: a command calling
+ * System.exit or crashing only takes down its worker. A worker that exits during a request, or that does not answer
+ * before the timeout, is destroyed and replaced by a new one on the next request.
+ * <p>
+ * A command holds one of the permits of the pool, one per worker, while it runs, so that a command waiting for a worker
+ * starts a new one as soon as a worker is destroyed.
+ */
+public class WorkerPoolCommandRunner implements ICommandRunner, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerPoolCommandRunner.class);
+
+    public static final String POOL_SIZE_PROPERTY = "corese.w3c.workerPool.size";
+    public static final String TIMEOUT_PROPERTY = "corese.w3c.workerPool.timeout";
+
+    /**
+     * Exit code reported for a command that did not finish before the timeout, as the timeout utility does.
+     */
+    public static final int TIMEOUT_EXIT_CODE = 124;
+
+    private final Path jarPath;
+    private final long timeoutSeconds;
+
+    private final Semaphore permits;
+    private final LinkedBlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+    private final List<Worker> allWorkers = new ArrayList<>();
+    private final ExecutorService responseReaders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "corese-command-worker-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a pool configured by the "corese.w3c.workerPool.size" (default: number of cores) and
+     * "corese.w3c.workerPool.timeout" (in seconds, default: 120) system properties.
+     *
+     * @param jarPath Path to the corese-command jar
+     */
+    public WorkerPoolCommandRunner(Path jarPath) {
+        this(jarPath,
+                Integer.getInteger(POOL_SIZE_PROPERTY, Runtime.getRuntime().availableProcessors()),
+                Long.getLong(TIMEOUT_PROPERTY, 120));
+    }
+
+    /**
+     * @param jarPath        Path to the corese-command jar
+     * @param poolSize       Maximum number of worker JVMs
+     * @param timeoutSeconds Time after which a worker that did not answer is considered hung
+     */
+    public WorkerPoolCommandRunner(Path jarPath, int poolSize, long timeoutSeconds) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("The worker pool size must be positive: " + poolSize);
+        }
+        this.jarPath = jarPath;
+        this.timeoutSeconds = timeoutSeconds;
+        this.permits = new Semaphore(poolSize, true);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    @Override
+    public CommandResult run(String... arguments) throws IOException, InterruptedException {
+        Worker worker = this.acquireWorker();
+        boolean healthy = false;
+        Future<CommandResult> response = null;
+        try {
+            CommandWorker.writeRequest(worker.requests, arguments);
+            response = this.responseReaders.submit(() -> CommandWorker.readResponse(worker.responses, arguments));
+            CommandResult result = response.get(this.timeoutSeconds, TimeUnit.SECONDS);
+            healthy = true;
+            return result;
+        } catch (TimeoutException e) {
+            // The reader is unblocked by the destruction of the worker in releaseWorker
+            response.cancel(true);
+            logger.warn("corese-command worker did not answer in {}s, recycling it: {}", this.timeoutSeconds,
+                    String.join(" ", arguments));
+            return new CommandResult(TIMEOUT_EXIT_CODE, "", CommandResult.extractOutputFile(arguments));
+        } catch (ExecutionException | IOException e) {
+            // The worker exited while executing the command, typically through System.exit
+            worker.process.waitFor(this.timeoutSeconds, TimeUnit.SECONDS);
+            int exitCode = worker.process.isAlive() ? 1 : worker.process.exitValue();
+            logger.warn("corese-command worker exited with code {}, recycling it: {}", exitCode,
+                    String.join(" ", arguments));
+            return new CommandResult(exitCode == 0 ? 1 : exitCode, "", CommandResult.extractOutputFile(arguments));
+        } finally {
+            this.releaseWorker(worker, healthy);
+        }
+    }
+
+    /**
+     * Takes an idle worker, or starts a new one, once a permit of the pool is available.
+     */
+    private Worker acquireWorker() throws IOException, InterruptedException {
+        this.permits.acquire();
+        try {
+            Worker worker = this.idleWorkers.poll();
+            if (worker == null) {
+                worker = new Worker(this.startWorkerProcess());
+                synchronized (this.allWorkers) {
+                    this.allWorkers.add(worker);
+                }
+            }
+            return worker;
+        } catch (IOException | RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives a worker back to the pool, or destroys it if it is not usable anymore, and releases its permit.
+     */
+    private void releaseWorker(Worker worker, boolean healthy) {
+        try {
+            if (healthy && worker.process.isAlive()) {
+                this.idleWorkers.add(worker);
+                return;
+            }
+            worker.process.destroyForcibly();
+            synchronized (this.allWorkers) {
+                this.allWorkers.remove(worker);
+            }
+        } finally {
+            this.permits.release();
+        }
+    }
+
+    private Process startWorkerProcess() throws IOException {
+        Path javaExecutable = Paths.get(System.getProperty("java.home"), "bin", "java");
+        return new ProcessBuilder()
+                .command(javaExecutable.toString(),
+                        "-cp", System.getProperty("java.class.path"),
+                        CommandWorker.class.getName(),
+                        this.jarPath.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * Stops all the workers of the pool.
+     */
+    @Override
+    public void close() {
+        synchronized (this.allWorkers) {
+            for (Worker worker : this.allWorkers) {
+                worker.process.destroy();
+            }
+            this.allWorkers.clear();
+        }
+        this.idleWorkers.clear();
+        this.responseReaders.shutdownNow();
+    }
+
+    /**
+     * A worker JVM and the streams used to talk to it
+     */
+    private static class Worker {
+        private final Process process;
+        private final DataOutputStream requests;
+        private final DataInputStream responses;
+
+        private Worker(Process process) {
+            this.process = process;
+            this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.responses = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+    }
+}
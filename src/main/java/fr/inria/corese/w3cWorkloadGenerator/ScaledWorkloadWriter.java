@@ -0,0 +1,156 @@
+package fr.inria.corese.w3cWorkloadGenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams copies of a {@link WorkloadTemplate} to an N-Quads file. Each copy renames the IRIs and blank nodes of the
+ * template that are not anchors, by suffixing them with the number of the copy, the first copy keeping the names of the
+ * template. The invariant quads are written once.
+ * <ul>
+ * <li>{@link Mode#REPLICATE}: the copies are disjoint, so that each one holds the structures of the test, e.g. a
+ * blank node clique or an instance of a target class.</li>
+ * <li>{@link Mode#CHAIN}: the ends of the paths of the property path predicates of the test in a copy are merged with
+ * their starts in the next copy, so that the paths grow with the number of copies.</li>
+ * </ul>
+ */
+public class ScaledWorkloadWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScaledWorkloadWriter.class);
+
+    public enum Mode {
+        REPLICATE, CHAIN
+    }
+
+    private final WorkloadTemplate template;
+    private final Mode mode;
+    // Terms ending a path in a copy, with the term starting a path they are merged with in the next copy
+    private final Map<String, String> chainLinks = new HashMap<>();
+
+    public ScaledWorkloadWriter(WorkloadTemplate template, Mode mode) {
+        this.template = template;
+        this.mode = mode;
+        if (mode == Mode.CHAIN) {
+            linkPaths();
+        }
+    }
+
+    /**
+     * @param targetQuads Number of quads of the workload
+     * @return the number of copies of the template needed to write at least the target number of quads
+     */
+    public long getCopies(long targetQuads) {
+        long invariantQuads = this.template.getInvariantCount();
+        long variantQuads = this.template.getQuads().size() - invariantQuads;
+        if (variantQuads == 0) {
+            return 1;
+        }
+        return Math.max(1, (targetQuads - invariantQuads + variantQuads - 1) / variantQuads);
+    }
+
+    /**
+     * Writes copies of the template.
+     *
+     * @param outputPath Path to the N-Quads file
+     * @param copies     Number of copies
+     * @return the number of quads written
+     * @throws IOException If the file cannot be written
+     */
+    public long write(Path outputPath, long copies) throws IOException {
+        Files.createDirectories(outputPath.toAbsolutePath().getParent());
+        long count = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder();
+            for (long copy = 0; copy < copies; copy++) {
+                for (String[] quad : this.template.getQuads()) {
+                    boolean invariant = this.template.isInvariant(quad);
+                    if (invariant && copy > 0) {
+                        continue;
+                    }
+                    line.setLength(0);
+                    line.append(invariant ? quad[0] : rename(quad[0], copy, copies)).append(' ')
+                            .append(quad[1]).append(' ')
+                            .append(invariant ? quad[2] : rename(quad[2], copy, copies));
+                    if (quad[3] != null) {
+                        line.append(' ').append(quad[3]);
+                    }
+                    line.append(" .\n");
+                    writer.append(line);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private String rename(String term, long copy, long copies) {
+        if (!this.template.isRenamable(term)) {
+            return term;
+        }
+        String start = this.chainLinks.get(term);
+        if (start != null && copy + 1 < copies) {
+            return copyName(start, copy + 1);
+        }
+        return copyName(term, copy);
+    }
+
+    private static String copyName(String term, long copy) {
+        if (copy == 0) {
+            return term;
+        }
+        if (term.startsWith("_:")) {
+            return term + "_c" + copy;
+        }
+        return term.substring(0, term.length() - 1) + "-c" + copy + ">";
+    }
+
+    /**
+     * Links each end of the paths of the path predicates, i.e. a renamed node with incoming and no outgoing path
+     * edges, with a start of these paths, i.e. a renamed node with outgoing and no incoming path edges.
+     */
+    private void linkPaths() {
+        Map<String, Integer> outDegrees = new HashMap<>();
+        Map<String, Integer> inDegrees = new HashMap<>();
+        for (String[] quad : this.template.getQuads()) {
+            if (this.template.getPathPredicates().contains(quad[1]) && this.template.isRenamable(quad[0])
+                    && this.template.isRenamable(quad[2])) {
+                outDegrees.merge(quad[0], 1, Integer::sum);
+                inDegrees.merge(quad[2], 1, Integer::sum);
+            }
+        }
+        List<String> starts = new ArrayList<>();
+        for (String node : outDegrees.keySet()) {
+            if (!inDegrees.containsKey(node)) {
+                starts.add(node);
+            }
+        }
+        List<String> ends = new ArrayList<>();
+        for (String node : inDegrees.keySet()) {
+            if (!outDegrees.containsKey(node)) {
+                ends.add(node);
+            }
+        }
+        if (starts.isEmpty() || ends.isEmpty()) {
+            logger.warn("No path of the predicates {} to chain, the copies are disjoint",
+                    this.template.getPathPredicates());
+            return;
+        }
+        // Sorted so that the workload does not depend on the iteration order of the maps
+        Collections.sort(starts);
+        Collections.sort(ends);
+        for (int i = 0; i < ends.size(); i++) {
+            this.chainLinks.put(ends.get(i), starts.get(i % starts.size()));
+        }
+    }
+}
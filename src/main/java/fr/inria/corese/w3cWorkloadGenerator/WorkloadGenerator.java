@@ -0,0 +1,192 @@
+package fr.inria.corese.w3cWorkloadGenerator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.w3cCommandLine.CommandLineArguments;
+import fr.inria.corese.w3cJunitTestsGenerator.Main;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestFileManager;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.TestUtils;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestDescription;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.TestIndex;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory.W3cTestFactory.TestType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Generates scaled workloads from the data of a W3C test, to check that a conformant feature also scales.
+ * <p>
+ * The data graph of the test, with its shapes for a SHACL test, is the template of the workload, see
+ * {@link WorkloadTemplate}, and is copied until each workload reaches its size, see {@link ScaledWorkloadWriter}. The
+ * query or update requests of the test name the IRIs kept in all the copies, and the predicates of their property
+ * paths are chained with "--mode chain".
+ * <p>
+ * Each workload is written in "output/testName-size.nq", with a "output/testName-size.json" file describing it. For a
+ * SHACL test whose copies leave the neighbourhood of the shapes unchanged, this file holds the expected conformity of
+ * the workload, which is the one of the test.
+ */
+public class WorkloadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadGenerator.class);
+
+    private static final String DEFAULT_SIZES = "1000,10000,100000,1000000,10000000";
+    private static final String DEFAULT_OUTPUT = "build/workloads";
+    private static final String USAGE = "Usage: WorkloadGenerator <test URI> [--sizes " + DEFAULT_SIZES
+            + "] [--mode replicate|chain] [--output " + DEFAULT_OUTPUT + "]";
+
+    /**
+     * @param args the URI of a test of an indexed suite, and the options
+     */
+    public static void main(String[] args) {
+        CommandLineArguments commandLine = new CommandLineArguments(args, USAGE);
+        List<Long> sizes = new ArrayList<>();
+        ScaledWorkloadWriter.Mode mode = null;
+        Path output = null;
+        try {
+            for (String size : commandLine.removeOption("--sizes", DEFAULT_SIZES).split(",")) {
+                sizes.add(Long.parseLong(size.trim()));
+            }
+            mode = ScaledWorkloadWriter.Mode.valueOf(
+                    commandLine.removeOption("--mode", "replicate").toUpperCase(Locale.ROOT));
+            output = Path.of(commandLine.removeOption("--output", DEFAULT_OUTPUT));
+        } catch (IllegalArgumentException e) {
+            commandLine.usage("Invalid option value: " + e.getMessage());
+        }
+        List<String> arguments = commandLine.getOperands();
+        if (arguments.size() != 1) {
+            commandLine.usage("Expected a test URI");
+        }
+
+        try {
+            generate(arguments.get(0), sizes, mode, output);
+        } catch (IOException | LoadException e) {
+            logger.error("Workload generation failed", e);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Writes the workloads of a test.
+     *
+     * @param testUri URI of a test of an indexed suite
+     * @param sizes   Number of quads of each workload
+     * @param mode    How the copies of the test data are connected
+     * @param output  Directory of the workload files
+     * @throws IOException   If the suite indexes, the test files or the workload files cannot be read or written
+     * @throws LoadException If a data file of the test cannot be parsed
+     */
+    public static void generate(String testUri, List<Long> sizes, ScaledWorkloadWriter.Mode mode, Path output)
+            throws IOException, LoadException {
+        for (String suiteName : Main.getSuites().keySet()) {
+            Path indexPath = TestIndex.getIndexPath(suiteName);
+            if (!Files.exists(indexPath)) {
+                continue;
+            }
+            TestIndex index = TestIndex.open(indexPath);
+            for (int test = 0; test < index.size(); test++) {
+                if (index.getTestUri(test).equals(testUri)) {
+                    generate(testUri, W3cTestFactory.getTestType(index.getTypeUri(test)),
+                            index.getDescription(test), sizes, mode, output);
+                    return;
+                }
+            }
+        }
+        throw new IOException("Test not found in the suite indexes, generate its suite first: " + testUri);
+    }
+
+    private static void generate(String testUri, TestType type, TestDescription description, List<Long> sizes,
+            ScaledWorkloadWriter.Mode mode, Path output) throws IOException, LoadException {
+        WorkloadTemplate template = createTemplate(testUri, type, description);
+        ScaledWorkloadWriter writer = new ScaledWorkloadWriter(template, mode);
+        boolean conformityPreserved = type == TestType.SHACLValidateTest && description.getConformity() != null
+                && mode == ScaledWorkloadWriter.Mode.REPLICATE && template.preservesAnchorNeighbourhoods();
+
+        String testName = TestUtils.extractLongTestName(testUri);
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        for (long size : sizes) {
+            long copies = writer.getCopies(size);
+            Path workloadPath = output.resolve(testName + "-" + size + ".nq");
+            long quads = writer.write(workloadPath, copies);
+
+            ObjectNode workload = mapper.createObjectNode();
+            workload.put("test", testUri);
+            workload.put("mode", mode.name().toLowerCase(Locale.ROOT));
+            workload.put("size", size);
+            workload.put("copies", copies);
+            workload.put("quads", quads);
+            if (conformityPreserved) {
+                workload.put("conforms", Boolean.parseBoolean(description.getConformity()));
+            }
+            mapper.writeValue(output.resolve(testName + "-" + size + ".json").toFile(), workload);
+            logger.info("Wrote {} quads in {} copies of {}: {}", quads, copies, testUri, workloadPath);
+        }
+    }
+
+    /**
+     * @return the template of the data of the test, anchored by its query, update requests or shapes
+     * @throws IOException If the test has no data to scale
+     */
+    private static WorkloadTemplate createTemplate(String testUri, TestType type, TestDescription description)
+            throws IOException, LoadException {
+        WorkloadTemplate template = new WorkloadTemplate();
+        if (type == null) {
+            throw new IOException("Unsupported test type of " + testUri);
+        }
+        switch (type) {
+            case SPARQLQueryEvaluationTest:
+            case SPARQL11CSVResultFormatTest:
+                template.addGraph(description.getData() != null ? localPath(description.getData())
+                        : Path.of(TestUtils.SAMPLE_DATA_FILE_PATH_STRING), null, false);
+                template.addQuery(Files.readString(localPath(description.getQuery())));
+                break;
+            case SPARQLUpdateEvaluationTest:
+                for (String actionDataFile : new TreeSet<>(description.getActionDataFiles())) {
+                    template.addGraph(localPath(actionDataFile), null, false);
+                }
+                for (Map.Entry<String, String> namedGraph : description.getActionGraphs().entrySet()) {
+                    template.addGraph(localPath(namedGraph.getValue()), namedGraph.getKey(), false);
+                }
+                for (String requestFile : new TreeSet<>(description.getRequestFiles())) {
+                    template.addQuery(Files.readString(localPath(requestFile)));
+                }
+                break;
+            case SHACLValidateTest:
+                template.addGraph(localPath(description.getDataGraph()), null, false);
+                if (!localPath(description.getShapesGraph()).equals(localPath(description.getDataGraph()))) {
+                    template.addGraph(localPath(description.getShapesGraph()), null, true);
+                }
+                break;
+            case RDFC10EvalTest:
+            case RDFC10MapTest:
+            case RDF11NQuadsPositiveSyntaxTest:
+            case RDF11NTriplesPositiveSyntaxTest:
+            case RDF11TrigPositiveSyntaxTest:
+            case RDF11TurtlePositiveSyntaxTest:
+            case RDF11TrigEvalTest:
+            case RDF11TurtleEvalTest:
+            case RDF11XMLEvalTest:
+                template.addGraph(localPath(description.getAction()), null, false);
+                break;
+            default:
+                throw new IOException("No data to scale in the " + type + " test " + testUri);
+        }
+        template.anchorControlTerms();
+        return template;
+    }
+
+    private static Path localPath(String fileUri) {
+        return TestFileManager.getLocalFilePath(URI.create(fileUri));
+    }
+}
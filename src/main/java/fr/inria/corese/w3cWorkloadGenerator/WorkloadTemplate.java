@@ -0,0 +1,236 @@
+package fr.inria.corese.w3cWorkloadGenerator;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.api.core.Edge;
+import fr.inria.corese.core.kgram.api.core.ExpType;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.sparql.api.IDatatype;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison.RdfGraphResults;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Quads of a W3C test used as the template of a scaled workload, see {@link ScaledWorkloadWriter}. The terms are kept
+ * in N-Quads syntax.
+ * <p>
+ * The anchors are the terms that the test names, and that must keep their name in the copies of the template: the
+ * predicates and classes, the IRIs of the query or update requests of the test, and the terms of its shapes and
+ * manifest triples. A quad whose subject and object are anchors or literals is invariant, and is written once.
+ */
+public class WorkloadTemplate {
+
+    public static final String RDF_TYPE = "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type>";
+
+    // Namespaces of the predicates of the shapes and of the test manifests
+    private static final List<String> CONTROL_NAMESPACES = List.of(
+            "<http://www.w3.org/ns/shacl#",
+            "<http://www.w3.org/2001/sw/DataAccess/tests/test-manifest#",
+            "<http://www.w3.org/ns/shacl-test#");
+
+    private static final Pattern PREFIX_DECLARATION = Pattern.compile(
+            "(?i)PREFIX\\s+([A-Za-z][\\w.-]*)?:\\s*<([^<>\\s]*)>");
+    private static final Pattern IRI = Pattern.compile("<([^<>\\s\"]*)>");
+    private static final Pattern PREFIXED_NAME = Pattern.compile(
+            "(?<![\\w?$<])([A-Za-z][\\w.-]*)?:([A-Za-z_][\\w.-]*)");
+    // Predicate followed by the "+" or "*" of a property path
+    private static final Pattern PATH_PREDICATE = Pattern.compile(
+            "(<[^<>\\s\"]*>|(?<![\\w?$<])(?:[A-Za-z][\\w.-]*)?:[A-Za-z_][\\w-]*)\\s*[+*]");
+
+    private final List<String[]> quads = new ArrayList<>();
+    private final Set<String> anchors = new HashSet<>();
+    private final Set<String> pathPredicates = new HashSet<>();
+    // Number of the blank nodes of the template, each one being labelled with its number
+    private int blankNodeCount = 0;
+
+    /**
+     * Adds the triples of an RDF file, in a format guessed from its extension, to the template.
+     *
+     * @param filePath  Path to the file
+     * @param graphName IRI of the named graph of the triples, or null to keep the graphs of the file
+     * @param anchored  If true, all the terms of the file are anchors, e.g. for a shapes graph
+     * @throws LoadException If the file cannot be parsed
+     */
+    public void addGraph(Path filePath, String graphName, boolean anchored) throws LoadException {
+        Graph graph = Graph.create();
+        Load.create(graph).parse(filePath.toString());
+        // Labels of the blank nodes of the file in the template, the blank nodes of different files being distinct
+        Map<String, String> blankNodeLabels = new HashMap<>();
+        for (Edge edge : graph.getEdges()) {
+            String graphTerm = graphName != null ? "<" + graphName + ">"
+                    : toGraphTerm(edge.getGraphValue(), blankNodeLabels);
+            String[] quad = { toTerm(edge.getSubjectValue(), blankNodeLabels),
+                    toTerm(edge.getPredicateValue(), blankNodeLabels), toTerm(edge.getObjectValue(), blankNodeLabels),
+                    graphTerm };
+            this.quads.add(quad);
+            if (anchored) {
+                this.anchors.add(quad[0]);
+                this.anchors.add(quad[2]);
+            }
+        }
+    }
+
+    /**
+     * Anchors the IRIs named by a query or an update request, and records the predicates of its property paths.
+     *
+     * @param query Text of the query
+     */
+    public void addQuery(String query) {
+        Map<String, String> prefixes = new HashMap<>();
+        Matcher prefixMatcher = PREFIX_DECLARATION.matcher(query);
+        while (prefixMatcher.find()) {
+            prefixes.put(prefixMatcher.group(1) != null ? prefixMatcher.group(1) : "", prefixMatcher.group(2));
+        }
+
+        Matcher iriMatcher = IRI.matcher(query);
+        while (iriMatcher.find()) {
+            this.anchors.add(iriMatcher.group());
+        }
+        Matcher prefixedNameMatcher = PREFIXED_NAME.matcher(query);
+        while (prefixedNameMatcher.find()) {
+            String iri = resolve(prefixedNameMatcher.group(), prefixes);
+            if (iri != null) {
+                this.anchors.add(iri);
+            }
+        }
+        Matcher pathMatcher = PATH_PREDICATE.matcher(query);
+        while (pathMatcher.find()) {
+            String iri = resolve(pathMatcher.group(1), prefixes);
+            if (iri != null) {
+                this.pathPredicates.add(iri);
+            }
+        }
+    }
+
+    /**
+     * Anchors the predicates, the classes, and the terms of the triples of the shapes and of the test manifests found
+     * in the data of the test, i.e. of the triples of the subjects of a SHACL or manifest predicate, and of the blank
+     * nodes they reach, such as the nested shapes and the RDF lists. To be called once all the graphs are added.
+     */
+    public void anchorControlTerms() {
+        Map<String, List<String[]>> quadsBySubject = new HashMap<>();
+        Deque<String> pending = new ArrayDeque<>();
+        for (String[] quad : this.quads) {
+            quadsBySubject.computeIfAbsent(quad[0], subject -> new ArrayList<>()).add(quad);
+            this.anchors.add(quad[1]);
+            if (quad[1].equals(RDF_TYPE)) {
+                this.anchors.add(quad[2]);
+            }
+            for (String namespace : CONTROL_NAMESPACES) {
+                if (quad[1].startsWith(namespace)) {
+                    pending.add(quad[0]);
+                }
+            }
+        }
+
+        Set<String> controlSubjects = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String subject = pending.poll();
+            if (!controlSubjects.add(subject)) {
+                continue;
+            }
+            for (String[] quad : quadsBySubject.getOrDefault(subject, List.of())) {
+                this.anchors.add(quad[0]);
+                this.anchors.add(quad[2]);
+                if (quad[2].startsWith("_:")) {
+                    pending.add(quad[2]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the quads of the template, as subject, predicate, object and graph terms, the graph being null for the
+     * default graph
+     */
+    public List<String[]> getQuads() {
+        return this.quads;
+    }
+
+    /**
+     * @return the IRIs of the predicates of the property paths of the queries
+     */
+    public Set<String> getPathPredicates() {
+        return this.pathPredicates;
+    }
+
+    /**
+     * @param term Term in N-Quads syntax
+     * @return true if the term is an IRI or a blank node renamed in each copy of the template
+     */
+    public boolean isRenamable(String term) {
+        return (term.startsWith("<") || term.startsWith("_:")) && !this.anchors.contains(term);
+    }
+
+    /**
+     * @param quad Quad of the template
+     * @return true if the quad is the same in all the copies of the template
+     */
+    public boolean isInvariant(String[] quad) {
+        return !isRenamable(quad[0]) && !isRenamable(quad[2]);
+    }
+
+    /**
+     * @return the number of invariant quads of the template
+     */
+    public long getInvariantCount() {
+        return this.quads.stream().filter(this::isInvariant).count();
+    }
+
+    /**
+     * Tells whether copying the template leaves the neighbourhood of its anchors unchanged, apart from the instances
+     * of its classes. The copies of the data of a SHACL test then conform to its shapes if and only if the data does.
+     *
+     * @return true if the subject of each variant quad is renamed, and its object is renamed, a literal or a class
+     */
+    public boolean preservesAnchorNeighbourhoods() {
+        for (String[] quad : this.quads) {
+            if (isInvariant(quad)) {
+                continue;
+            }
+            if (!isRenamable(quad[0])
+                    || !(isRenamable(quad[2]) || quad[2].startsWith("\"") || quad[1].equals(RDF_TYPE))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String resolve(String name, Map<String, String> prefixes) {
+        if (name.startsWith("<")) {
+            return name;
+        }
+        // The dot ending a triple pattern is not part of the name
+        String prefixedName = name.endsWith(".") ? name.substring(0, name.length() - 1) : name;
+        int colon = prefixedName.indexOf(':');
+        String namespace = prefixes.get(prefixedName.substring(0, colon));
+        return namespace != null ? "<" + namespace + prefixedName.substring(colon + 1) + ">" : null;
+    }
+
+    private String toGraphTerm(IDatatype graph, Map<String, String> blankNodeLabels) {
+        return graph == null || graph.getLabel().equals(ExpType.DEFAULT_GRAPH) ? null
+                : toTerm(graph, blankNodeLabels);
+    }
+
+    /**
+     * @param blankNodeLabels Labels given so far to the blank nodes of the file, by Corese label
+     * @return the term in N-Quads syntax, a blank node being relabelled "b" followed by its number in the template, so
+     *         that the labels are valid N-Quads labels and distinct blank nodes keep distinct labels
+     */
+    private String toTerm(IDatatype value, Map<String, String> blankNodeLabels) {
+        if (value.isBlank()) {
+            return blankNodeLabels.computeIfAbsent(value.getLabel(), label -> "_:b" + this.blankNodeCount++);
+        }
+        return RdfGraphResults.toRdfTerm(value).toString();
+    }
+}
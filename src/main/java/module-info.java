@@ -3,5 +3,9 @@ module fr.inria.corese.corese_w3c {
     requires fr.inria.corese.corese_core;
     requires org.slf4j;
     requires java.xml;
+    requires java.management;
+    requires jdk.management;
     requires com.fasterxml.jackson.databind;
+    requires org.apache.httpcomponents.client5.httpclient5;
+    requires org.apache.httpcomponents.core5.httpcore5;
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+package fr.inria.corese.w3c;
+
+import fr.inria.corese.w3cJunitTestsGenerator.JUnitTestFileGenerator;
+import fr.inria.corese.w3cJunitTestsGenerator.Main;
+import fr.inria.corese.w3cJunitTestsGenerator.W3cTestsGenerator;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.IW3cTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.implementations.SHACLValidateTest;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetrics;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestMetricsCollector;
+import fr.inria.corese.w3cJunitTestsGenerator.w3cTests.report.TestReportCollector;
+import org.junit.AssumptionViolatedException;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * JUnit runner executing the W3C tests directly from their manifests, with {@link IW3cTest#execute()}, instead of
+ * through the generated test classes. The test set is read at run time, from the index of each suite or from its
+ * manifests, so that it does not need a compilation, and can be filtered and sharded at run time:
+ * <ul>
+ * <li>"corese.w3c.suites": comma-separated names of the suites to run, e.g. "rdf11turtle,sparql11", or "all". No test
+ * is run by default, so that the generated classes and this runner do not run the same tests twice,</li>
+ * <li>"corese.w3c.filter": regular expression that the "suite/testMethodName" of a test must contain to be run,</li>
+ * <li>"corese.w3c.shard": "index/count", e.g. "2/4", to run only the second quarter of the selected tests, split by
+ * hash of their name so that a shard does not change when tests are added to the others.</li>
+ * </ul>
+ * The SHACL tests validate in the test JVM when "corese.w3c.shacl.inProcess" is true, see
+ * {@link SHACLValidateTest#setInProcessMode(boolean)}.
+ * <p>
+ * The tests run on a pool of threads of "corese.w3c.parallelism" threads, as the generated classes. They share the warm
+ * engines of the process, i.e. the command runner and the graph cache. The outcomes are written in the
+ * manifestRunReport.csv file of each suite, and their timings in its manifestRunMetrics.csv file, suffixed by the shard,
+ * e.g. manifestRunReport-2of4.csv. These files are distinct from the testReport*.csv and testMetrics*.csv files of the
+ * generated classes, so that they neither overwrite them nor are merged with them in the EARL report.
+ */
+public class ManifestTestRunner extends ParentRunner<ManifestTestRunner.ManifestTest> {
+
+    public static final String SUITES_PROPERTY = "corese.w3c.suites";
+    public static final String FILTER_PROPERTY = "corese.w3c.filter";
+    public static final String SHARD_PROPERTY = "corese.w3c.shard";
+
+    private static final String REPORT_FILE_PREFIX = "manifestRunReport";
+    private static final String METRICS_FILE_PREFIX = "manifestRunMetrics";
+    private static final String REPORT_FILE_EXTENSION = ".csv";
+
+    private final List<ManifestTest> tests;
+
+    public ManifestTestRunner(Class<?> testClass) throws InitializationError {
+        super(testClass);
+        SHACLValidateTest.setInProcessMode(Boolean.getBoolean(Main.SHACL_IN_PROCESS_PROPERTY));
+        this.tests = loadTests();
+        int threads = Integer.getInteger(ParallelTestRunner.PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+        if (threads > 1) {
+            setScheduler(new ParallelTestRunner.ThreadPoolScheduler(threads));
+        }
+    }
+
+    @Override
+    protected List<ManifestTest> getChildren() {
+        return this.tests;
+    }
+
+    @Override
+    protected Description describeChild(ManifestTest child) {
+        return child.description;
+    }
+
+    @Override
+    protected void runChild(ManifestTest child, RunNotifier notifier) {
+        notifier.fireTestStarted(child.description);
+        TestMetrics.start();
+        try {
+            child.test.execute();
+            child.record("passed");
+        } catch (AssumptionViolatedException e) {
+            child.record("untested");
+            notifier.fireTestAssumptionFailed(new Failure(child.description, e));
+        } catch (Throwable e) {
+            child.record("failed");
+            notifier.fireTestFailure(new Failure(child.description, e));
+        } finally {
+            notifier.fireTestFinished(child.description);
+        }
+    }
+
+    /**
+     * Writes the report and metrics files of the suites once all the tests have run
+     */
+    @Override
+    protected Statement classBlock(RunNotifier notifier) {
+        Statement statement = super.classBlock(notifier);
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                try {
+                    statement.evaluate();
+                } finally {
+                    Set<TestReportCollector> reports = new LinkedHashSet<>();
+                    Set<TestMetricsCollector> metrics = new LinkedHashSet<>();
+                    for (ManifestTest test : getChildren()) {
+                        reports.add(test.report);
+                        metrics.add(test.metrics);
+                    }
+                    for (TestReportCollector report : reports) {
+                        report.flush();
+                    }
+                    for (TestMetricsCollector suiteMetrics : metrics) {
+                        suiteMetrics.flush();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the tests of the selected suites, filtered and sharded according to the system properties
+     */
+    private List<ManifestTest> loadTests() throws InitializationError {
+        Pattern filter = Pattern.compile(System.getProperty(FILTER_PROPERTY, ""));
+        int shardIndex = 0;
+        int shardCount = 1;
+        String shard = System.getProperty(SHARD_PROPERTY, "");
+        if (!shard.isEmpty()) {
+            String[] shardParts = shard.split("/");
+            try {
+                shardIndex = Integer.parseInt(shardParts[0].trim()) - 1;
+                shardCount = Integer.parseInt(shardParts[1].trim());
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new InitializationError("Invalid " + SHARD_PROPERTY + " \"" + shard + "\", expected \"index/count\"");
+            }
+            if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+                throw new InitializationError("Invalid " + SHARD_PROPERTY + " \"" + shard + "\", expected 1 <= index <= count");
+            }
+        }
+
+        String fileSuffix = (shardCount > 1 ? "-" + (shardIndex + 1) + "of" + shardCount : "") + REPORT_FILE_EXTENSION;
+        List<ManifestTest> selectedTests = new ArrayList<>();
+        for (Map.Entry<String, String> suite : getSelectedSuites().entrySet()) {
+            String suiteName = suite.getKey();
+            URI manifestUri = URI.create(suite.getValue());
+            W3cTestsGenerator generator = new W3cTestsGenerator(suiteName, manifestUri, Main.TESTS_PATH_DIR);
+            Path reportPath = Paths.get(System.getProperty("user.dir")).resolve(JUnitTestFileGenerator
+                    .getRelativeReportPath(Main.TESTS_PATH_DIR.resolve(suiteName), REPORT_FILE_PREFIX + fileSuffix));
+            TestReportCollector report = TestReportCollector.forReport(reportPath.toString(),
+                    JUnitTestFileGenerator.getReportManifestUri(manifestUri));
+            Path metricsPath = Paths.get(System.getProperty("user.dir")).resolve(JUnitTestFileGenerator
+                    .getRelativeReportPath(Main.TESTS_PATH_DIR.resolve(suiteName), METRICS_FILE_PREFIX + fileSuffix));
+            TestMetricsCollector metrics = TestMetricsCollector.forMetrics(metricsPath.toString(),
+                    JUnitTestFileGenerator.getReportManifestUri(manifestUri));
+
+            for (IW3cTest test : generator.loadTestCases()) {
+                String testId = suiteName + "/" + test.getMethodName();
+                if (!filter.matcher(testId).find() || Math.floorMod(testId.hashCode(), shardCount) != shardIndex) {
+                    continue;
+                }
+                // Named as the tests of a parameterized runner, so that build tools select them with the runner class
+                Description description = Description.createTestDescription(getTestClass().getJavaClass(),
+                        test.getMethodName() + "[" + suiteName + "]");
+                selectedTests.add(new ManifestTest(test, description, report, metrics));
+            }
+        }
+        return selectedTests;
+    }
+
+    /**
+     * @return the suites named by the "corese.w3c.suites" system property, with their manifest URI
+     */
+    private static Map<String, String> getSelectedSuites() throws InitializationError {
+        String suites = System.getProperty(SUITES_PROPERTY, "").trim();
+        if (suites.equals("all")) {
+            return Main.getSuites();
+        }
+        Map<String, String> selectedSuites = new LinkedHashMap<>();
+        for (String suiteName : suites.split(",")) {
+            suiteName = suiteName.trim();
+            if (suiteName.isEmpty()) {
+                continue;
+            }
+            String manifestUri = Main.getSuites().get(suiteName);
+            if (manifestUri == null) {
+                throw new InitializationError("Unknown suite \"" + suiteName + "\" in " + SUITES_PROPERTY
+                        + ", expected one of " + Arrays.toString(Main.getSuites().keySet().toArray()));
+            }
+            selectedSuites.put(suiteName, manifestUri);
+        }
+        return selectedSuites;
+    }
+
+    /**
+     * Test of a manifest, with its JUnit description and the report and metrics of its suite
+     */
+    static class ManifestTest {
+        private final IW3cTest test;
+        private final Description description;
+        private final TestReportCollector report;
+        private final TestMetricsCollector metrics;
+
+        ManifestTest(IW3cTest test, Description description, TestReportCollector report,
+                TestMetricsCollector metrics) {
+            this.test = test;
+            this.description = description;
+            this.report = report;
+            this.metrics = metrics;
+        }
+
+        private void record(String outcome) {
+            this.report.record(this.test.getMethodName(), outcome);
+            this.metrics.record(this.test.getMethodName(), outcome);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package fr.inria.corese.w3c;
+
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JUnit runner of the generated test classes that executes the test methods of a class on a pool of threads.
+ * The number of threads is given by the system property "corese.w3c.parallelism" (default: number of cores), a value
+ * of 1 runs the tests sequentially.
+ */
+public class ParallelTestRunner extends BlockJUnit4ClassRunner {
+
+    public static final String PARALLELISM_PROPERTY = "corese.w3c.parallelism";
+
+    public ParallelTestRunner(Class<?> testClass) throws InitializationError {
+        super(testClass);
+        int threads = Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+        if (threads > 1) {
+            setScheduler(new ThreadPoolScheduler(threads));
+        }
+    }
+
+    /**
+     * Scheduler submitting each test method to a fixed thread pool and waiting for all of them at the end of the class
+     */
+    static class ThreadPoolScheduler implements RunnerScheduler {
+
+        private final ExecutorService executor;
+
+        ThreadPoolScheduler(int threads) {
+            this.executor = Executors.newFixedThreadPool(threads);
+        }
+
+        @Override
+        public void schedule(Runnable childStatement) {
+            this.executor.submit(childStatement);
+        }
+
+        @Override
+        public void finished() {
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                this.executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package fr.inria.corese.w3c;
+
+import org.junit.runner.RunWith;
+
+/**
+ * Runs the W3C tests of the suites given by the system property "corese.w3c.suites" directly from their manifests,
+ * without generated test classes, e.g.
+ * <pre>./gradlew test --tests fr.inria.corese.w3c.W3cManifestTests -Dcorese.w3c.suites=rdf11turtle</pre>
+ *
+ * @see ManifestTestRunner
+ */
+@RunWith(ManifestTestRunner.class)
+public class W3cManifestTests {
+}
@@ -0,0 +1,138 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GraphComparatorTest {
+
+    private static final String PREFIXES = "@prefix ex: <http://example.org/> .\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private int fileCount = 0;
+
+    @Test
+    public void identicalGroundDatasetsAreIsomorphic() throws Exception {
+        String dataset = "ex:g0 { ex:a ex:p ex:b } ex:g1 { ex:a ex:p \"v\" } ex:g2 { ex:a ex:p ex:c }";
+
+        GraphDiff diff = GraphComparator.compare(load(dataset), load(dataset));
+        assertTrue(diff.toString(), diff.isEmpty());
+    }
+
+    @Test
+    public void groundQuadsAreReportedOneByOne() throws Exception {
+        GraphDiff diff = GraphComparator.compare(
+                load("ex:g1 { ex:a ex:p ex:b . ex:a ex:p ex:c } ex:g2 { ex:a ex:p ex:b }"),
+                load("ex:g1 { ex:a ex:p ex:b . ex:a ex:p ex:d } ex:g2 { ex:a ex:p ex:b }"));
+
+        assertEquals(List.of("<http://example.org/a> <http://example.org/p> <http://example.org/c> "
+                + "<http://example.org/g1> ."), diff.getMissingQuads());
+        assertEquals(List.of("<http://example.org/a> <http://example.org/p> <http://example.org/d> "
+                + "<http://example.org/g1> ."), diff.getExtraQuads());
+    }
+
+    @Test
+    public void quadsInAnotherGraphDiffer() throws Exception {
+        GraphDiff diff = GraphComparator.compare(load("ex:g1 { ex:a ex:p ex:b }"), load("ex:g2 { ex:a ex:p ex:b }"));
+
+        assertEquals(List.of("<http://example.org/g1>: 1 expected quad(s), 0 actual",
+                "<http://example.org/g2>: 0 expected quad(s), 1 actual"), diff.getSizeDifferences());
+        assertTrue(diff.getMissingQuads().isEmpty());
+    }
+
+    @Test
+    public void renamedBlankNodesAreIsomorphic() throws Exception {
+        GraphDiff diff = GraphComparator.compare(
+                load("ex:g0 { ex:a ex:p ex:b } ex:g1 { _:x ex:p _:y . _:y ex:q ex:c } ex:g2 { _:x ex:r \"v\" }"),
+                load("ex:g0 { ex:a ex:p ex:b } ex:g2 { _:n1 ex:r \"v\" } ex:g1 { _:n2 ex:q ex:c . _:n1 ex:p _:n2 }"));
+
+        assertTrue(diff.toString(), diff.isEmpty());
+    }
+
+    @Test
+    public void blankNodesSharedAcrossNamedGraphsAreMatched() throws Exception {
+        // The same blank node in both graphs against a distinct blank node in each graph
+        String shared = "ex:g1 { _:x ex:p ex:a } ex:g2 { _:x ex:q ex:b }";
+        String distinct = "ex:g1 { _:x ex:p ex:a } ex:g2 { _:y ex:q ex:b }";
+
+        assertTrue(GraphComparator.compare(load(shared), load("ex:g2 { _:z ex:q ex:b } ex:g1 { _:z ex:p ex:a }"))
+                .isEmpty());
+        GraphDiff diff = GraphComparator.compare(load(shared), load(distinct));
+        assertFalse(diff.isEmpty());
+        assertFalse(GraphComparator.compare(load(distinct), load(shared)).isEmpty());
+        // Quads with blank nodes cannot be paired, all of them are reported
+        assertEquals(2, diff.getMissingQuads().size());
+        assertEquals(2, diff.getExtraQuads().size());
+    }
+
+    @Test
+    public void equalCountsPerGraphWithNonIsomorphicContentDiffer() throws Exception {
+        GraphDiff diff = GraphComparator.compare(
+                load("ex:g1 { _:x ex:p _:x . _:y ex:p ex:a } ex:g0 { ex:a ex:p ex:b }"),
+                load("ex:g1 { _:x ex:p _:y . _:y ex:p ex:a } ex:g0 { ex:a ex:p ex:b }"));
+
+        assertFalse(diff.isEmpty());
+        assertEquals(2, diff.getMissingQuads().size());
+        assertEquals(2, diff.getExtraQuads().size());
+    }
+
+    @Test
+    public void differentCountsPerGraphDiffer() throws Exception {
+        GraphDiff diff = GraphComparator.compare(
+                load("ex:g1 { _:x ex:p ex:a } ex:g2 { _:y ex:p ex:a }"),
+                load("ex:g1 { _:x ex:p ex:a . _:y ex:p ex:a }"));
+
+        assertFalse(diff.isEmpty());
+        assertEquals(2, diff.getSizeDifferences().size());
+    }
+
+    @Test
+    public void differentTotalCountsDiffer() throws Exception {
+        GraphDiff diff = GraphComparator.compare(load("ex:g1 { ex:a ex:p ex:b }"),
+                load("ex:g1 { ex:a ex:p ex:b . ex:a ex:p ex:c }"));
+
+        assertEquals(List.of("dataset: 1 expected quad(s), 2 actual"), diff.getSizeDifferences());
+        assertTrue(diff.toString(), diff.toString().startsWith("Datasets differ in size"));
+    }
+
+    @Test
+    public void groundDifferencesAreReportedAlongIsomorphicBlankNodes() throws Exception {
+        GraphDiff diff = GraphComparator.compare(
+                load("ex:g1 { _:x ex:p ex:a . ex:a ex:p ex:b }"),
+                load("ex:g1 { _:y ex:p ex:a . ex:a ex:p ex:c }"));
+
+        assertEquals(1, diff.getMissingQuads().size());
+        assertEquals(1, diff.getExtraQuads().size());
+    }
+
+    /**
+     * Load puts the default graph of a file in a graph named after the file, the quads of the tests are in named
+     * graphs so that the datasets of different files can be equal.
+     *
+     * @param trig Content of a TriG file, without the prefixes
+     * @return the dataset of the content
+     */
+    private Graph load(String trig) throws IOException, LoadException {
+        Path file = folder.getRoot().toPath().resolve("dataset" + fileCount++ + ".trig");
+        Files.write(file, (PREFIXES + trig).getBytes(StandardCharsets.UTF_8));
+        Graph graph = Graph.create();
+        graph.init();
+        Load.create(graph).parse(file.toString());
+        return graph;
+    }
+}
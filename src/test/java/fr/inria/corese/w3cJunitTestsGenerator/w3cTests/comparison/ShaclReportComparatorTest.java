@@ -0,0 +1,209 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShaclReportComparatorTest {
+
+    private static final String TEST_URI = "https://w3c.github.io/data-shapes/data-shapes-test-suite/tests/core/t1.ttl";
+    private static final String PREFIXES = "@prefix ex: <http://example.org/> .\n"
+            + "@prefix mf: <http://www.w3.org/2001/sw/DataAccess/tests/test-manifest#> .\n"
+            + "@prefix sh: <http://www.w3.org/ns/shacl#> .\n"
+            + "@prefix sht: <http://www.w3.org/ns/shacl-test#> .\n";
+    private static final String MIN_COUNT_RESULT = "[ a sh:ValidationResult ;\n"
+            + "    sh:focusNode ex:alice ;\n"
+            + "    sh:resultPath ex:name ;\n"
+            + "    sh:resultSeverity sh:Violation ;\n"
+            + "    sh:sourceConstraintComponent sh:MinCountConstraintComponent ;\n"
+            + "    sh:sourceShape ex:PersonShape ]";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void equalReportsHaveNoDifference() throws Exception {
+        ShaclReportDiff diff = compare(report("false", MIN_COUNT_RESULT), report("false", MIN_COUNT_RESULT));
+
+        assertTrue(diff.toString(), diff.isEmpty());
+        assertEquals("false", diff.getExpectedConforms());
+        assertEquals("false", diff.getActualConforms());
+    }
+
+    @Test
+    public void conformingReportsHaveNoDifference() throws Exception {
+        assertTrue(compare(report("true"), report("true")).isEmpty());
+    }
+
+    @Test
+    public void differentConformityIsADifference() throws Exception {
+        ShaclReportDiff diff = compare(report("true"), report("false"));
+
+        assertFalse(diff.isEmpty());
+        assertTrue(diff.getMissingResults().isEmpty());
+        assertTrue(diff.getExtraResults().isEmpty());
+    }
+
+    @Test
+    public void missingReportIsADifference() throws Exception {
+        ShaclReportDiff diff = compare(report("true"), "ex:a ex:p ex:b .");
+
+        assertFalse(diff.isEmpty());
+        assertNull(diff.getActualConforms());
+    }
+
+    @Test
+    public void resultsAreComparedAsMultisets() throws Exception {
+        ShaclReportDiff diff = compare(report("false", MIN_COUNT_RESULT, MIN_COUNT_RESULT),
+                report("false", MIN_COUNT_RESULT));
+
+        assertFalse(diff.isEmpty());
+        assertEquals(1, diff.getMissingResults().size());
+        assertTrue(diff.getExtraResults().isEmpty());
+
+        diff = compare(report("false", MIN_COUNT_RESULT), report("false", MIN_COUNT_RESULT, MIN_COUNT_RESULT));
+        assertTrue(diff.getMissingResults().isEmpty());
+        assertEquals(1, diff.getExtraResults().size());
+    }
+
+    @Test
+    public void differentResultsAreReportedAsMissingAndExtra() throws Exception {
+        String otherFocusNode = MIN_COUNT_RESULT.replace("ex:alice", "ex:bob");
+        ShaclReportDiff diff = compare(report("false", MIN_COUNT_RESULT), report("false", otherFocusNode));
+
+        assertEquals(1, diff.getMissingResults().size());
+        assertTrue(diff.getMissingResults().get(0).contains("focusNode=<http://example.org/alice>"));
+        assertEquals(1, diff.getExtraResults().size());
+        assertTrue(diff.getExtraResults().get(0).contains("focusNode=<http://example.org/bob>"));
+    }
+
+    @Test
+    public void eachKeyPropertyIsCompared() throws Exception {
+        List<String> changedResults = List.of(
+                MIN_COUNT_RESULT.replace("sh:resultPath ex:name", "sh:resultPath ex:email"),
+                MIN_COUNT_RESULT.replace("sh:Violation", "sh:Warning"),
+                MIN_COUNT_RESULT.replace("ex:PersonShape", "ex:OtherShape"),
+                MIN_COUNT_RESULT.replace("sh:MinCountConstraintComponent", "sh:MaxCountConstraintComponent"),
+                MIN_COUNT_RESULT.replace("sh:sourceShape", "sh:value 42 ; sh:sourceShape"));
+        for (String changedResult : changedResults) {
+            assertFalse(changedResult, compare(report("false", MIN_COUNT_RESULT), report("false", changedResult))
+                    .isEmpty());
+        }
+    }
+
+    @Test
+    public void blankNodesMatchAnyBlankNode() throws Exception {
+        String blankNodeResult = MIN_COUNT_RESULT.replace("ex:alice", "_:a").replace("ex:PersonShape", "_:s")
+                .replace("sh:sourceShape", "sh:value _:v ; sh:sourceShape");
+        String renamedResult = MIN_COUNT_RESULT.replace("ex:alice", "_:x").replace("ex:PersonShape", "_:y")
+                .replace("sh:sourceShape", "sh:value _:z ; sh:sourceShape");
+
+        assertTrue(compare(report("false", blankNodeResult), report("false", renamedResult)).isEmpty());
+        // A blank node does not match an IRI
+        assertFalse(compare(report("false", blankNodeResult), report("false", MIN_COUNT_RESULT)).isEmpty());
+    }
+
+    @Test
+    public void blankNodePathsAreComparedByTheirStructure() throws Exception {
+        String inversePath = MIN_COUNT_RESULT.replace("sh:resultPath ex:name", "sh:resultPath [ sh:inversePath ex:knows ]");
+        String otherInversePath = inversePath.replace("ex:knows", "ex:likes");
+        String sequencePath = MIN_COUNT_RESULT.replace("sh:resultPath ex:name",
+                "sh:resultPath ( ex:knows [ sh:zeroOrMorePath ex:name ] )");
+        String otherSequencePath = MIN_COUNT_RESULT.replace("sh:resultPath ex:name",
+                "sh:resultPath ( [ sh:zeroOrMorePath ex:name ] ex:knows )");
+
+        assertTrue(compare(report("false", inversePath), report("false", inversePath)).isEmpty());
+        assertFalse(compare(report("false", inversePath), report("false", otherInversePath)).isEmpty());
+        assertFalse(compare(report("false", inversePath), report("false", MIN_COUNT_RESULT)).isEmpty());
+        assertTrue(compare(report("false", sequencePath), report("false", sequencePath)).isEmpty());
+        assertFalse(compare(report("false", sequencePath), report("false", otherSequencePath)).isEmpty());
+
+        ShaclReportDiff diff = compare(report("false", inversePath), report("false", otherInversePath));
+        assertTrue(diff.getMissingResults().get(0),
+                diff.getMissingResults().get(0).contains("path=[ <http://www.w3.org/ns/shacl#inversePath> "
+                        + "<http://example.org/knows> ]"));
+    }
+
+    @Test
+    public void testIsFoundInTheManifestOfTheLocalCopy() throws Exception {
+        // The local manifest declares two tests, the relative IRIs being resolved against the local file
+        Graph manifest = load("manifest.ttl", PREFIXES
+                + "<t1.ttl> a sht:Validate ; mf:result [ a sh:ValidationReport ; sh:conforms true ] .\n"
+                + "<t2.ttl> a sht:Validate ; mf:result [ a sh:ValidationReport ; sh:conforms false ] .\n");
+        Graph conforming = load("actual.ttl", PREFIXES + report("true"));
+
+        assertTrue(ShaclReportComparator.compare(manifest, TEST_URI, conforming).isEmpty());
+        assertFalse(ShaclReportComparator.compare(manifest, TEST_URI.replace("t1", "t2"), conforming).isEmpty());
+        // Indexed once, the same result on the next comparisons
+        assertTrue(ShaclReportComparator.compare(manifest, TEST_URI, conforming).isEmpty());
+        // No expected report
+        assertFalse(ShaclReportComparator.compare(manifest, TEST_URI.replace("t1", "t3"), conforming).isEmpty());
+    }
+
+    @Test
+    public void exactTestIriIsPreferredToTheLastSegment() throws Exception {
+        Graph conforming = load("actual.ttl", PREFIXES + report("true"));
+        Graph manifest = load("manifest.ttl", PREFIXES
+                + "<other/t1.ttl> a sht:Validate ; mf:result [ a sh:ValidationReport ; sh:conforms false ] .\n"
+                + "<" + TEST_URI + "> a sht:Validate ; mf:result [ a sh:ValidationReport ; sh:conforms true ] .\n");
+
+        assertTrue(ShaclReportComparator.compare(manifest, TEST_URI, conforming).isEmpty());
+    }
+
+    @Test
+    public void lastSegmentMatchTakesTheSmallestIri() throws Exception {
+        Graph conforming = load("actual.ttl", PREFIXES + report("true"));
+        Graph manifest = load("manifest.ttl", PREFIXES
+                + "<b/t1.ttl> a sht:Validate ; mf:result [ a sh:ValidationReport ; sh:conforms false ] .\n"
+                + "<a/t1.ttl> a sht:Validate ; mf:result [ a sh:ValidationReport ; sh:conforms true ] .\n"
+                + "<c/t1.ttl> a sht:Validate ; mf:result [ a sh:ValidationReport ; sh:conforms false ] .\n");
+
+        assertTrue(ShaclReportComparator.compare(manifest, TEST_URI, conforming).isEmpty());
+    }
+
+    /**
+     * @param expectedReport Expected report, declared as the mf:result of the test in a manifest
+     * @param actualReport   Actual report
+     */
+    private ShaclReportDiff compare(String expectedReport, String actualReport) throws IOException, LoadException {
+        String manifest = PREFIXES + "<t1.ttl> a sht:Validate ;\n  mf:result "
+                + expectedReport.substring(0, expectedReport.length() - 2) + " .\n";
+        return ShaclReportComparator.compare(load("manifest.ttl", manifest), TEST_URI,
+                load("actual.ttl", PREFIXES + actualReport));
+    }
+
+    /**
+     * @return a validation report in Turtle, ending with " ."
+     */
+    private static String report(String conforms, String... results) {
+        StringBuilder sb = new StringBuilder("[ a sh:ValidationReport ;\n  sh:conforms ").append(conforms);
+        for (String result : results) {
+            sb.append(" ;\n  sh:result ").append(result);
+        }
+        return sb.append("\n] .").toString();
+    }
+
+    private Graph load(String fileName, String turtle) throws IOException, LoadException {
+        Path directory = folder.newFolder().toPath();
+        Path file = directory.resolve(fileName);
+        Files.write(file, turtle.getBytes(StandardCharsets.UTF_8));
+        Graph graph = Graph.create();
+        graph.init();
+        Load.create(graph).parse(file.toString());
+        return graph;
+    }
+}
@@ -0,0 +1,328 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.comparison;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SparqlResultSetComparatorTest {
+
+    private static final String EX = "http://example.org/";
+    private static final String XSD_INTEGER = "http://www.w3.org/2001/XMLSchema#integer";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void isomorphicBlankNodeSolutionsAreEquivalent() {
+        // _:a and _:b are linked to each other in the same way as _:y and _:x
+        SparqlResultSet expected = resultSet(List.of("s", "o"),
+                solution("s", bnode("a"), "o", bnode("b")),
+                solution("s", bnode("b"), "o", iri("end")));
+        SparqlResultSet actual = resultSet(List.of("o", "s"),
+                solution("s", bnode("x"), "o", iri("end")),
+                solution("s", bnode("y"), "o", bnode("x")));
+
+        assertTrue(SparqlResultSetComparator.areEquivalent(expected, actual));
+    }
+
+    @Test
+    public void nonIsomorphicBlankNodeSolutionsAreNotEquivalent() {
+        // Same solutions up to the blank nodes, but a single blank node on one side and two on the other
+        SparqlResultSet expected = resultSet(List.of("s", "o"),
+                solution("s", bnode("a"), "o", iri("p")),
+                solution("s", bnode("a"), "o", iri("q")));
+        SparqlResultSet actual = resultSet(List.of("s", "o"),
+                solution("s", bnode("x"), "o", iri("p")),
+                solution("s", bnode("y"), "o", iri("q")));
+
+        assertFalse(SparqlResultSetComparator.areEquivalent(expected, actual));
+        assertFalse(SparqlResultSetComparator.areEquivalent(actual, expected));
+    }
+
+    @Test
+    public void blankNodeRenamingIsSharedByAllSolutions() {
+        // A cycle of length 4 against two cycles of length 2: every blank node looks alike locally
+        SparqlResultSet cycle = resultSet(List.of("s", "o"),
+                solution("s", bnode("a"), "o", bnode("b")),
+                solution("s", bnode("b"), "o", bnode("c")),
+                solution("s", bnode("c"), "o", bnode("d")),
+                solution("s", bnode("d"), "o", bnode("a")));
+        SparqlResultSet twoCycles = resultSet(List.of("s", "o"),
+                solution("s", bnode("w"), "o", bnode("x")),
+                solution("s", bnode("x"), "o", bnode("w")),
+                solution("s", bnode("y"), "o", bnode("z")),
+                solution("s", bnode("z"), "o", bnode("y")));
+        SparqlResultSet renamedCycle = resultSet(List.of("s", "o"),
+                solution("s", bnode("n3"), "o", bnode("n0")),
+                solution("s", bnode("n1"), "o", bnode("n2")),
+                solution("s", bnode("n0"), "o", bnode("n1")),
+                solution("s", bnode("n2"), "o", bnode("n3")));
+
+        assertFalse(SparqlResultSetComparator.areEquivalent(cycle, twoCycles));
+        assertTrue(SparqlResultSetComparator.areEquivalent(cycle, renamedCycle));
+    }
+
+    @Test
+    public void duplicateSolutionsAreCountedAsAMultiset() {
+        SparqlResultSet twice = resultSet(List.of("x"),
+                solution("x", iri("a")),
+                solution("x", iri("a")),
+                solution("x", iri("b")));
+        SparqlResultSet once = resultSet(List.of("x"),
+                solution("x", iri("a")),
+                solution("x", iri("b")),
+                solution("x", iri("b")));
+        SparqlResultSet reordered = resultSet(List.of("x"),
+                solution("x", iri("b")),
+                solution("x", iri("a")),
+                solution("x", iri("a")));
+
+        assertFalse(SparqlResultSetComparator.areEquivalent(twice, once));
+        assertTrue(SparqlResultSetComparator.areEquivalent(twice, reordered));
+    }
+
+    @Test
+    public void duplicateBlankNodeSolutionsAreCountedAsAMultiset() {
+        SparqlResultSet expected = resultSet(List.of("x"),
+                solution("x", bnode("a")),
+                solution("x", bnode("a")));
+        SparqlResultSet sameNode = resultSet(List.of("x"),
+                solution("x", bnode("b")),
+                solution("x", bnode("b")));
+        SparqlResultSet twoNodes = resultSet(List.of("x"),
+                solution("x", bnode("b")),
+                solution("x", bnode("c")));
+
+        assertTrue(SparqlResultSetComparator.areEquivalent(expected, sameNode));
+        assertFalse(SparqlResultSetComparator.areEquivalent(expected, twoNodes));
+    }
+
+    @Test
+    public void unboundVariablesDifferFromBoundOnes() {
+        SparqlResultSet unbound = resultSet(List.of("x", "y"),
+                solution("x", iri("a")));
+        SparqlResultSet bound = resultSet(List.of("x", "y"),
+                solution("x", iri("a"), "y", iri("b")));
+
+        assertTrue(SparqlResultSetComparator.areEquivalent(unbound, resultSet(List.of("y", "x"),
+                solution("x", iri("a")))));
+        assertFalse(SparqlResultSetComparator.areEquivalent(unbound, bound));
+        assertFalse(SparqlResultSetComparator.areEquivalent(bound, unbound));
+    }
+
+    @Test
+    public void differentVariablesAreNotEquivalent() {
+        SparqlResultSet expected = resultSet(List.of("x", "y"), solution("x", iri("a")));
+        SparqlResultSet actual = resultSet(List.of("x"), solution("x", iri("a")));
+
+        assertFalse(SparqlResultSetComparator.areEquivalent(expected, actual));
+    }
+
+    @Test
+    public void literalsAreComparedWithTheirLanguageAndDatatype() {
+        assertTrue(SparqlResultSetComparator.areEquivalent(
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("chat", null, "FR"))),
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("chat", null, "fr")))));
+        assertFalse(SparqlResultSetComparator.areEquivalent(
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("chat", null, "fr"))),
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("chat", null, "en")))));
+        assertFalse(SparqlResultSetComparator.areEquivalent(
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("chat", null, "fr"))),
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("chat", null, null)))));
+        // A simple literal is an xsd:string
+        assertTrue(SparqlResultSetComparator.areEquivalent(
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("1", null, null))),
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("1", RdfTerm.XSD_STRING, null)))));
+        assertFalse(SparqlResultSetComparator.areEquivalent(
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("1", XSD_INTEGER, null))),
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("1", null, null)))));
+        assertFalse(SparqlResultSetComparator.areEquivalent(
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("1", XSD_INTEGER, null))),
+                resultSet(List.of("l"), solution("l", RdfTerm.literal("01", XSD_INTEGER, null)))));
+    }
+
+    @Test
+    public void booleanResultsAreComparedByValue() {
+        assertTrue(SparqlResultSetComparator.areEquivalent(SparqlResultSet.booleanResult(true),
+                SparqlResultSet.booleanResult(true)));
+        assertFalse(SparqlResultSetComparator.areEquivalent(SparqlResultSet.booleanResult(true),
+                SparqlResultSet.booleanResult(false)));
+        assertFalse(SparqlResultSetComparator.areEquivalent(SparqlResultSet.booleanResult(true),
+                resultSet(List.of())));
+    }
+
+    @Test
+    public void orderIsOnlyCheckedOnTheOrderVariables() {
+        SparqlResultSet expected = resultSet(List.of("x", "y"),
+                solution("x", literal(1), "y", iri("a")),
+                solution("x", literal(2), "y", iri("b")),
+                solution("x", literal(2), "y", iri("c")));
+        // Ties on the order variable can come in any order
+        SparqlResultSet tiesSwapped = resultSet(List.of("x", "y"),
+                solution("x", literal(1), "y", iri("a")),
+                solution("x", literal(2), "y", iri("c")),
+                solution("x", literal(2), "y", iri("b")));
+        SparqlResultSet misordered = resultSet(List.of("x", "y"),
+                solution("x", literal(2), "y", iri("b")),
+                solution("x", literal(1), "y", iri("a")),
+                solution("x", literal(2), "y", iri("c")));
+
+        assertTrue(SparqlResultSetComparator.areEquivalent(expected, tiesSwapped, List.of("x")));
+        assertFalse(SparqlResultSetComparator.areEquivalent(expected, tiesSwapped, List.of("x", "y")));
+        assertFalse(SparqlResultSetComparator.areEquivalent(expected, misordered, List.of("x")));
+        assertTrue(SparqlResultSetComparator.areEquivalent(expected, misordered));
+        // Not checked when the order variable is not projected
+        assertTrue(SparqlResultSetComparator.areEquivalent(expected, misordered, List.of("z")));
+    }
+
+    @Test
+    public void orderVariablesAreExtractedFromTheOutermostQuery() {
+        assertEquals(List.of("x", "y"), SparqlResultFiles.getOrderVariables(
+                "SELECT * { ?x ?p ?y } ORDER BY ?x DESC(?y) LIMIT 10"));
+        assertEquals(List.of("y"), SparqlResultFiles.getOrderVariables(
+                "SELECT * { { SELECT ?x { ?x ?p ?o } ORDER BY ?x LIMIT 1 } ?x ?q ?y } # ORDER BY ?x\nORDER BY ASC(?y)"));
+        assertEquals(List.of(), SparqlResultFiles.getOrderVariables(
+                "SELECT * { { SELECT ?x { ?x ?p ?o } ORDER BY ?x } }"));
+        // Expressions cannot be checked from the results
+        assertEquals(List.of(), SparqlResultFiles.getOrderVariables("SELECT * { ?x ?p ?y } ORDER BY STR(?x)"));
+    }
+
+    @Test
+    public void xmlResultsAreRead() throws IOException {
+        Path file = write("results.srx", "<?xml version=\"1.0\"?>\n"
+                + "<sparql xmlns=\"http://www.w3.org/2005/sparql-results#\">\n"
+                + "  <head><variable name=\"x\"/><variable name=\"l\"/><variable name=\"u\"/></head>\n"
+                + "  <results>\n"
+                + "    <result>\n"
+                + "      <binding name=\"x\"><bnode>r1</bnode></binding>\n"
+                + "      <binding name=\"l\"><literal xml:lang=\"EN\">cat</literal></binding>\n"
+                + "    </result>\n"
+                + "    <result>\n"
+                + "      <binding name=\"x\"><uri>http://example.org/a</uri></binding>\n"
+                + "      <binding name=\"l\"><literal datatype=\"" + XSD_INTEGER + "\">42</literal></binding>\n"
+                + "      <binding name=\"u\"><literal> spaced &amp; escaped </literal></binding>\n"
+                + "    </result>\n"
+                + "  </results>\n"
+                + "</sparql>\n");
+
+        assertTrue(SparqlXmlResultsReader.isSparqlResultsFile(file));
+        SparqlResultSet resultSet = SparqlResultFiles.read(file);
+        assertEquals(List.of("x", "l", "u"), resultSet.getVariables());
+        assertEquals(List.of(
+                solution("x", bnode("r1"), "l", RdfTerm.literal("cat", null, "en")),
+                solution("x", iri("a"), "l", literal(42), "u", RdfTerm.literal(" spaced & escaped ", null, null))),
+                resultSet.getSolutions());
+    }
+
+    @Test
+    public void xmlBooleanResultIsRead() throws IOException {
+        Path file = write("ask.srx", "<sparql xmlns=\"http://www.w3.org/2005/sparql-results#\">"
+                + "<head/><boolean> true </boolean></sparql>");
+
+        assertEquals(Boolean.TRUE, SparqlResultFiles.read(file).getBooleanResult());
+    }
+
+    @Test
+    public void otherXmlFilesAreNotSparqlResults() throws IOException {
+        Path file = write("other.xml", "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"/>");
+
+        assertFalse(SparqlXmlResultsReader.isSparqlResultsFile(file));
+    }
+
+    @Test
+    public void jsonResultsAreRead() throws IOException {
+        Path file = write("results.srj", "{ \"head\": { \"vars\": [ \"x\", \"l\", \"u\" ] },\n"
+                + "  \"results\": { \"bindings\": [\n"
+                + "    { \"x\": { \"type\": \"bnode\", \"value\": \"r1\" },\n"
+                + "      \"l\": { \"type\": \"literal\", \"value\": \"cat\", \"xml:lang\": \"en\" } },\n"
+                + "    { \"x\": { \"type\": \"uri\", \"value\": \"http://example.org/a\" },\n"
+                + "      \"l\": { \"type\": \"typed-literal\", \"value\": \"42\", \"datatype\": \"" + XSD_INTEGER + "\" },\n"
+                + "      \"u\": { \"type\": \"literal\", \"value\": \"caf\\u00e9\" } }\n"
+                + "  ] } }");
+
+        SparqlResultSet resultSet = SparqlResultFiles.read(file);
+        assertEquals(List.of("x", "l", "u"), resultSet.getVariables());
+        assertEquals(List.of(
+                solution("x", bnode("r1"), "l", RdfTerm.literal("cat", null, "en")),
+                solution("x", iri("a"), "l", literal(42), "u", RdfTerm.literal("café", null, null))),
+                resultSet.getSolutions());
+    }
+
+    @Test
+    public void jsonBooleanResultIsRead() throws IOException {
+        Path file = write("ask.srj", "{ \"head\": {}, \"boolean\": false }");
+
+        assertEquals(Boolean.FALSE, SparqlResultFiles.read(file).getBooleanResult());
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownJsonTermTypeIsRejected() throws IOException {
+        SparqlResultFiles.read(write("bad.srj", "{ \"head\": { \"vars\": [ \"x\" ] }, \"results\": { \"bindings\": "
+                + "[ { \"x\": { \"type\": \"triple\", \"value\": \"\" } } ] } }"));
+    }
+
+    @Test
+    public void xmlAndJsonResultsOfTheSameQueryAreEquivalent() throws IOException {
+        Path xmlFile = write("same.srx", "<sparql xmlns=\"http://www.w3.org/2005/sparql-results#\">"
+                + "<head><variable name=\"x\"/></head><results>"
+                + "<result><binding name=\"x\"><bnode>b0</bnode></binding></result>"
+                + "<result><binding name=\"x\"><literal>v</literal></binding></result>"
+                + "</results></sparql>");
+        Path jsonFile = write("same.srj", "{ \"head\": { \"vars\": [ \"x\" ] }, \"results\": { \"bindings\": [ "
+                + "{ \"x\": { \"type\": \"literal\", \"value\": \"v\" } }, "
+                + "{ \"x\": { \"type\": \"bnode\", \"value\": \"genid-7\" } } ] } }");
+
+        assertTrue(SparqlResultFiles.compare(xmlFile, jsonFile, List.of()));
+    }
+
+    private Path write(String fileName, String content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(fileName);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @SafeVarargs
+    private static SparqlResultSet resultSet(List<String> variables, Map<String, RdfTerm>... solutions) {
+        List<Map<String, RdfTerm>> solutionList = new ArrayList<>(solutions.length);
+        for (Map<String, RdfTerm> solution : solutions) {
+            solutionList.add(solution);
+        }
+        return SparqlResultSet.solutions(variables, solutionList);
+    }
+
+    /**
+     * @param bindings Variables followed by their value
+     */
+    private static Map<String, RdfTerm> solution(Object... bindings) {
+        Map<String, RdfTerm> solution = new HashMap<>();
+        for (int i = 0; i < bindings.length; i += 2) {
+            solution.put((String) bindings[i], (RdfTerm) bindings[i + 1]);
+        }
+        return solution;
+    }
+
+    private static RdfTerm iri(String localName) {
+        return RdfTerm.iri(EX + localName);
+    }
+
+    private static RdfTerm bnode(String label) {
+        return RdfTerm.blankNode(label);
+    }
+
+    private static RdfTerm literal(int value) {
+        return RdfTerm.literal(Integer.toString(value), XSD_INTEGER, null);
+    }
+}
@@ -0,0 +1,180 @@
+package fr.inria.corese.w3cJunitTestsGenerator.w3cTests.factory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestIndexTest {
+
+    private static final String MANIFEST = "https://w3c.github.io/rdf-tests/sparql/sparql11/basic-update/manifest.ttl";
+    private static final String UPDATE_TYPE = "http://www.w3.org/2009/sparql/tests/test-update#UpdateEvaluationTest";
+    private static final String SHACL_TYPE = "http://www.w3.org/ns/shacl-test#Validate";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void descriptionsAreReadBackAsWritten() throws IOException {
+        TestDescription update = new TestDescription(MANIFEST + "#insert-01");
+        update.setIfAbsent("name", "Simple insert data 1");
+        update.setIfAbsent("comment", "Données insérées — 挿入 ✓");
+        update.getRequestFiles().add(MANIFEST.replace("manifest.ttl", "insert-01.ru"));
+        update.getActionDataFiles().add(MANIFEST.replace("manifest.ttl", "empty.ttl"));
+        update.getResultDataFiles().add(MANIFEST.replace("manifest.ttl", "spo.ttl"));
+        update.getResultDataFiles().add(MANIFEST.replace("manifest.ttl", "ñ.ttl"));
+        update.getActionGraphs().put("http://example.org/g1", MANIFEST.replace("manifest.ttl", "g1.ttl"));
+        update.getResultGraphs().put("http://example.org/g1", MANIFEST.replace("manifest.ttl", "g1-post.ttl"));
+        update.getResultGraphs().put("http://example.org/g2", MANIFEST.replace("manifest.ttl", "g2-post.ttl"));
+
+        // Only scalar fields, some of them absent, and empty collections
+        TestDescription shacl = new TestDescription("urn:x-shacl:test/ü");
+        shacl.setIfAbsent("dataGraph", "urn:x-shacl:data");
+        shacl.setIfAbsent("shapesGraph", "urn:x-shacl:data");
+        shacl.setIfAbsent("conformity", "false");
+        shacl.setIfAbsent("comment", "");
+
+        TestIndexWriter writer = new TestIndexWriter();
+        writer.add(update.getTestUri(), UPDATE_TYPE, URI.create(MANIFEST), update);
+        writer.add(shacl.getTestUri(), SHACL_TYPE, URI.create("urn:x-shacl:manifest"), shacl);
+        Path indexPath = folder.getRoot().toPath().resolve("index").resolve("suite.w3cindex");
+        writer.write(indexPath);
+
+        TestIndex index = TestIndex.open(indexPath);
+        assertEquals(2, index.size());
+        assertEquals(update.getTestUri(), index.getTestUri(0));
+        assertEquals(UPDATE_TYPE, index.getTypeUri(0));
+        assertEquals(URI.create(MANIFEST), index.getManifestUri(0));
+        assertDescriptionEquals(update, index.getDescription(0));
+        assertEquals(shacl.getTestUri(), index.getTestUri(1));
+        assertEquals(SHACL_TYPE, index.getTypeUri(1));
+        assertEquals(URI.create("urn:x-shacl:manifest"), index.getManifestUri(1));
+        assertDescriptionEquals(shacl, index.getDescription(1));
+
+        TestDescription readShacl = index.getDescription(1);
+        assertNull(readShacl.getName());
+        assertNull(readShacl.getAction());
+        assertEquals("", readShacl.getComment());
+        assertTrue(readShacl.getRequestFiles().isEmpty());
+        assertTrue(readShacl.getResultGraphs().isEmpty());
+    }
+
+    @Test
+    public void emptyIndexIsReadBack() throws IOException {
+        Path indexPath = folder.getRoot().toPath().resolve("empty.w3cindex");
+        new TestIndexWriter().write(indexPath);
+
+        assertEquals(0, TestIndex.open(indexPath).size());
+    }
+
+    @Test
+    public void otherMagicIsRejected() throws IOException {
+        byte[] bytes = writeSingleTestIndex();
+        ByteBuffer.wrap(bytes).putInt(0, 0x12345678);
+
+        assertRejected(bytes, "Not a test index file");
+    }
+
+    @Test
+    public void otherVersionIsRejected() throws IOException {
+        byte[] bytes = writeSingleTestIndex();
+        ByteBuffer.wrap(bytes).putShort(4, (short) (TestIndex.VERSION + 1));
+
+        assertRejected(bytes, "Unsupported test index version");
+    }
+
+    @Test
+    public void otherRecordLayoutIsRejected() throws IOException {
+        byte[] bytes = writeSingleTestIndex();
+        ByteBuffer.wrap(bytes).putShort(6, (short) (TestIndex.RECORD_FIELDS - 1));
+
+        assertRejected(bytes, "Unsupported test index version");
+    }
+
+    @Test
+    public void truncatedFileIsRejected() throws IOException {
+        byte[] bytes = writeSingleTestIndex();
+
+        assertRejected(Arrays.copyOf(bytes, bytes.length - 1), "Truncated test index file");
+        assertRejected(Arrays.copyOf(bytes, TestIndex.HEADER_SIZE + 4), "Truncated test index file");
+        assertRejected(Arrays.copyOf(bytes, TestIndex.HEADER_SIZE - 1), "Not a test index file");
+        assertRejected(new byte[0], "Not a test index file");
+    }
+
+    @Test
+    public void fileWithTrailingBytesIsRejected() throws IOException {
+        byte[] bytes = writeSingleTestIndex();
+
+        assertRejected(Arrays.copyOf(bytes, bytes.length + 4), "Truncated test index file");
+    }
+
+    @Test
+    public void outOfRangeReferencesAreRejected() throws IOException {
+        int record = TestIndex.HEADER_SIZE;
+        int requestFiles = record + TestIndex.SCALAR_FIELDS * Integer.BYTES;
+
+        byte[] bytes = writeSingleTestIndex();
+        ByteBuffer.wrap(bytes).putInt(record + TestIndex.FIELD_TEST * Integer.BYTES, 1000);
+        assertRejected(bytes, "Corrupt test index file: string id 1000");
+
+        bytes = writeSingleTestIndex();
+        ByteBuffer.wrap(bytes).putInt(record + TestIndex.FIELD_NAME * Integer.BYTES, -2);
+        assertRejected(bytes, "Corrupt test index file: string id -2");
+
+        bytes = writeSingleTestIndex();
+        ByteBuffer.wrap(bytes).putInt(requestFiles + Integer.BYTES, 2);
+        assertRejected(bytes, "Corrupt test index file: list (0, 2)");
+    }
+
+    private byte[] writeSingleTestIndex() throws IOException {
+        TestDescription description = new TestDescription(MANIFEST + "#insert-01");
+        description.setIfAbsent("name", "insert-01");
+        description.getRequestFiles().add(MANIFEST.replace("manifest.ttl", "insert-01.ru"));
+        TestIndexWriter writer = new TestIndexWriter();
+        writer.add(description.getTestUri(), UPDATE_TYPE, URI.create(MANIFEST), description);
+        Path indexPath = folder.newFile().toPath();
+        writer.write(indexPath);
+        return Files.readAllBytes(indexPath);
+    }
+
+    private void assertRejected(byte[] bytes, String expectedMessage) throws IOException {
+        Path indexPath = folder.newFile().toPath();
+        Files.write(indexPath, bytes);
+        try {
+            TestIndex.open(indexPath);
+            fail("The index should have been rejected: " + expectedMessage);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(expectedMessage));
+        }
+    }
+
+    private static void assertDescriptionEquals(TestDescription expected, TestDescription actual) {
+        assertEquals(expected.getTestUri(), actual.getTestUri());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getComment(), actual.getComment());
+        assertEquals(expected.getAction(), actual.getAction());
+        assertEquals(expected.getResult(), actual.getResult());
+        assertEquals(expected.getQuery(), actual.getQuery());
+        assertEquals(expected.getData(), actual.getData());
+        assertEquals(expected.getDataGraph(), actual.getDataGraph());
+        assertEquals(expected.getShapesGraph(), actual.getShapesGraph());
+        assertEquals(expected.getConformity(), actual.getConformity());
+        assertEquals(expected.getHashAlgorithm(), actual.getHashAlgorithm());
+        assertEquals(expected.getRequestFiles(), actual.getRequestFiles());
+        assertEquals(expected.getActionDataFiles(), actual.getActionDataFiles());
+        assertEquals(expected.getResultDataFiles(), actual.getResultDataFiles());
+        assertEquals(expected.getActionGraphs(), actual.getActionGraphs());
+        assertEquals(expected.getResultGraphs(), actual.getResultGraphs());
+    }
+}